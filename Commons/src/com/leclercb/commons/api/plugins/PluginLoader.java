@@ -32,16 +32,33 @@
  */
 package com.leclercb.commons.api.plugins;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.reflect.Modifier;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+
 import com.leclercb.commons.api.event.listchange.ListChangeEvent;
 import com.leclercb.commons.api.event.listchange.ListChangeListener;
 import com.leclercb.commons.api.event.listchange.ListChangeSupport;
@@ -57,6 +74,9 @@ public class PluginLoader<PluginClass> implements ListChangeSupported {
 	private ArrayList<PluginClass> plugins;
 	private ArrayList<File> files;
 	
+	private File indexFile;
+	private Properties index;
+	
 	public PluginLoader(Class<PluginClass> pluginClass) {
 		CheckUtils.isNotNull(pluginClass);
 		
@@ -65,6 +85,38 @@ public class PluginLoader<PluginClass> implements ListChangeSupported {
 		this.pluginClass = pluginClass;
 		this.plugins = new ArrayList<PluginClass>();
 		this.files = new ArrayList<File>();
+		
+		this.indexFile = null;
+		this.index = new Properties();
+	}
+	
+	public File getIndexFile() {
+		return this.indexFile;
+	}
+	
+	/**
+	 * Sets the file in which the plugin class names found in each jar are
+	 * stored, keyed by the checksum of the jar. The index is loaded from the
+	 * file if it exists. If the file is null, the index is only kept in
+	 * memory.
+	 */
+	public void setIndexFile(File indexFile) {
+		this.indexFile = indexFile;
+		this.index = new Properties();
+		
+		if (indexFile == null || !indexFile.exists())
+			return;
+		
+		InputStream input = null;
+		
+		try {
+			input = new FileInputStream(indexFile);
+			this.index.load(input);
+		} catch (Exception e) {
+			this.index.clear();
+		} finally {
+			IOUtils.closeQuietly(input);
+		}
 	}
 	
 	public File getFile(PluginClass plugin) {
@@ -118,16 +170,157 @@ public class PluginLoader<PluginClass> implements ListChangeSupported {
 		if (!tmpFile.exists())
 			throw new IllegalArgumentException("File must exist");
 		
+		URLClassLoader loader = this.createClassLoader(tmpFile);
+		
+		String checksum = this.getChecksum(tmpFile);
+		List<String> classNames = this.getIndexedClassNames(checksum);
+		
+		if (classNames == null) {
+			classNames = this.findPluginClassNames(tmpFile, loader);
+			this.setIndexedClassNames(checksum, classNames);
+			this.saveIndex();
+		}
+		
+		// Only the plugin classes are initialized
+		List<PluginClass> addedPlugins = new ArrayList<PluginClass>();
+		for (String className : classNames) {
+			try {
+				Class<?> tmpClass = Class.forName(className, true, loader);
+				
+				if (this.pluginClass.isAssignableFrom(tmpClass))
+					addedPlugins.add((PluginClass) tmpClass.newInstance());
+			} catch (Throwable t) {}
+		}
+		
+		if (add) {
+			for (PluginClass plugin : addedPlugins) {
+				this.addPlugin(originFile, plugin);
+			}
+		}
+		
+		return Collections.unmodifiableList(new ArrayList<PluginClass>(
+				addedPlugins));
+	}
+	
+	/**
+	 * Finds the plugin classes of the given jars and stores them in the index,
+	 * so that the following calls to {@link #loadJar(File, File, boolean)}
+	 * only load and initialize the plugin classes. The jars are scanned in
+	 * parallel. The entries of the index which do not match any of the given
+	 * jars are removed.
+	 */
+	public void indexJars(File[] jars) throws Exception {
+		CheckUtils.isNotNull(jars);
+		
+		List<Callable<String>> tasks = new ArrayList<Callable<String>>();
+		
+		for (final File jar : jars) {
+			if (!jar.isFile()
+					|| !FileUtils.getExtention(jar.getName()).equals("jar"))
+				continue;
+			
+			tasks.add(new Callable<String>() {
+				
+				@Override
+				public String call() throws Exception {
+					return PluginLoader.this.indexJar(jar);
+				}
+				
+			});
+		}
+		
+		Set<String> checksums = new HashSet<String>();
+		
+		if (tasks.size() != 0) {
+			int nbThreads = Math.min(
+					tasks.size(),
+					Runtime.getRuntime().availableProcessors());
+			
+			ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+			
+			try {
+				for (Future<String> future : executor.invokeAll(tasks)) {
+					try {
+						checksums.add(future.get());
+					} catch (Exception e) {}
+				}
+			} finally {
+				executor.shutdown();
+			}
+		}
+		
+		this.index.keySet().retainAll(checksums);
+		
+		this.saveIndex();
+	}
+	
+	private String indexJar(File jar) throws Exception {
+		String checksum = this.getChecksum(jar);
+		
+		if (this.getIndexedClassNames(checksum) != null)
+			return checksum;
+		
+		// Scan a copy of the jar so that the plugin file is not locked
+		File tmpFile = File.createTempFile("plugin_index_", ".jar");
+		
+		try {
+			org.apache.commons.io.FileUtils.copyFile(jar, tmpFile);
+			
+			this.setIndexedClassNames(checksum, this.findPluginClassNames(
+					tmpFile,
+					this.createClassLoader(tmpFile)));
+		} finally {
+			tmpFile.deleteOnExit();
+		}
+		
+		return checksum;
+	}
+	
+	/**
+	 * Returns the names of the plugin classes of the jar. The classes listed
+	 * in the "META-INF/services/" entry named after the plugin class are
+	 * returned if it exists. Otherwise every class of the jar is loaded
+	 * without being initialized to check whether it is a plugin class.
+	 */
+	private List<String> findPluginClassNames(File file, ClassLoader loader)
+			throws Exception {
+		List<String> classNames = new ArrayList<String>();
+		
 		JarFile jar = null;
 		
 		try {
-			URL url = new URL("jar", "", -1, tmpFile.toURI().toString() + "!/");
-			URLClassLoader loader = new URLClassLoader(new URL[] { url });
+			jar = new JarFile(file.getAbsolutePath());
+			
+			JarEntry services = jar.getJarEntry("META-INF/services/"
+					+ this.pluginClass.getName());
+			
+			if (services != null) {
+				BufferedReader reader = new BufferedReader(new InputStreamReader(
+						jar.getInputStream(services),
+						"UTF-8"));
+				
+				try {
+					String line = null;
+					while ((line = reader.readLine()) != null) {
+						int comment = line.indexOf('#');
+						
+						if (comment != -1)
+							line = line.substring(0, comment);
+						
+						line = line.trim();
+						
+						if (line.length() != 0)
+							classNames.add(line);
+					}
+				} finally {
+					IOUtils.closeQuietly(reader);
+				}
+				
+				return classNames;
+			}
 			
-			jar = new JarFile(tmpFile.getAbsolutePath());
 			Enumeration<JarEntry> entries = jar.entries();
 			
-			List<PluginClass> addedPlugins = new ArrayList<PluginClass>();
 			while (entries.hasMoreElements()) {
 				String tmp = entries.nextElement().getName();
 				
@@ -136,22 +329,17 @@ public class PluginLoader<PluginClass> implements ListChangeSupported {
 					tmp = tmp.replaceAll("/", ".");
 					
 					try {
-						Class<?> tmpClass = Class.forName(tmp, true, loader);
+						Class<?> tmpClass = Class.forName(tmp, false, loader);
 						
-						if (this.pluginClass.isAssignableFrom(tmpClass))
-							addedPlugins.add((PluginClass) tmpClass.newInstance());
+						if (this.pluginClass.isAssignableFrom(tmpClass)
+								&& !tmpClass.isInterface()
+								&& !Modifier.isAbstract(tmpClass.getModifiers()))
+							classNames.add(tmp);
 					} catch (Throwable t) {}
 				}
 			}
 			
-			if (add) {
-				for (PluginClass plugin : addedPlugins) {
-					this.addPlugin(originFile, plugin);
-				}
-			}
-			
-			return Collections.unmodifiableList(new ArrayList<PluginClass>(
-					addedPlugins));
+			return classNames;
 		} finally {
 			try {
 				if (jar != null)
@@ -162,6 +350,66 @@ public class PluginLoader<PluginClass> implements ListChangeSupported {
 		}
 	}
 	
+	private URLClassLoader createClassLoader(File file) throws Exception {
+		URL url = new URL("jar", "", -1, file.toURI().toString() + "!/");
+		return new URLClassLoader(new URL[] { url });
+	}
+	
+	private String getChecksum(File file) throws Exception {
+		InputStream input = null;
+		
+		try {
+			input = new FileInputStream(file);
+			return DigestUtils.md5Hex(input);
+		} finally {
+			IOUtils.closeQuietly(input);
+		}
+	}
+	
+	private List<String> getIndexedClassNames(String checksum) {
+		String value = this.index.getProperty(checksum);
+		
+		if (value == null)
+			return null;
+		
+		List<String> classNames = new ArrayList<String>();
+		
+		for (String className : value.split(";"))
+			if (className.length() != 0)
+				classNames.add(className);
+		
+		return classNames;
+	}
+	
+	private void setIndexedClassNames(String checksum, List<String> classNames) {
+		StringBuffer buffer = new StringBuffer();
+		
+		for (String className : classNames) {
+			if (buffer.length() != 0)
+				buffer.append(";");
+			
+			buffer.append(className);
+		}
+		
+		this.index.setProperty(checksum, buffer.toString());
+	}
+	
+	private synchronized void saveIndex() {
+		if (this.indexFile == null)
+			return;
+		
+		OutputStream output = null;
+		
+		try {
+			output = new FileOutputStream(this.indexFile);
+			this.index.store(output, "Plugin classes by jar checksum");
+		} catch (Exception e) {
+			
+		} finally {
+			IOUtils.closeQuietly(output);
+		}
+	}
+	
 	@Override
 	public void addListChangeListener(ListChangeListener listener) {
 		this.listChangeSupport.addListChangeListener(listener);
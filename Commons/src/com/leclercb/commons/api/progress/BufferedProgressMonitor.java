@@ -0,0 +1,230 @@
+/*
+ * TaskUnifier
+ * Copyright (c) 2011, Benjamin Leclerc
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ *   - Neither the name of TaskUnifier or the names of its
+ *     contributors may be used to endorse or promote products derived
+ *     from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.leclercb.commons.api.progress;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.Executor;
+
+import com.leclercb.commons.api.event.listchange.ListChangeEvent;
+import com.leclercb.commons.api.event.listchange.ListChangeListener;
+import com.leclercb.commons.api.event.listchange.ListChangeSupport;
+import com.leclercb.commons.api.utils.CheckUtils;
+
+/**
+ * A progress monitor which only keeps its last messages and which notifies
+ * its listeners by batches.
+ * 
+ * The messages are stored in a ring buffer: once the capacity is reached,
+ * adding a message discards the oldest one. The listeners are notified at most
+ * once per delay, with all the messages added since the previous notification
+ * (at most capacity messages). The notifications are run by the given
+ * executor (for example on the event dispatch thread), or on a background
+ * thread if there is none. Call {@link #flush()} to notify the listeners
+ * immediately on the calling thread.
+ */
+public class BufferedProgressMonitor extends ProgressMonitor {
+	
+	private ListChangeSupport listChangeSupport;
+	
+	private ProgressMessage[] messages;
+	private int first;
+	private int count;
+	
+	private LinkedList<ListChangeEvent> pendingEvents;
+	private boolean flushScheduled;
+	
+	private long delay;
+	private Timer timer;
+	private Executor executor;
+	
+	private final Object flushLock = new Object();
+	
+	public BufferedProgressMonitor(int capacity, long delay) {
+		this(capacity, delay, null);
+	}
+	
+	public BufferedProgressMonitor(int capacity, long delay, Executor executor) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException("Capacity must be greater than 0");
+		
+		if (delay < 0)
+			throw new IllegalArgumentException("Delay is not positive");
+		
+		this.listChangeSupport = new ListChangeSupport(this);
+		
+		this.messages = new ProgressMessage[capacity];
+		this.first = 0;
+		this.count = 0;
+		
+		this.pendingEvents = new LinkedList<ListChangeEvent>();
+		this.flushScheduled = false;
+		
+		this.delay = delay;
+		this.timer = null;
+		this.executor = executor;
+	}
+	
+	public int getCapacity() {
+		return this.messages.length;
+	}
+	
+	@Override
+	public synchronized int getMessageCount() {
+		return this.count;
+	}
+	
+	@Override
+	public synchronized ProgressMessage getMessage(int index) {
+		if (index < 0 || index >= this.count)
+			throw new IndexOutOfBoundsException("Index: "
+					+ index
+					+ ", Size: "
+					+ this.count);
+		
+		return this.messages[(this.first + index) % this.messages.length];
+	}
+	
+	@Override
+	public synchronized List<ProgressMessage> getMessages() {
+		List<ProgressMessage> messages = new ArrayList<ProgressMessage>(
+				this.count);
+		
+		for (int i = 0; i < this.count; i++)
+			messages.add(this.messages[(this.first + i) % this.messages.length]);
+		
+		return Collections.unmodifiableList(messages);
+	}
+	
+	@Override
+	public synchronized void addMessage(ProgressMessage message) {
+		CheckUtils.isNotNull(message);
+		
+		if (this.count == this.messages.length) {
+			this.messages[this.first] = null;
+			this.first = (this.first + 1) % this.messages.length;
+			this.count--;
+		}
+		
+		this.messages[(this.first + this.count) % this.messages.length] = message;
+		this.count++;
+		
+		this.pendingEvents.add(new ListChangeEvent(
+				this,
+				ListChangeEvent.VALUE_ADDED,
+				this.count - 1,
+				message));
+		
+		if (this.pendingEvents.size() > this.messages.length)
+			this.pendingEvents.removeFirst();
+		
+		if (!this.flushScheduled) {
+			this.flushScheduled = true;
+			
+			if (this.timer == null)
+				this.timer = new Timer("BufferedProgressMonitor", true);
+			
+			this.timer.schedule(new TimerTask() {
+				
+				@Override
+				public void run() {
+					Runnable flush = new Runnable() {
+						
+						@Override
+						public void run() {
+							BufferedProgressMonitor.this.flush();
+						}
+						
+					};
+					
+					if (BufferedProgressMonitor.this.executor == null)
+						flush.run();
+					else
+						BufferedProgressMonitor.this.executor.execute(flush);
+				}
+				
+			}, this.delay);
+		}
+	}
+	
+	/**
+	 * Notifies the listeners of the messages which have not been delivered
+	 * yet. The events are fired in the calling thread.
+	 */
+	public void flush() {
+		synchronized (this.flushLock) {
+			List<ListChangeEvent> events = null;
+			
+			synchronized (this) {
+				events = this.pendingEvents;
+				this.pendingEvents = new LinkedList<ListChangeEvent>();
+				this.flushScheduled = false;
+			}
+			
+			for (ListChangeEvent event : events)
+				this.listChangeSupport.fireListChange(event);
+		}
+	}
+	
+	@Override
+	public synchronized void clear() {
+		for (int i = 0; i < this.messages.length; i++)
+			this.messages[i] = null;
+		
+		this.first = 0;
+		this.count = 0;
+		
+		this.pendingEvents.clear();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void addListChangeListener(ListChangeListener listener) {
+		this.listChangeSupport.addListChangeListener(listener);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void removeListChangeListener(ListChangeListener listener) {
+		this.listChangeSupport.removeListChangeListener(listener);
+	}
+	
+}
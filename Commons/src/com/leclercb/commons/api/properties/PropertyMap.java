@@ -52,6 +52,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.leclercb.commons.api.event.propertychange.PropertyChangeSupport;
 import com.leclercb.commons.api.event.propertychange.PropertyChangeSupported;
@@ -74,6 +75,9 @@ public class PropertyMap extends Properties implements PropertyChangeSupported,
 	private PropertyMap exceptionProperties;
 	private transient final Map<Class<?>, PropertiesCoder<?>> coders;
 	
+	private transient final Map<String, CachedValue> cache;
+	private transient long cacheModificationCount;
+	
 	public PropertyMap() {
 		this(new Properties(), null);
 	}
@@ -99,6 +103,9 @@ public class PropertyMap extends Properties implements PropertyChangeSupported,
 		this.exceptionProperties = exceptionProperties;
 		
 		this.coders = new HashMap<Class<?>, PropertiesCoder<?>>();
+		
+		this.cache = new ConcurrentHashMap<String, CachedValue>();
+		this.cacheModificationCount = 0;
 	}
 	
 	public void replaceKey(String oldKey, String newKey) {
@@ -157,6 +164,121 @@ public class PropertyMap extends Properties implements PropertyChangeSupported,
 		return coder;
 	}
 	
+	/**
+	 * Returns the value of the property, parsed once and kept until the
+	 * property changes. Returns the default value of the key if the property
+	 * is not set or is invalid.
+	 */
+	public <T> T getValue(SettingKey<T> key) {
+		T value = this.getCachedValue(key.getKey(), key.getType());
+		
+		if (value == null)
+			return key.getDefaultValue();
+		
+		return value;
+	}
+	
+	/**
+	 * Same as {@link #getBooleanProperty(String, Boolean)} but the parsed value
+	 * is kept until the property changes.
+	 */
+	public boolean getBoolean(String key, boolean def) {
+		Boolean value = this.getCachedValue(key, Boolean.class);
+		
+		if (value == null)
+			return def;
+		
+		return value;
+	}
+	
+	/**
+	 * Same as {@link #getIntegerProperty(String, Integer)} but the parsed value
+	 * is kept until the property changes.
+	 */
+	public int getInteger(String key, int def) {
+		Integer value = this.getCachedValue(key, Integer.class);
+		
+		if (value == null)
+			return def;
+		
+		return value;
+	}
+	
+	private <T> T getCachedValue(String key, Class<T> type) {
+		CachedValue cachedValue = this.cache.get(key);
+		
+		if (cachedValue != null && cachedValue.type == type)
+			return type.cast(cachedValue.value);
+		
+		long modificationCount;
+		
+		synchronized (this.cache) {
+			modificationCount = this.cacheModificationCount;
+		}
+		
+		Object value;
+		
+		try {
+			value = this.parseValue(key, type);
+		} catch (PropertiesException e) {
+			value = null;
+		}
+		
+		synchronized (this.cache) {
+			// Do not keep a value parsed before a change of the property
+			if (modificationCount == this.cacheModificationCount)
+				this.cache.put(key, new CachedValue(type, value));
+		}
+		
+		return type.cast(value);
+	}
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private Object parseValue(String key, Class<?> type) {
+		if (type == Boolean.class)
+			return this.getBooleanProperty(key);
+		
+		if (type == Byte.class)
+			return this.getByteProperty(key);
+		
+		if (type == Color.class)
+			return this.getColorProperty(key);
+		
+		if (type == Double.class)
+			return this.getDoubleProperty(key);
+		
+		if (type == Float.class)
+			return this.getFloatProperty(key);
+		
+		if (type == Integer.class)
+			return this.getIntegerProperty(key);
+		
+		if (type == Locale.class)
+			return this.getLocaleProperty(key);
+		
+		if (type == Long.class)
+			return this.getLongProperty(key);
+		
+		if (type == String.class)
+			return this.getStringProperty(key);
+		
+		if (type.isEnum())
+			return this.getEnumProperty(key, (Class) type);
+		
+		throw new IllegalArgumentException("Unsupported setting type: " + type);
+	}
+	
+	private void invalidateCache(Object key) {
+		synchronized (this.cache) {
+			this.cacheModificationCount++;
+			
+			if (key == null)
+				this.cache.clear();
+			else
+				this.cache.remove(key);
+		}
+	}
+	
 	public Boolean getBooleanProperty(String key) {
 		String value = this.properties.getProperty(key);
 		
@@ -563,6 +685,7 @@ public class PropertyMap extends Properties implements PropertyChangeSupported,
 			Object oldValue,
 			Object newValue) {
 		this.properties.setProperty(key, value);
+		this.invalidateCache(key);
 		
 		this.propertyChangeSupport.firePropertyChange(new PropertyChangeEvent(
 				this,
@@ -717,6 +840,7 @@ public class PropertyMap extends Properties implements PropertyChangeSupported,
 	@Override
 	public void clear() {
 		this.properties.clear();
+		this.invalidateCache(null);
 	}
 	
 	@Override
@@ -810,12 +934,14 @@ public class PropertyMap extends Properties implements PropertyChangeSupported,
 	@Override
 	public void load(InputStream inStream) throws IOException {
 		this.properties.load(inStream);
+		this.invalidateCache(null);
 		this.reloadPropertiesSupport.fireReloadPropertiesPerformed();
 	}
 	
 	@Override
 	public void load(Reader reader) throws IOException {
 		this.properties.load(reader);
+		this.invalidateCache(null);
 		this.reloadPropertiesSupport.fireReloadPropertiesPerformed();
 	}
 	
@@ -823,6 +949,7 @@ public class PropertyMap extends Properties implements PropertyChangeSupported,
 	public void loadFromXML(InputStream in) throws IOException,
 			InvalidPropertiesFormatException {
 		this.properties.loadFromXML(in);
+		this.invalidateCache(null);
 		this.reloadPropertiesSupport.fireReloadPropertiesPerformed();
 	}
 	
@@ -833,17 +960,22 @@ public class PropertyMap extends Properties implements PropertyChangeSupported,
 	
 	@Override
 	public Object put(Object key, Object value) {
-		return this.properties.put(key, value);
+		Object oldValue = this.properties.put(key, value);
+		this.invalidateCache(key);
+		return oldValue;
 	}
 	
 	@Override
 	public void putAll(Map<? extends Object, ? extends Object> t) {
 		this.properties.putAll(t);
+		this.invalidateCache(null);
 	}
 	
 	@Override
 	public Object remove(Object key) {
-		return this.properties.remove(key);
+		Object oldValue = this.properties.remove(key);
+		this.invalidateCache(key);
+		return oldValue;
 	}
 	
 	@Override
@@ -902,4 +1034,16 @@ public class PropertyMap extends Properties implements PropertyChangeSupported,
 		return this.properties.values();
 	}
 	
+	private static class CachedValue {
+		
+		private Class<?> type;
+		private Object value;
+		
+		public CachedValue(Class<?> type, Object value) {
+			this.type = type;
+			this.value = value;
+		}
+		
+	}
+	
 }
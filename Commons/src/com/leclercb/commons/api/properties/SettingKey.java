@@ -0,0 +1,79 @@
+/*
+ * TaskUnifier
+ * Copyright (c) 2011, Benjamin Leclerc
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ *   - Neither the name of TaskUnifier or the names of its
+ *     contributors may be used to endorse or promote products derived
+ *     from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.leclercb.commons.api.properties;
+
+import com.leclercb.commons.api.utils.CheckUtils;
+
+/**
+ * Typed handle on a property of a {@link PropertyMap}. The value read with
+ * {@link PropertyMap#getValue(SettingKey)} is parsed once and kept until the
+ * property changes. Only immutable types are supported: the wrappers of the
+ * primitive types, strings, colors, locales and enums.
+ */
+public final class SettingKey<T> {
+	
+	private final String key;
+	private final Class<T> type;
+	private final T defaultValue;
+	
+	public SettingKey(String key, Class<T> type) {
+		this(key, type, null);
+	}
+	
+	public SettingKey(String key, Class<T> type, T defaultValue) {
+		CheckUtils.isNotNull(key);
+		CheckUtils.isNotNull(type);
+		
+		this.key = key;
+		this.type = type;
+		this.defaultValue = defaultValue;
+	}
+	
+	public String getKey() {
+		return this.key;
+	}
+	
+	public Class<T> getType() {
+		return this.type;
+	}
+	
+	public T getDefaultValue() {
+		return this.defaultValue;
+	}
+	
+	@Override
+	public String toString() {
+		return this.key;
+	}
+	
+}
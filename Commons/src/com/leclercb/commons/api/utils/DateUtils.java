@@ -34,9 +34,17 @@ package com.leclercb.commons.api.utils;
 
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
+import java.util.TimeZone;
 
 public final class DateUtils {
 	
+	/**
+	 * Value in milliseconds standing for a null date.
+	 */
+	public static final long NO_DATE = Long.MIN_VALUE;
+	
+	private static final long DAY = 24 * 60 * 60 * 1000;
+	
 	private DateUtils() {
 		
 	}
@@ -58,6 +66,53 @@ public final class DateUtils {
 		return clone;
 	}
 	
+	/**
+	 * Returns the time of the calendar in milliseconds, or {@link #NO_DATE}
+	 * if the calendar is null.
+	 */
+	public static long getTimeInMillis(Calendar calendar) {
+		if (calendar == null)
+			return NO_DATE;
+		
+		return calendar.getTimeInMillis();
+	}
+	
+	/**
+	 * Returns a calendar in the default time zone set to the given time, or
+	 * null if the time is {@link #NO_DATE}.
+	 */
+	public static Calendar getCalendar(long millis) {
+		if (millis == NO_DATE)
+			return null;
+		
+		Calendar calendar = Calendar.getInstance();
+		calendar.setTimeInMillis(millis);
+		
+		return calendar;
+	}
+	
+	/**
+	 * Returns the number of days between 1970-01-01 and the given time in the
+	 * default time zone.
+	 */
+	public static long getDayNumber(long millis) {
+		return getDayNumber(millis, TimeZone.getDefault());
+	}
+	
+	/**
+	 * Returns the number of days between 1970-01-01 and the given time in the
+	 * given time zone.
+	 */
+	public static long getDayNumber(long millis, TimeZone timeZone) {
+		long local = millis + timeZone.getOffset(millis);
+		long day = local / DAY;
+		
+		if (local < 0 && local % DAY != 0)
+			day--;
+		
+		return day;
+	}
+	
 	public static void goToFirstDayOfMonth(Calendar c) {
 		c.set(Calendar.DAY_OF_MONTH, 1);
 	}
@@ -1,45 +1,62 @@
 package com.leclercb.taskunifier.cl.main;
 
 import java.io.BufferedOutputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-
-import org.w3c.dom.DOMImplementation;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamWriter;
 
 public class Main {
 	
+	private static final int DEFAULT_PORT = 4576;
+	
+	private static final int BATCH_SIZE = 500;
+	
 	public static void main(String[] args) throws Exception {
-		if (args.length == 0 || args.length > 2) {
+		if (args.length == 0) {
 			exitAndPrintUsage();
 			return;
 		}
 		
-		String title = args[0];
-		int port = 4576;
-		
-		if (args.length == 2) {
-			if (args[1].matches("[0-9]{1,4}")) {
-				port = Integer.parseInt(args[1]);
-			} else {
-				System.err.println("Port is invalid: [0-9]{1,4}");
-				exitAndPrintUsage();
-			}
+		if ("--batch".equals(args[0])) {
+			mainBatch(args);
+			return;
 		}
 		
-		String xml = null;
+		if (args.length > 2) {
+			exitAndPrintUsage();
+			return;
+		}
+		
+		String title = args[0];
+		int port = DEFAULT_PORT;
+		
+		if (args.length == 2)
+			port = parsePort(args[1]);
+		
+		Socket socket = null;
+		OutputStream output = null;
 		
 		try {
-			xml = createXml(title);
+			socket = new Socket("127.0.0.1", port);
+			output = new BufferedOutputStream(socket.getOutputStream());
+		} catch (Exception e) {
+			System.err.println("Please check that TaskUnifier is started");
+			System.exit(1);
+		}
+		
+		try {
+			List<String> titles = new ArrayList<String>();
+			titles.add(title);
+			
+			writeXml(output, titles);
 		} catch (Exception e) {
 			System.err.println("An error occured during the creation of the xml");
 			e.printStackTrace();
@@ -47,7 +64,8 @@ public class Main {
 		}
 		
 		try {
-			sendXml(xml, port);
+			output.close();
+			socket.close();
 		} catch (Exception e) {
 			System.err.println("Please check that TaskUnifier is started");
 			System.exit(1);
@@ -56,61 +74,137 @@ public class Main {
 		System.exit(0);
 	}
 	
-	private static void exitAndPrintUsage() {
-		System.err.println("Usage: \"quick task\" [port]");
-		System.exit(1);
-	}
-	
-	private static void sendXml(String xml, int port) throws Exception {
-		Socket socket = new Socket("127.0.0.1", port);
-		BufferedOutputStream stream = new BufferedOutputStream(
-				socket.getOutputStream());
-		stream.write(xml.getBytes());
-		
-		stream.close();
-		socket.close();
-	}
-	
-	private static String createXml(String title) throws Exception {
-		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-		DocumentBuilder builder = factory.newDocumentBuilder();
-		DOMImplementation implementation = builder.getDOMImplementation();
+	/**
+	 * Reads one quick task per line from a file (or from the standard input
+	 * if the file is "-") and sends them over a single connection, in
+	 * documents of at most BATCH_SIZE quick tasks.
+	 */
+	private static void mainBatch(String[] args) throws Exception {
+		if (args.length < 2 || args.length > 3) {
+			exitAndPrintUsage();
+			return;
+		}
 		
-		Document document = implementation.createDocument(null, null, null);
-		Element root = document.createElement("com");
-		document.appendChild(root);
+		int port = DEFAULT_PORT;
 		
-		Element applicationNameElement = document.createElement("applicationName");
-		applicationNameElement.setTextContent("TaskUnifier");
+		if (args.length == 3)
+			port = parsePort(args[2]);
 		
-		Element quickTasksElement = document.createElement("quicktasks");
+		InputStream input = null;
 		
-		Element quickTaskElement = document.createElement("quicktask");
+		try {
+			if ("-".equals(args[1]))
+				input = System.in;
+			else
+				input = new FileInputStream(args[1]);
+		} catch (Exception e) {
+			System.err.println("Cannot read file: " + args[1]);
+			System.exit(1);
+		}
 		
-		Element titleElement = document.createElement("title");
-		titleElement.setTextContent(title);
+		Socket socket = null;
+		OutputStream output = null;
 		
-		root.appendChild(applicationNameElement);
-		root.appendChild(quickTasksElement);
-		quickTasksElement.appendChild(quickTaskElement);
-		quickTaskElement.appendChild(titleElement);
+		try {
+			socket = new Socket("127.0.0.1", port);
+			output = new BufferedOutputStream(socket.getOutputStream());
+		} catch (Exception e) {
+			System.err.println("Please check that TaskUnifier is started");
+			System.exit(1);
+		}
 		
-		DOMSource domSource = new DOMSource(document);
-		TransformerFactory tf = TransformerFactory.newInstance();
-		Transformer transformer = tf.newTransformer();
+		int count = 0;
 		
-		transformer.setOutputProperty(OutputKeys.METHOD, "xml");
-		transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
-		transformer.setOutputProperty(
-				"{http://xml.apache.org/xslt}indent-amount",
-				"4");
-		transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+		try {
+			BufferedReader reader = new BufferedReader(new InputStreamReader(
+					input,
+					"UTF-8"));
+			
+			List<String> titles = new ArrayList<String>();
+			String line = null;
+			
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				
+				if (line.length() == 0)
+					continue;
+				
+				titles.add(line);
+				
+				if (titles.size() == BATCH_SIZE) {
+					writeXml(output, titles);
+					count += titles.size();
+					titles.clear();
+				}
+			}
+			
+			if (titles.size() != 0) {
+				writeXml(output, titles);
+				count += titles.size();
+			}
+			
+			reader.close();
+			output.close();
+			socket.close();
+		} catch (Exception e) {
+			System.err.println("An error occured after sending "
+					+ count
+					+ " quick tasks");
+			e.printStackTrace();
+			System.exit(1);
+		}
+		
+		System.exit(0);
+	}
+	
+	private static int parsePort(String port) {
+		if (port.matches("[0-9]{1,4}"))
+			return Integer.parseInt(port);
+		
+		System.err.println("Port is invalid: [0-9]{1,4}");
+		exitAndPrintUsage();
+		return DEFAULT_PORT;
+	}
+	
+	private static void exitAndPrintUsage() {
+		System.err.println("Usage: \"quick task\" [port]");
+		System.err.println("       --batch <file|-> [port]");
+		System.exit(1);
+	}
+	
+	private static void writeXml(OutputStream output, List<String> titles)
+			throws Exception {
+		XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(
+				output,
+				"UTF-8");
+		
+		writer.writeStartDocument("UTF-8", "1.0");
+		writer.writeCharacters("\n");
+		writer.writeStartElement("com");
+		
+		writer.writeStartElement("applicationName");
+		writer.writeCharacters("TaskUnifier");
+		writer.writeEndElement();
+		
+		writer.writeStartElement("quicktasks");
+		
+		for (String title : titles) {
+			writer.writeStartElement("quicktask");
+			writer.writeStartElement("title");
+			writer.writeCharacters(title);
+			writer.writeEndElement();
+			writer.writeEndElement();
+		}
 		
-		ByteArrayOutputStream output = new ByteArrayOutputStream();
-		StreamResult sr = new StreamResult(output);
-		transformer.transform(domSource, sr);
+		writer.writeEndElement();
+		writer.writeEndElement();
+		writer.writeEndDocument();
+		writer.flush();
 		
-		return output.toString("UTF-8");
+		// The closing tag is followed by a line break because the message
+		// delimiter is detected at the end of a line by older versions
+		output.write('\n');
+		output.flush();
 	}
 	
 }
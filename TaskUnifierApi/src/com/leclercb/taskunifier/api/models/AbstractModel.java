@@ -34,6 +34,7 @@ package com.leclercb.taskunifier.api.models;
 
 import java.beans.PropertyChangeListener;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.HashMap;
@@ -57,8 +58,8 @@ public abstract class AbstractModel implements Model {
 	private ModelId modelId;
 	private Map<String, String> modelReferenceIds;
 	private ModelStatus modelStatus;
-	private Calendar modelCreationDate;
-	private Calendar modelUpdateDate;
+	private long modelCreationDate = DateUtils.NO_DATE;
+	private long modelUpdateDate = DateUtils.NO_DATE;
 	private String title;
 	private int order;
 	private PropertyMap properties;
@@ -100,7 +101,9 @@ public abstract class AbstractModel implements Model {
 		this.addProperties(bean.getProperties());
 		
 		if (loadReferenceIds) {
-			this.modelReferenceIds.clear();
+			for (String key : new ArrayList<String>(
+					this.modelReferenceIds.keySet()))
+				this.removeModelReferenceId(key);
 			
 			if (bean.getModelReferenceIds() != null) {
 				Map<String, String> beanReferenceIds = bean.getModelReferenceIds();
@@ -129,7 +132,8 @@ public abstract class AbstractModel implements Model {
 		bean.setProperties(this.getProperties().clone());
 		
 		bean.setModelId(this.getModelId());
-		bean.setModelReferenceIds(this.getModelReferenceIds());
+		bean.setModelReferenceIds(Collections.unmodifiableMap(new HashMap<String, String>(
+				this.modelReferenceIds)));
 		bean.setModelStatus(this.getModelStatus());
 		bean.setModelCreationDate(this.getModelCreationDate());
 		bean.setModelUpdateDate(this.getModelUpdateDate());
@@ -175,6 +179,10 @@ public abstract class AbstractModel implements Model {
 		
 		ModelId oldModelId = this.modelId;
 		this.modelId = modelId;
+		
+		if (oldModelId != null)
+			this.getFactory().modelIdChanged(this, oldModelId);
+		
 		this.propertyChangeSupport.firePropertyChange(
 				PROP_MODEL_ID,
 				oldModelId,
@@ -201,13 +209,27 @@ public abstract class AbstractModel implements Model {
 	public void addModelReferenceId(String key, String referenceId) {
 		CheckUtils.isNotNull(key);
 		CheckUtils.isNotNull(referenceId);
-		this.modelReferenceIds.put(key, referenceId);
+		String oldReferenceId = this.modelReferenceIds.put(key, referenceId);
+		
+		if (!EqualsUtils.equals(oldReferenceId, referenceId))
+			this.getFactory().modelReferenceIdChanged(
+					this,
+					key,
+					oldReferenceId,
+					referenceId);
 	}
 	
 	@Override
 	public void removeModelReferenceId(String key) {
 		CheckUtils.isNotNull(key);
-		this.modelReferenceIds.remove(key);
+		String oldReferenceId = this.modelReferenceIds.remove(key);
+		
+		if (oldReferenceId != null)
+			this.getFactory().modelReferenceIdChanged(
+					this,
+					key,
+					oldReferenceId,
+					null);
 	}
 	
 	/**
@@ -264,7 +286,18 @@ public abstract class AbstractModel implements Model {
 	 */
 	@Override
 	public final Calendar getModelCreationDate() {
-		return DateUtils.cloneCalendar(this.modelCreationDate);
+		return DateUtils.getCalendar(this.modelCreationDate);
+	}
+	
+	/**
+	 * Returns the creation date of the model in milliseconds, without creating
+	 * a calendar.
+	 * 
+	 * @return the creation date of the model in milliseconds
+	 */
+	@Override
+	public final long getModelCreationDateMillis() {
+		return this.modelCreationDate;
 	}
 	
 	/**
@@ -278,15 +311,15 @@ public abstract class AbstractModel implements Model {
 	public final void setModelCreationDate(Calendar modelCreationDate) {
 		CheckUtils.isNotNull(modelCreationDate);
 		
-		if (this.modelCreationDate != null
-				&& this.modelCreationDate.compareTo(modelCreationDate) <= 0)
+		if (this.modelCreationDate != DateUtils.NO_DATE
+				&& this.modelCreationDate <= modelCreationDate.getTimeInMillis())
 			return;
 		
-		Calendar oldCreationDate = this.modelCreationDate;
-		this.modelCreationDate = DateUtils.cloneCalendar(modelCreationDate);
+		long oldCreationDate = this.modelCreationDate;
+		this.modelCreationDate = modelCreationDate.getTimeInMillis();
 		this.propertyChangeSupport.firePropertyChange(
 				PROP_MODEL_CREATION_DATE,
-				oldCreationDate,
+				DateUtils.getCalendar(oldCreationDate),
 				modelCreationDate);
 	}
 	
@@ -297,7 +330,18 @@ public abstract class AbstractModel implements Model {
 	 */
 	@Override
 	public final Calendar getModelUpdateDate() {
-		return DateUtils.cloneCalendar(this.modelUpdateDate);
+		return DateUtils.getCalendar(this.modelUpdateDate);
+	}
+	
+	/**
+	 * Returns the last update date of the model in milliseconds, without
+	 * creating a calendar.
+	 * 
+	 * @return the last update date of the model in milliseconds
+	 */
+	@Override
+	public final long getModelUpdateDateMillis() {
+		return this.modelUpdateDate;
 	}
 	
 	/**
@@ -310,11 +354,11 @@ public abstract class AbstractModel implements Model {
 	@Override
 	public final void setModelUpdateDate(Calendar modelUpdateDate) {
 		CheckUtils.isNotNull(modelUpdateDate);
-		Calendar oldUpdateDate = this.modelUpdateDate;
-		this.modelUpdateDate = DateUtils.cloneCalendar(modelUpdateDate);
+		long oldUpdateDate = this.modelUpdateDate;
+		this.modelUpdateDate = modelUpdateDate.getTimeInMillis();
 		this.propertyChangeSupport.firePropertyChange(
 				PROP_MODEL_UPDATE_DATE,
-				oldUpdateDate,
+				DateUtils.getCalendar(oldUpdateDate),
 				modelUpdateDate);
 	}
 	
@@ -600,10 +644,10 @@ public abstract class AbstractModel implements Model {
 		buffer.append("Model Id : " + this.modelId + "\n");
 		buffer.append("Model Status : " + this.modelStatus + "\n");
 		buffer.append("Mode Creation Date : "
-				+ dateFormat.format(this.modelCreationDate.getTime())
+				+ dateFormat.format(this.getModelCreationDate().getTime())
 				+ "\n");
 		buffer.append("Mode Update Date : "
-				+ dateFormat.format(this.modelUpdateDate.getTime())
+				+ dateFormat.format(this.getModelUpdateDate().getTime())
 				+ "\n");
 		buffer.append("Title : " + this.getTitle() + "\n");
 		
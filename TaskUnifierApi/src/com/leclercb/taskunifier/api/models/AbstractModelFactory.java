@@ -38,10 +38,19 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 
+import com.leclercb.commons.api.event.ListenerList;
 import com.leclercb.commons.api.event.listchange.ListChangeEvent;
 import com.leclercb.commons.api.event.listchange.ListChangeListener;
 import com.leclercb.commons.api.event.listchange.ListChangeSupport;
@@ -54,7 +63,10 @@ import com.leclercb.commons.api.utils.EqualsUtils;
 import com.leclercb.taskunifier.api.models.beans.ModelBean;
 import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.converters.reflection.PureJavaReflectionProvider;
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
+import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
 import com.thoughtworks.xstream.io.xml.DomDriver;
+import com.thoughtworks.xstream.io.xml.StaxDriver;
 
 public abstract class AbstractModelFactory<OM extends Model, OMB extends ModelBean, M extends Model, MB extends ModelBean> implements ModelFactory<OM, OMB, M, MB>, PropertyChangeListener, ListChangeSupported, PropertyChangeSupported {
 	
@@ -69,6 +81,20 @@ public abstract class AbstractModelFactory<OM extends Model, OMB extends ModelBe
 	
 	protected List<M> models;
 	
+	private Map<ModelId, M> modelsById;
+	private Map<String, Map<String, List<M>>> modelsByReferenceId;
+	
+	private XStream xstream;
+	
+	private volatile long modificationCount;
+	
+	private ListenerList<ModelBatchListener> batchListeners;
+	
+	private int batchLevel;
+	private Map<Model, Boolean> batchModels;
+	private Set<String> batchPropertyNames;
+	private boolean batchListChanged;
+	
 	protected AbstractModelFactory(
 			Class<OM> originalModelClass,
 			Class<OMB> originalModelBeanClass,
@@ -84,6 +110,16 @@ public abstract class AbstractModelFactory<OM extends Model, OMB extends ModelBe
 		this.propertyChangeSupport = new PropertyChangeSupport(this);
 		
 		this.models = new ArrayList<M>();
+		
+		this.modelsById = new HashMap<ModelId, M>();
+		this.modelsByReferenceId = new HashMap<String, Map<String, List<M>>>();
+		
+		this.batchListeners = new ListenerList<ModelBatchListener>();
+		
+		this.batchLevel = 0;
+		this.batchModels = new IdentityHashMap<Model, Boolean>();
+		this.batchPropertyNames = new HashSet<String>();
+		this.batchListChanged = false;
 	}
 	
 	protected abstract String getModelNodeName();
@@ -139,6 +175,105 @@ public abstract class AbstractModelFactory<OM extends Model, OMB extends ModelBe
 		return Collections.unmodifiableList(new ArrayList<M>(this.models));
 	}
 	
+	/**
+	 * Returns a counter incremented each time a model is added, removed or
+	 * updated, before the listeners are notified. Data computed from the
+	 * models can be kept as long as this counter does not change.
+	 * 
+	 * @return the modification counter
+	 */
+	public long getModificationCount() {
+		return this.modificationCount;
+	}
+	
+	/**
+	 * Starts a batch of changes. The list and property change events are
+	 * still fired during the batch, but listeners which only need to refresh
+	 * once can ignore them while {@link #isBatching()} returns true and wait
+	 * for the {@link ModelBatchEvent} fired by the matching
+	 * {@link #endBatch()}. Batches can be nested.
+	 */
+	public void beginBatch() {
+		this.batchLevel++;
+	}
+	
+	/**
+	 * Ends a batch of changes started with {@link #beginBatch()}. When the
+	 * outermost batch ends, the batch listeners are notified of all the
+	 * changes made during the batch, if any.
+	 */
+	public void endBatch() {
+		if (this.batchLevel == 0)
+			throw new IllegalStateException("No batch has been started");
+		
+		this.batchLevel--;
+		
+		if (this.batchLevel != 0 || this.batchModels.isEmpty())
+			return;
+		
+		List<Model> models = new ArrayList<Model>(this.batchModels.keySet());
+		
+		Set<ModelId> modelIds = new LinkedHashSet<ModelId>();
+		for (Model model : models)
+			modelIds.add(model.getModelId());
+		
+		ModelBatchEvent event = new ModelBatchEvent(
+				this,
+				models,
+				modelIds,
+				new HashSet<String>(this.batchPropertyNames),
+				this.batchListChanged);
+		
+		this.batchModels.clear();
+		this.batchPropertyNames.clear();
+		this.batchListChanged = false;
+		
+		for (ModelBatchListener listener : this.batchListeners)
+			listener.batchEnded(event);
+	}
+	
+	/**
+	 * Returns true if a batch has been started and not ended yet.
+	 * 
+	 * @return true if a batch is in progress
+	 */
+	public boolean isBatching() {
+		return this.batchLevel != 0;
+	}
+	
+	/**
+	 * The listener will be notified at the end of each batch.
+	 * 
+	 * @param listener
+	 *            the listener to notify
+	 */
+	public void addModelBatchListener(ModelBatchListener listener) {
+		this.batchListeners.addListener(listener);
+	}
+	
+	/**
+	 * Removes the listener from the batch listener list.
+	 * 
+	 * @param listener
+	 *            listener to remove
+	 */
+	public void removeModelBatchListener(ModelBatchListener listener) {
+		this.batchListeners.removeListener(listener);
+	}
+	
+	private void addBatchChange(Object model, String propertyName) {
+		if (this.batchLevel == 0)
+			return;
+		
+		if (model instanceof Model)
+			this.batchModels.put((Model) model, Boolean.TRUE);
+		
+		if (propertyName == null)
+			this.batchListChanged = true;
+		else
+			this.batchPropertyNames.add(propertyName);
+	}
+	
 	/**
 	 * Returns the model at the given index.
 	 * 
@@ -161,11 +296,10 @@ public abstract class AbstractModelFactory<OM extends Model, OMB extends ModelBe
 	 */
 	@Override
 	public M get(ModelId modelId) {
-		for (M model : this.models)
-			if (model.getModelId().equals(modelId))
-				return model;
+		if (modelId == null)
+			return null;
 		
-		return null;
+		return this.modelsById.get(modelId);
 	}
 	
 	/**
@@ -180,6 +314,20 @@ public abstract class AbstractModelFactory<OM extends Model, OMB extends ModelBe
 	 */
 	@Override
 	public M get(String key, String referenceId) {
+		if (referenceId != null) {
+			Map<String, List<M>> referenceIds = this.modelsByReferenceId.get(key);
+			
+			if (referenceIds == null)
+				return null;
+			
+			List<M> models = referenceIds.get(referenceId);
+			
+			if (models == null)
+				return null;
+			
+			return models.get(0);
+		}
+		
 		for (M model : this.models)
 			if (EqualsUtils.equals(model.getModelReferenceId(key), referenceId))
 				return model;
@@ -281,8 +429,16 @@ public abstract class AbstractModelFactory<OM extends Model, OMB extends ModelBe
 			throw new IllegalArgumentException("ID already exists in factory");
 		
 		this.models.add(model);
+		this.modelsById.put(model.getModelId(), model);
+		
+		Map<String, String> referenceIds = model.getModelReferenceIds();
+		for (String key : referenceIds.keySet())
+			this.indexReferenceId(model, key, referenceIds.get(key));
+		
 		model.addPropertyChangeListener(this);
-		int index = this.models.indexOf(model);
+		this.modificationCount++;
+		this.addBatchChange(model, null);
+		int index = this.models.size() - 1;
 		this.listChangeSupport.fireListChange(
 				ListChangeEvent.VALUE_ADDED,
 				index,
@@ -300,7 +456,15 @@ public abstract class AbstractModelFactory<OM extends Model, OMB extends ModelBe
 		
 		int index = this.models.indexOf(model);
 		if (this.models.remove(model)) {
+			this.modelsById.remove(model.getModelId());
+			
+			Map<String, String> referenceIds = model.getModelReferenceIds();
+			for (String key : referenceIds.keySet())
+				this.unindexReferenceId(model, key, referenceIds.get(key));
+			
 			model.removePropertyChangeListener(this);
+			this.modificationCount++;
+			this.addBatchChange(model, null);
 			this.listChangeSupport.fireListChange(
 					ListChangeEvent.VALUE_REMOVED,
 					index,
@@ -308,21 +472,109 @@ public abstract class AbstractModelFactory<OM extends Model, OMB extends ModelBe
 		}
 	}
 	
+	/**
+	 * Updates the ID index of the factory. Called by the model before the
+	 * change of its ID is fired.
+	 * 
+	 * @param model
+	 *            the model whose ID changed
+	 * @param oldModelId
+	 *            the previous ID of the model
+	 */
+	void modelIdChanged(Model model, ModelId oldModelId) {
+		if (oldModelId == null || this.modelsById.get(oldModelId) != model)
+			return;
+		
+		M m = this.modelsById.remove(oldModelId);
+		this.modelsById.put(model.getModelId(), m);
+	}
+	
+	/**
+	 * Updates the reference ID index of the factory. Called by the model when
+	 * one of its reference IDs is added, changed or removed.
+	 * 
+	 * @param model
+	 *            the model whose reference ID changed
+	 * @param key
+	 *            key of the reference ID
+	 * @param oldReferenceId
+	 *            the previous reference ID (can be null)
+	 * @param newReferenceId
+	 *            the new reference ID (can be null)
+	 */
+	void modelReferenceIdChanged(
+			Model model,
+			String key,
+			String oldReferenceId,
+			String newReferenceId) {
+		M m = this.modelsById.get(model.getModelId());
+		
+		if (m != model)
+			return;
+		
+		if (oldReferenceId != null)
+			this.unindexReferenceId(m, key, oldReferenceId);
+		
+		if (newReferenceId != null)
+			this.indexReferenceId(m, key, newReferenceId);
+	}
+	
+	private void indexReferenceId(M model, String key, String referenceId) {
+		Map<String, List<M>> referenceIds = this.modelsByReferenceId.get(key);
+		
+		if (referenceIds == null) {
+			referenceIds = new HashMap<String, List<M>>();
+			this.modelsByReferenceId.put(key, referenceIds);
+		}
+		
+		List<M> models = referenceIds.get(referenceId);
+		
+		if (models == null) {
+			models = new ArrayList<M>(1);
+			referenceIds.put(referenceId, models);
+		}
+		
+		models.add(model);
+	}
+	
+	private void unindexReferenceId(M model, String key, String referenceId) {
+		Map<String, List<M>> referenceIds = this.modelsByReferenceId.get(key);
+		
+		if (referenceIds == null)
+			return;
+		
+		List<M> models = referenceIds.get(referenceId);
+		
+		if (models == null)
+			return;
+		
+		models.remove(model);
+		
+		if (models.isEmpty())
+			referenceIds.remove(referenceId);
+	}
+	
 	/**
 	 * Changes the model status to {@link ModelStatus#DELETED} of the models
 	 * with a new id and status {@link ModelStatus#TO_DELETE}.
 	 * Then unregisters the models with status {@link ModelStatus#DELETED}.
 	 */
 	public void cleanFactory() {
-		List<M> models = new ArrayList<M>(this.models);
-		for (M model : models)
-			if (model.getModelId().isNewId()
-					&& model.getModelStatus() == ModelStatus.TO_DELETE)
-				this.markDeleted(model);
+		this.beginBatch();
 		
-		for (M model : models)
-			if (model.getModelStatus() == ModelStatus.DELETED)
-				this.unregister(model);
+		try {
+			List<M> models = new ArrayList<M>(this.models);
+			for (M model : models)
+				if (model.getModelId().isNewId()
+						&& model.getModelStatus() == ModelStatus.TO_DELETE)
+					this.markDeleted(model);
+			
+			for (M model : models)
+				if (model.getModelStatus() == ModelStatus.DELETED)
+					this.unregister(model);
+		} finally {
+			this.endBatch();
+		}
 	}
 	
 	/**
@@ -337,11 +589,17 @@ public abstract class AbstractModelFactory<OM extends Model, OMB extends ModelBe
 	 */
 	@Override
 	public void deleteAll() {
-		List<M> models = new ArrayList<M>(this.models);
-		for (M model : models)
-			this.markDeleted(model);
+		this.beginBatch();
 		
-		this.cleanFactory();
+		try {
+			List<M> models = new ArrayList<M>(this.models);
+			for (M model : models)
+				this.markDeleted(model);
+			
+			this.cleanFactory();
+		} finally {
+			this.endBatch();
+		}
 	}
 	
 	/**
@@ -415,6 +673,8 @@ public abstract class AbstractModelFactory<OM extends Model, OMB extends ModelBe
 	 */
 	@Override
 	public void propertyChange(PropertyChangeEvent event) {
+		this.modificationCount++;
+		this.addBatchChange(event.getSource(), event.getPropertyName());
 		this.propertyChangeSupport.firePropertyChange(event);
 	}
 	
@@ -519,9 +779,28 @@ public abstract class AbstractModelFactory<OM extends Model, OMB extends ModelBe
 		}
 	}
 	
-	@SuppressWarnings("unchecked")
-	@Override
-	public MB[] decodeBeansFromXML(InputStream input) {
+	/**
+	 * Returns the XStream instance used to encode and decode the beans of this
+	 * factory. The instance is created and configured once, then reused: an
+	 * XStream instance is thread-safe once configured.
+	 * 
+	 * @return the XStream instance
+	 */
+	protected synchronized XStream getXStream() {
+		if (this.xstream == null)
+			this.xstream = this.createXStream();
+		
+		return this.xstream;
+	}
+	
+	/**
+	 * Creates and configures a new XStream instance for the beans of this
+	 * factory. The reflection provider calls the bean constructors so that
+	 * elements missing from older files keep their default values.
+	 * 
+	 * @return the XStream instance
+	 */
+	protected XStream createXStream() {
 		XStream xstream = new XStream(
 				new PureJavaReflectionProvider(),
 				new DomDriver("UTF-8"));
@@ -532,56 +811,167 @@ public abstract class AbstractModelFactory<OM extends Model, OMB extends ModelBe
 		xstream.alias(this.getModelNodeName(), this.getModelBeanClass());
 		xstream.processAnnotations(this.getModelBeanClass());
 		
-		return (MB[]) xstream.fromXML(input);
+		return xstream;
+	}
+	
+	/**
+	 * Reads the beans one by one from the given input and passes each of them
+	 * to the given handler. The document is read with a StAX parser: only one
+	 * bean is kept in memory at a time.
+	 * 
+	 * @param input
+	 *            the XML input
+	 * @param handler
+	 *            the handler receiving the decoded beans
+	 */
+	@SuppressWarnings("unchecked")
+	protected void decodeBeansFromXML(InputStream input, BeanHandler<MB> handler) {
+		XStream xstream = this.getXStream();
+		HierarchicalStreamReader reader = new StaxDriver().createReader(input);
+		
+		try {
+			while (reader.hasMoreChildren()) {
+				reader.moveDown();
+				MB bean = (MB) xstream.unmarshal(reader);
+				reader.moveUp();
+				
+				handler.handleBean(bean);
+			}
+		} finally {
+			reader.close();
+		}
 	}
 	
+	/**
+	 * Writes the beans one by one to the given output. The produced document
+	 * has the same format as an encoded array of beans.
+	 * 
+	 * @param output
+	 *            the XML output
+	 * @param beans
+	 *            the beans to encode
+	 */
+	protected void encodeBeansToXML(OutputStream output, Iterator<MB> beans) {
+		XStream xstream = this.getXStream();
+		HierarchicalStreamWriter writer = new DomDriver("UTF-8").createWriter(output);
+		
+		writer.startNode(this.getModelListNodeName());
+		
+		while (beans.hasNext()) {
+			MB bean = beans.next();
+			
+			if (bean != null)
+				xstream.marshal(bean, writer);
+		}
+		
+		writer.endNode();
+		writer.flush();
+	}
+	
+	@SuppressWarnings("unchecked")
 	@Override
-	public void encodeBeansToXML(OutputStream output, MB[] beans) {
-		XStream xstream = new XStream(
-				new PureJavaReflectionProvider(),
-				new DomDriver("UTF-8"));
-		xstream.setMode(XStream.NO_REFERENCES);
-		xstream.alias(
-				this.getModelListNodeName(),
-				Array.newInstance(this.getModelBeanClass(), 0).getClass());
-		xstream.alias(this.getModelNodeName(), this.getModelBeanClass());
-		xstream.processAnnotations(this.getModelBeanClass());
+	public MB[] decodeBeansFromXML(InputStream input) {
+		final List<MB> beans = new ArrayList<MB>();
 		
-		xstream.toXML(beans, output);
+		this.decodeBeansFromXML(input, new BeanHandler<MB>() {
+			
+			@Override
+			public void handleBean(MB bean) {
+				beans.add(bean);
+			}
+			
+		});
+		
+		return beans.toArray((MB[]) Array.newInstance(
+				this.getModelBeanClass(),
+				beans.size()));
+	}
+	
+	@Override
+	public void encodeBeansToXML(OutputStream output, MB[] beans) {
+		this.encodeBeansToXML(output, Arrays.asList(beans).iterator());
+	}
+	
+	/**
+	 * Creates a model from the given bean or loads the bean into the existing
+	 * model with the same ID.
+	 * 
+	 * @param bean
+	 *            the decoded bean
+	 */
+	protected void decodeBean(MB bean) {
+		M model = this.get(bean.getModelId());
+		if (model == null)
+			this.create(bean, true);
+		else
+			model.loadBean(bean, true);
+	}
+	
+	/**
+	 * Creates or updates the models of the given beans, in order. The beans
+	 * can be decoded beforehand on another thread with
+	 * {@link #decodeBeansFromXML(InputStream)}.
+	 * 
+	 * @param beans
+	 *            the decoded beans
+	 */
+	public void decodeBeans(List<MB> beans) {
+		for (MB bean : beans)
+			this.decodeBean(bean);
 	}
 	
 	@Override
 	public void decodeFromXML(InputStream input) {
-		MB[] beans = this.decodeBeansFromXML(input);
-		for (MB bean : beans) {
-			M model = this.get(bean.getModelId());
-			if (model == null)
-				this.create(bean, true);
-			else
-				model.loadBean(bean, true);
-		}
+		this.decodeBeansFromXML(input, new BeanHandler<MB>() {
+			
+			@Override
+			public void handleBean(MB bean) {
+				AbstractModelFactory.this.decodeBean(bean);
+			}
+			
+		});
 	}
 	
-	@SuppressWarnings("unchecked")
 	@Override
 	public void encodeToXML(OutputStream output) {
-		List<MB> beans = new ArrayList<MB>();
-		for (M model : this.models) {
-			try {
-				beans.add((MB) model.toBean());
-			} catch (Exception e) {
-				ApiLogger.getLogger().log(
-						Level.SEVERE,
-						"Cannot encode model",
-						e);
+		final Iterator<M> iterator = new ArrayList<M>(this.models).iterator();
+		
+		this.encodeBeansToXML(output, new Iterator<MB>() {
+			
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
 			}
-		}
+			
+			@SuppressWarnings("unchecked")
+			@Override
+			public MB next() {
+				M model = iterator.next();
+				
+				try {
+					return (MB) model.toBean();
+				} catch (Exception e) {
+					ApiLogger.getLogger().log(
+							Level.SEVERE,
+							"Cannot encode model",
+							e);
+					
+					return null;
+				}
+			}
+			
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+			
+		});
+	}
+	
+	protected static interface BeanHandler<MB extends ModelBean> {
 		
-		MB[] array = beans.toArray((MB[]) Array.newInstance(
-				this.getModelBeanClass(),
-				0));
+		public abstract void handleBean(MB bean);
 		
-		this.encodeBeansToXML(output, array);
 	}
 	
 }
@@ -75,10 +75,14 @@ public interface Model extends Cloneable, Comparable<Model>, Serializable, Prope
 	
 	public abstract Calendar getModelCreationDate();
 	
+	public abstract long getModelCreationDateMillis();
+	
 	public abstract void setModelCreationDate(Calendar creationDate);
 	
 	public abstract Calendar getModelUpdateDate();
 	
+	public abstract long getModelUpdateDateMillis();
+	
 	public abstract void setModelUpdateDate(Calendar updateDate);
 	
 	public abstract String getTitle();
@@ -0,0 +1,107 @@
+/*
+ * TaskUnifier
+ * Copyright (c) 2011, Benjamin Leclerc
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ *   - Neither the name of TaskUnifier or the names of its
+ *     contributors may be used to endorse or promote products derived
+ *     from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.leclercb.taskunifier.api.models;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import com.leclercb.commons.api.utils.CheckUtils;
+
+/**
+ * Aggregated notification sent by a factory at the end of a batch. It
+ * describes all the changes made between
+ * {@link AbstractModelFactory#beginBatch()} and
+ * {@link AbstractModelFactory#endBatch()}.
+ */
+public class ModelBatchEvent {
+	
+	private Object source;
+	private List<Model> models;
+	private Set<ModelId> modelIds;
+	private Set<String> propertyNames;
+	private boolean listChanged;
+	
+	public ModelBatchEvent(
+			Object source,
+			List<Model> models,
+			Set<ModelId> modelIds,
+			Set<String> propertyNames,
+			boolean listChanged) {
+		CheckUtils.isNotNull(source);
+		CheckUtils.isNotNull(models);
+		CheckUtils.isNotNull(modelIds);
+		CheckUtils.isNotNull(propertyNames);
+		
+		this.source = source;
+		this.models = Collections.unmodifiableList(models);
+		this.modelIds = Collections.unmodifiableSet(modelIds);
+		this.propertyNames = Collections.unmodifiableSet(propertyNames);
+		this.listChanged = listChanged;
+	}
+	
+	public Object getSource() {
+		return this.source;
+	}
+	
+	/**
+	 * Returns the models added, removed or updated during the batch.
+	 */
+	public List<Model> getModels() {
+		return this.models;
+	}
+	
+	/**
+	 * Returns the IDs of the models added, removed or updated during the
+	 * batch.
+	 */
+	public Set<ModelId> getModelIds() {
+		return this.modelIds;
+	}
+	
+	/**
+	 * Returns the names of the properties updated during the batch.
+	 */
+	public Set<String> getPropertyNames() {
+		return this.propertyNames;
+	}
+	
+	/**
+	 * Returns true if models have been added to or removed from the factory
+	 * during the batch.
+	 */
+	public boolean isListChanged() {
+		return this.listChanged;
+	}
+	
+}
@@ -0,0 +1,274 @@
+/*
+ * TaskUnifier
+ * Copyright (c) 2011, Benjamin Leclerc
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ *   - Neither the name of TaskUnifier or the names of its
+ *     contributors may be used to endorse or promote products derived
+ *     from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.leclercb.taskunifier.api.models;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+
+import com.leclercb.commons.api.event.listchange.ListChangeEvent;
+import com.leclercb.commons.api.event.listchange.ListChangeListener;
+import com.leclercb.commons.api.logger.ApiLogger;
+import com.leclercb.commons.api.utils.CheckUtils;
+import com.leclercb.taskunifier.api.models.beans.ModelBean;
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
+import com.thoughtworks.xstream.io.xml.StaxDriver;
+
+/**
+ * Keeps track of the models of a factory which have been added, updated or
+ * removed since the last time the factory was saved.
+ * 
+ * The changes can be appended to a journal as a list of beans using the same
+ * format as the factory XML file. Appending the changes of each save to the
+ * same journal produces a sequence of bean lists which can be replayed on top
+ * of the factory XML file.
+ */
+public class ModelFactoryJournal<M extends Model, MB extends ModelBean> implements ListChangeListener, PropertyChangeListener {
+	
+	private static final String JOURNAL_NODE_NAME = "journal";
+	
+	private AbstractModelFactory<?, ?, M, MB> factory;
+	
+	private Set<M> changedModels;
+	private Set<ModelId> removedModelIds;
+	private boolean invalid;
+	
+	public ModelFactoryJournal(AbstractModelFactory<?, ?, M, MB> factory) {
+		CheckUtils.isNotNull(factory);
+		
+		this.factory = factory;
+		
+		this.changedModels = Collections.newSetFromMap(new IdentityHashMap<M, Boolean>());
+		this.removedModelIds = new LinkedHashSet<ModelId>();
+		this.invalid = false;
+		
+		this.factory.addListChangeListener(this);
+		this.factory.addPropertyChangeListener(this);
+	}
+	
+	public AbstractModelFactory<?, ?, M, MB> getFactory() {
+		return this.factory;
+	}
+	
+	/**
+	 * Returns the number of changes recorded since the last reset.
+	 * 
+	 * @return the number of changes
+	 */
+	public synchronized int getChangeCount() {
+		return this.changedModels.size() + this.removedModelIds.size();
+	}
+	
+	/**
+	 * Returns true if the recorded changes cannot be used to bring the factory
+	 * XML file up to date. The full factory must then be saved.
+	 * 
+	 * @return true if the journal is invalid
+	 */
+	public synchronized boolean isInvalid() {
+		return this.invalid;
+	}
+	
+	/**
+	 * Marks the journal as invalid, for example when the factory has been
+	 * loaded from another location than the one it is saved to.
+	 */
+	public synchronized void invalidate() {
+		this.invalid = true;
+	}
+	
+	/**
+	 * Forgets all the recorded changes. To call once the factory has been
+	 * fully loaded from or saved to its XML file.
+	 */
+	public synchronized void reset() {
+		this.changedModels.clear();
+		this.removedModelIds.clear();
+		this.invalid = false;
+	}
+	
+	/**
+	 * Returns the beans of the recorded changes and resets the journal. The
+	 * beans can be encoded later on another thread.
+	 * 
+	 * @return the beans of the changed models
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized List<MB> snapshotChanges() {
+		List<MB> beans = new ArrayList<MB>();
+		
+		for (ModelId modelId : this.removedModelIds) {
+			// Model ID replaced (by a synchronizer for example)
+			MB bean = this.factory.createBean(modelId);
+			bean.setTitle("");
+			bean.setModelStatus(ModelStatus.DELETED);
+			beans.add(bean);
+		}
+		
+		for (M model : this.changedModels) {
+			try {
+				beans.add((MB) model.toBean());
+			} catch (Exception e) {
+				ApiLogger.getLogger().log(
+						Level.SEVERE,
+						"Cannot encode model",
+						e);
+			}
+		}
+		
+		this.changedModels.clear();
+		this.removedModelIds.clear();
+		
+		return beans;
+	}
+	
+	/**
+	 * Appends the recorded changes to the given output as a list of beans and
+	 * resets the journal. The beans are created on the calling thread.
+	 * 
+	 * @param output
+	 *            the journal output
+	 * @return the number of encoded beans
+	 */
+	public int encodeChangesToXML(OutputStream output) {
+		List<MB> beans = this.snapshotChanges();
+		
+		this.factory.encodeBeansToXML(output, beans.iterator());
+		
+		return beans.size();
+	}
+	
+	/**
+	 * Replays the bean lists of the given journal on the factory. A truncated
+	 * last entry (interrupted write) is ignored.
+	 * 
+	 * @param input
+	 *            the journal input
+	 * @return the number of replayed beans
+	 */
+	public int decodeChangesFromXML(InputStream input) {
+		List<MB> beans = this.decodeChangeBeansFromXML(input);
+		
+		for (MB bean : beans)
+			this.factory.decodeBean(bean);
+		
+		return beans.size();
+	}
+	
+	/**
+	 * Reads the bean lists of the given journal without modifying the
+	 * factory. A truncated last entry (interrupted write) is ignored.
+	 * 
+	 * @param input
+	 *            the journal input
+	 * @return the beans in the order they were appended
+	 */
+	@SuppressWarnings("unchecked")
+	public List<MB> decodeChangeBeansFromXML(InputStream input) {
+		XStream xstream = this.factory.getXStream();
+		
+		List<InputStream> streams = new ArrayList<InputStream>();
+		streams.add(new ByteArrayInputStream(("<" + JOURNAL_NODE_NAME + ">").getBytes()));
+		streams.add(input);
+		streams.add(new ByteArrayInputStream(("</" + JOURNAL_NODE_NAME + ">").getBytes()));
+		
+		HierarchicalStreamReader reader = new StaxDriver().createReader(new SequenceInputStream(
+				Collections.enumeration(streams)));
+		
+		List<MB> beans = new ArrayList<MB>();
+		
+		try {
+			while (reader.hasMoreChildren()) {
+				// The beans of an entry are kept once the entry is complete: a
+				// truncated entry may contain the removal of a model without
+				// its new bean
+				List<MB> entryBeans = new ArrayList<MB>();
+				
+				reader.moveDown();
+				
+				while (reader.hasMoreChildren()) {
+					reader.moveDown();
+					entryBeans.add((MB) xstream.unmarshal(reader));
+					reader.moveUp();
+				}
+				
+				reader.moveUp();
+				
+				beans.addAll(entryBeans);
+			}
+		} catch (Exception e) {
+			ApiLogger.getLogger().log(
+					Level.WARNING,
+					"Journal truncated after " + beans.size() + " beans",
+					e);
+		} finally {
+			reader.close();
+		}
+		
+		return beans;
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public synchronized void listChange(ListChangeEvent event) {
+		if (!this.factory.getModelClass().isInstance(event.getValue()))
+			return;
+		
+		this.changedModels.add((M) event.getValue());
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public synchronized void propertyChange(PropertyChangeEvent event) {
+		if (!this.factory.getModelClass().isInstance(event.getSource()))
+			return;
+		
+		if (Model.PROP_MODEL_ID.equals(event.getPropertyName())
+				&& event.getOldValue() != null)
+			this.removedModelIds.add((ModelId) event.getOldValue());
+		
+		this.changedModels.add((M) event.getSource());
+	}
+	
+}
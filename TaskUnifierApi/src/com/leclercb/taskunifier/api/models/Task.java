@@ -83,10 +83,10 @@ public class Task extends AbstractModelParent<Task> implements ModelNote, Proper
 	private Location location;
 	private double progress;
 	private boolean completed;
-	private Calendar completedOn;
-	private Calendar startDate;
+	private long completedOn = DateUtils.NO_DATE;
+	private long startDate = DateUtils.NO_DATE;
 	private int startDateReminder;
-	private Calendar dueDate;
+	private long dueDate = DateUtils.NO_DATE;
 	private int dueDateReminder;
 	private String repeat;
 	private TaskRepeatFrom repeatFrom;
@@ -458,14 +458,17 @@ public class Task extends AbstractModelParent<Task> implements ModelNote, Proper
 		else
 			this.completed = true;
 		
-		Calendar oldCompletedOn = this.completedOn;
+		long oldCompletedOn = this.completedOn;
 		if (this.progress != 1)
-			this.completedOn = null;
+			this.completedOn = DateUtils.NO_DATE;
 		else
-			this.completedOn = Calendar.getInstance();
+			this.completedOn = System.currentTimeMillis();
 		
 		this.updateProperty(PROP_COMPLETED, oldCompleted, this.completed);
-		this.updateProperty(PROP_COMPLETED_ON, oldCompletedOn, this.completedOn);
+		this.updateProperty(
+				PROP_COMPLETED_ON,
+				DateUtils.getCalendar(oldCompletedOn),
+				DateUtils.getCalendar(this.completedOn));
 		this.updateProperty(PROP_PROGRESS, oldProgress, progress);
 	}
 	
@@ -480,11 +483,11 @@ public class Task extends AbstractModelParent<Task> implements ModelNote, Proper
 		boolean oldCompleted = this.completed;
 		this.completed = completed;
 		
-		Calendar oldCompletedOn = this.completedOn;
+		long oldCompletedOn = this.completedOn;
 		if (this.completed)
-			this.completedOn = Calendar.getInstance();
+			this.completedOn = System.currentTimeMillis();
 		else
-			this.completedOn = null;
+			this.completedOn = DateUtils.NO_DATE;
 		
 		double oldProgress = this.progress;
 		if (this.completed)
@@ -492,49 +495,63 @@ public class Task extends AbstractModelParent<Task> implements ModelNote, Proper
 		else
 			this.progress = 0;
 		
-		this.updateProperty(PROP_COMPLETED_ON, oldCompletedOn, this.completedOn);
+		this.updateProperty(
+				PROP_COMPLETED_ON,
+				DateUtils.getCalendar(oldCompletedOn),
+				DateUtils.getCalendar(this.completedOn));
 		this.updateProperty(PROP_PROGRESS, oldProgress, this.progress);
 		this.updateProperty(PROP_COMPLETED, oldCompleted, completed);
 	}
 	
 	public Calendar getCompletedOn() {
-		return DateUtils.cloneCalendar(this.completedOn);
+		return DateUtils.getCalendar(this.completedOn);
+	}
+	
+	/**
+	 * Returns the completion date in milliseconds without creating a
+	 * calendar, or {@link DateUtils#NO_DATE} if the task is not completed.
+	 */
+	public long getCompletedOnMillis() {
+		return this.completedOn;
 	}
 	
 	public void setCompletedOn(Calendar completedOn) {
-		if (!this.checkBeforeSet(this.getCompletedOn(), completedOn))
+		if (!this.checkBeforeSet(
+				this.completedOn,
+				DateUtils.getTimeInMillis(completedOn)))
 			return;
 		
-		Calendar oldCompletedOn = this.completedOn;
-		this.completedOn = DateUtils.cloneCalendar(completedOn);
+		long oldCompletedOn = this.completedOn;
+		this.completedOn = DateUtils.getTimeInMillis(completedOn);
 		
 		boolean oldCompleted = this.completed;
-		if (this.completedOn == null)
+		if (this.completedOn == DateUtils.NO_DATE)
 			this.completed = false;
 		else
 			this.completed = true;
 		
 		double oldProgress = this.progress;
-		if (this.completedOn == null)
+		if (this.completedOn == DateUtils.NO_DATE)
 			this.progress = 0;
 		else
 			this.progress = 1;
 		
 		this.updateProperty(PROP_COMPLETED, oldCompleted, this.completed);
 		this.updateProperty(PROP_PROGRESS, oldProgress, this.progress);
-		this.updateProperty(PROP_COMPLETED_ON, oldCompletedOn, completedOn);
+		this.updateProperty(
+				PROP_COMPLETED_ON,
+				DateUtils.getCalendar(oldCompletedOn),
+				completedOn);
 	}
 	
 	public boolean isOverDue(boolean dateOnly) {
-		if (this.getDueDate() == null)
+		if (this.dueDate == DateUtils.NO_DATE)
 			return false;
 		
-		Calendar today = Calendar.getInstance();
-		if (today.compareTo(this.getDueDate()) > 0) {
+		long now = System.currentTimeMillis();
+		if (now > this.dueDate) {
 			if (dateOnly) {
-				if (!org.apache.commons.lang3.time.DateUtils.isSameDay(
-						today,
-						this.getDueDate()))
+				if (DateUtils.getDayNumber(now) != DateUtils.getDayNumber(this.dueDate))
 					return true;
 			} else {
 				return true;
@@ -545,17 +562,15 @@ public class Task extends AbstractModelParent<Task> implements ModelNote, Proper
 	}
 	
 	public boolean isDueToday(boolean dateOnly) {
-		if (this.getDueDate() == null)
+		if (this.dueDate == DateUtils.NO_DATE)
 			return false;
 		
-		Calendar today = Calendar.getInstance();
-		if (org.apache.commons.lang3.time.DateUtils.isSameDay(
-				today,
-				this.getDueDate())) {
+		long now = System.currentTimeMillis();
+		if (DateUtils.getDayNumber(now) == DateUtils.getDayNumber(this.dueDate)) {
 			if (dateOnly) {
 				return true;
 			} else {
-				if (today.compareTo(this.getDueDate()) <= 0)
+				if (now <= this.dueDate)
 					return true;
 			}
 		}
@@ -564,16 +579,29 @@ public class Task extends AbstractModelParent<Task> implements ModelNote, Proper
 	}
 	
 	public Calendar getStartDate() {
-		return DateUtils.cloneCalendar(this.startDate);
+		return DateUtils.getCalendar(this.startDate);
+	}
+	
+	/**
+	 * Returns the start date in milliseconds without creating a calendar, or
+	 * {@link DateUtils#NO_DATE} if the task has no start date.
+	 */
+	public long getStartDateMillis() {
+		return this.startDate;
 	}
 	
 	public void setStartDate(Calendar startDate) {
-		if (!this.checkBeforeSet(this.getStartDate(), startDate))
+		if (!this.checkBeforeSet(
+				this.startDate,
+				DateUtils.getTimeInMillis(startDate)))
 			return;
 		
-		Calendar oldStartDate = this.startDate;
-		this.startDate = DateUtils.cloneCalendar(startDate);
-		this.updateProperty(PROP_START_DATE, oldStartDate, startDate);
+		long oldStartDate = this.startDate;
+		this.startDate = DateUtils.getTimeInMillis(startDate);
+		this.updateProperty(
+				PROP_START_DATE,
+				DateUtils.getCalendar(oldStartDate),
+				startDate);
 	}
 	
 	public int getStartDateReminder() {
@@ -595,16 +623,27 @@ public class Task extends AbstractModelParent<Task> implements ModelNote, Proper
 	}
 	
 	public Calendar getDueDate() {
-		return DateUtils.cloneCalendar(this.dueDate);
+		return DateUtils.getCalendar(this.dueDate);
+	}
+	
+	/**
+	 * Returns the due date in milliseconds without creating a calendar, or
+	 * {@link DateUtils#NO_DATE} if the task has no due date.
+	 */
+	public long getDueDateMillis() {
+		return this.dueDate;
 	}
 	
 	public void setDueDate(Calendar dueDate) {
-		if (!this.checkBeforeSet(this.getDueDate(), dueDate))
+		if (!this.checkBeforeSet(this.dueDate, DateUtils.getTimeInMillis(dueDate)))
 			return;
 		
-		Calendar oldDueDate = this.dueDate;
-		this.dueDate = DateUtils.cloneCalendar(dueDate);
-		this.updateProperty(PROP_DUE_DATE, oldDueDate, dueDate);
+		long oldDueDate = this.dueDate;
+		this.dueDate = DateUtils.getTimeInMillis(dueDate);
+		this.updateProperty(
+				PROP_DUE_DATE,
+				DateUtils.getCalendar(oldDueDate),
+				dueDate);
 	}
 	
 	public int getDueDateReminder() {
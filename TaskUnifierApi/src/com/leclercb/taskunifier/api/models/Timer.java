@@ -7,7 +7,7 @@ import com.leclercb.commons.api.utils.DateUtils;
 public class Timer implements Comparable<Timer> {
 	
 	private long value;
-	private Calendar startDate;
+	private long startDate;
 	
 	public Timer() {
 		this(0, null);
@@ -19,7 +19,7 @@ public class Timer implements Comparable<Timer> {
 	
 	public Timer(long value, Calendar startDate) {
 		this.value = value;
-		this.startDate = DateUtils.cloneCalendar(startDate);
+		this.startDate = DateUtils.getTimeInMillis(startDate);
 	}
 	
 	public Timer(Timer timer) {
@@ -33,15 +33,22 @@ public class Timer implements Comparable<Timer> {
 	}
 	
 	public Calendar getStartDate() {
-		return DateUtils.cloneCalendar(this.startDate);
+		return DateUtils.getCalendar(this.startDate);
+	}
+	
+	/**
+	 * Returns the start date in milliseconds without creating a calendar, or
+	 * {@link DateUtils#NO_DATE} if the timer is not started.
+	 */
+	public long getStartDateMillis() {
+		return this.startDate;
 	}
 	
 	public long getTimerValue() {
-		if (this.startDate == null)
+		if (this.startDate == DateUtils.NO_DATE)
 			return this.value;
 		
-		Calendar now = Calendar.getInstance();
-		long second = now.getTimeInMillis() - this.startDate.getTimeInMillis();
+		long second = System.currentTimeMillis() - this.startDate;
 		second = second / 1000;
 		
 		return this.value + second;
@@ -50,19 +57,19 @@ public class Timer implements Comparable<Timer> {
 	public void setValue(long value) {
 		this.value = value;
 		
-		if (this.startDate != null)
-			this.startDate = Calendar.getInstance();
+		if (this.startDate != DateUtils.NO_DATE)
+			this.startDate = System.currentTimeMillis();
 	}
 	
 	public boolean isStarted() {
-		return this.startDate != null;
+		return this.startDate != DateUtils.NO_DATE;
 	}
 	
 	public void start() {
 		if (this.isStarted())
 			return;
 		
-		this.startDate = Calendar.getInstance();
+		this.startDate = System.currentTimeMillis();
 	}
 	
 	public void stop() {
@@ -70,7 +77,7 @@ public class Timer implements Comparable<Timer> {
 			return;
 		
 		this.value = this.getTimerValue();
-		this.startDate = null;
+		this.startDate = DateUtils.NO_DATE;
 	}
 	
 	@Override
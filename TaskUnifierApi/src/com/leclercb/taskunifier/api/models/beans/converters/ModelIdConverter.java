@@ -53,12 +53,14 @@ public class ModelIdConverter implements Converter {
 	public Object unmarshal(
 			HierarchicalStreamReader reader,
 			UnmarshallingContext context) {
-		if (reader.getValue() == null || reader.getValue().length() == 0)
+		// Attributes must be read before the value with streaming readers
+		String isNew = reader.getAttribute("isnew");
+		String value = reader.getValue();
+		
+		if (value == null || value.length() == 0)
 			return null;
 		
-		return new ModelId(
-				Boolean.parseBoolean(reader.getAttribute("isnew")),
-				reader.getValue());
+		return new ModelId(Boolean.parseBoolean(isNew), value);
 	}
 	
 	@Override
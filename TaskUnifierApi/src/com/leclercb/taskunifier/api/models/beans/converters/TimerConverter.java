@@ -53,11 +53,15 @@ public class TimerConverter implements Converter {
 	public Object unmarshal(
 			HierarchicalStreamReader reader,
 			UnmarshallingContext context) {
-		if (reader.getValue() == null || reader.getValue().length() == 0)
+		// Attributes must be read before the value with streaming readers
+		String startDateValue = reader.getAttribute("startdate");
+		String timerValue = reader.getValue();
+		
+		if (timerValue == null || timerValue.length() == 0)
 			return null;
 		
-		long value = Long.parseLong(reader.getValue());
-		Calendar startDate = CalendarConverter.INSTANCE.fromString(reader.getAttribute("startdate"));
+		long value = Long.parseLong(timerValue);
+		Calendar startDate = CalendarConverter.INSTANCE.fromString(startDateValue);
 		
 		return new Timer(value, startDate);
 	}
@@ -50,6 +50,8 @@ public class NoteTemplateFactory extends AbstractTemplateFactory<NoteTemplate> {
 		return FACTORY;
 	}
 	
+	private XStream xstream;
+	
 	private NoteTemplateFactory() {
 		
 	}
@@ -61,15 +63,23 @@ public class NoteTemplateFactory extends AbstractTemplateFactory<NoteTemplate> {
 		return template;
 	}
 	
+	private synchronized XStream getXStream() {
+		if (this.xstream == null) {
+			this.xstream = new XStream(
+					new PureJavaReflectionProvider(),
+					new DomDriver("UTF-8"));
+			this.xstream.setMode(XStream.NO_REFERENCES);
+			this.xstream.alias("templates", NoteTemplate[].class);
+			this.xstream.alias("template", NoteTemplate.class);
+			this.xstream.processAnnotations(NoteTemplate.class);
+		}
+		
+		return this.xstream;
+	}
+	
 	@Override
 	public void decodeFromXML(InputStream input) {
-		XStream xstream = new XStream(
-				new PureJavaReflectionProvider(),
-				new DomDriver("UTF-8"));
-		xstream.setMode(XStream.NO_REFERENCES);
-		xstream.alias("templates", NoteTemplate[].class);
-		xstream.alias("template", NoteTemplate.class);
-		xstream.processAnnotations(NoteTemplate.class);
+		XStream xstream = this.getXStream();
 		
 		NoteTemplate[] templates = (NoteTemplate[]) xstream.fromXML(input);
 		for (NoteTemplate template : templates) {
@@ -79,13 +89,7 @@ public class NoteTemplateFactory extends AbstractTemplateFactory<NoteTemplate> {
 	
 	@Override
 	public void encodeToXML(OutputStream output) {
-		XStream xstream = new XStream(
-				new PureJavaReflectionProvider(),
-				new DomDriver("UTF-8"));
-		xstream.setMode(XStream.NO_REFERENCES);
-		xstream.alias("templates", NoteTemplate[].class);
-		xstream.alias("template", NoteTemplate.class);
-		xstream.processAnnotations(NoteTemplate.class);
+		XStream xstream = this.getXStream();
 		
 		xstream.toXML(this.getList().toArray(new NoteTemplate[0]), output);
 	}
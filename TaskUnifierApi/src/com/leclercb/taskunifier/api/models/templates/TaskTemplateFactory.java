@@ -50,6 +50,8 @@ public class TaskTemplateFactory extends AbstractTemplateFactory<TaskTemplate> {
 		return FACTORY;
 	}
 	
+	private XStream xstream;
+	
 	private TaskTemplateFactory() {
 		
 	}
@@ -61,15 +63,23 @@ public class TaskTemplateFactory extends AbstractTemplateFactory<TaskTemplate> {
 		return template;
 	}
 	
+	private synchronized XStream getXStream() {
+		if (this.xstream == null) {
+			this.xstream = new XStream(
+					new PureJavaReflectionProvider(),
+					new DomDriver("UTF-8"));
+			this.xstream.setMode(XStream.NO_REFERENCES);
+			this.xstream.alias("templates", TaskTemplate[].class);
+			this.xstream.alias("template", TaskTemplate.class);
+			this.xstream.processAnnotations(TaskTemplate.class);
+		}
+		
+		return this.xstream;
+	}
+	
 	@Override
 	public void decodeFromXML(InputStream input) {
-		XStream xstream = new XStream(
-				new PureJavaReflectionProvider(),
-				new DomDriver("UTF-8"));
-		xstream.setMode(XStream.NO_REFERENCES);
-		xstream.alias("templates", TaskTemplate[].class);
-		xstream.alias("template", TaskTemplate.class);
-		xstream.processAnnotations(TaskTemplate.class);
+		XStream xstream = this.getXStream();
 		
 		TaskTemplate[] templates = (TaskTemplate[]) xstream.fromXML(input);
 		for (TaskTemplate template : templates) {
@@ -79,13 +89,7 @@ public class TaskTemplateFactory extends AbstractTemplateFactory<TaskTemplate> {
 	
 	@Override
 	public void encodeToXML(OutputStream output) {
-		XStream xstream = new XStream(
-				new PureJavaReflectionProvider(),
-				new DomDriver("UTF-8"));
-		xstream.setMode(XStream.NO_REFERENCES);
-		xstream.alias("templates", TaskTemplate[].class);
-		xstream.alias("template", TaskTemplate.class);
-		xstream.processAnnotations(TaskTemplate.class);
+		XStream xstream = this.getXStream();
 		
 		xstream.toXML(this.getList().toArray(new TaskTemplate[0]), output);
 	}
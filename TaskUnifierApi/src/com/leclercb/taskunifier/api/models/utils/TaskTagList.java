@@ -35,8 +35,12 @@ package com.leclercb.taskunifier.api.models.utils;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
@@ -45,12 +49,17 @@ import com.leclercb.commons.api.event.listchange.ListChangeListener;
 import com.leclercb.commons.api.event.listchange.ListChangeSupport;
 import com.leclercb.commons.api.event.listchange.ListChangeSupported;
 import com.leclercb.taskunifier.api.models.Model;
-import com.leclercb.taskunifier.api.models.ModelStatus;
+import com.leclercb.taskunifier.api.models.ModelId;
 import com.leclercb.taskunifier.api.models.Tag;
 import com.leclercb.taskunifier.api.models.TagList;
 import com.leclercb.taskunifier.api.models.Task;
 import com.leclercb.taskunifier.api.models.TaskFactory;
 
+/**
+ * Index of the tags used by the tasks with an end user status. Each tag is
+ * mapped to the tasks using it, so that a tag can be renamed, removed or
+ * searched by only visiting the tasks concerned.
+ */
 public final class TaskTagList implements ListChangeSupported, ListChangeListener, PropertyChangeListener {
 	
 	private static TaskTagList INSTANCE;
@@ -64,55 +73,135 @@ public final class TaskTagList implements ListChangeSupported, ListChangeListene
 	
 	private ListChangeSupport listChangeSupport;
 	
-	private List<Tag> tags;
+	private Map<Tag, Set<Task>> tasksByTag;
+	private Map<Task, List<Tag>> tagsByTask;
 	private SortedSet<Tag> sortedTags;
 	
+	private long modificationCount;
+	
 	private TaskTagList() {
 		this.listChangeSupport = new ListChangeSupport(this);
-		this.tags = new ArrayList<Tag>();
+		this.tasksByTag = new HashMap<Tag, Set<Task>>();
+		this.tagsByTask = new IdentityHashMap<Task, List<Tag>>();
 		this.sortedTags = new TreeSet<Tag>();
 		
 		this.initialize();
 	}
 	
-	public TagList getTags() {
+	public synchronized TagList getTags() {
 		TagList list = new TagList();
 		list.addTags(this.sortedTags);
 		return list;
 	}
 	
+	/**
+	 * Returns a counter incremented each time the index changes.
+	 */
+	public synchronized long getModificationCount() {
+		return this.modificationCount;
+	}
+	
+	/**
+	 * Returns the number of tasks with an end user status using the given
+	 * tag.
+	 */
+	public synchronized int getTaskCount(Tag tag) {
+		Set<Task> tasks = this.tasksByTag.get(tag);
+		return (tasks == null ? 0 : tasks.size());
+	}
+	
+	/**
+	 * Returns the tasks with an end user status using the given tag.
+	 */
+	public synchronized List<Task> getTasks(Tag tag) {
+		Set<Task> tasks = this.tasksByTag.get(tag);
+		
+		if (tasks == null)
+			return new ArrayList<Task>();
+		
+		return new ArrayList<Task>(tasks);
+	}
+	
+	/**
+	 * Returns the IDs of the tasks with an end user status using the given
+	 * tag.
+	 */
+	public synchronized List<ModelId> getModelIds(Tag tag) {
+		List<ModelId> modelIds = new ArrayList<ModelId>();
+		
+		Set<Task> tasks = this.tasksByTag.get(tag);
+		
+		if (tasks != null)
+			for (Task task : tasks)
+				modelIds.add(task.getModelId());
+		
+		return modelIds;
+	}
+	
+	/**
+	 * Returns the tasks with an end user status using at least one tag
+	 * containing the given string (case insensitive).
+	 */
+	public synchronized Set<Task> getTasksWithTagContaining(String string) {
+		string = string.toLowerCase();
+		
+		Set<Task> tasks = Collections.newSetFromMap(new IdentityHashMap<Task, Boolean>());
+		
+		for (Map.Entry<Tag, Set<Task>> entry : this.tasksByTag.entrySet())
+			if (entry.getKey().toString().toLowerCase().contains(string))
+				tasks.addAll(entry.getValue());
+		
+		return tasks;
+	}
+	
 	public void editTag(Tag oldTag, Tag newTag) {
-		List<Task> tasks = TaskFactory.getInstance().getList();
+		List<Task> tasks = this.getTasks(oldTag);
 		
-		for (Task task : tasks) {
-			TagList tags = task.getTags();
-			if (tags.replaceTag(oldTag, newTag))
-				task.setTags(tags);
+		TaskFactory.getInstance().beginBatch();
+		
+		try {
+			for (Task task : tasks) {
+				TagList tags = task.getTags();
+				if (tags.replaceTag(oldTag, newTag))
+					task.setTags(tags);
+			}
+		} finally {
+			TaskFactory.getInstance().endBatch();
 		}
 	}
 	
 	public void removeTag(Tag tag) {
-		List<Task> tasks = TaskFactory.getInstance().getList();
+		List<Task> tasks = this.getTasks(tag);
 		
-		for (Task task : tasks) {
-			TagList tags = task.getTags();
-			if (tags.removeTag(tag))
-				task.setTags(tags);
+		TaskFactory.getInstance().beginBatch();
+		
+		try {
+			for (Task task : tasks) {
+				TagList tags = task.getTags();
+				if (tags.removeTag(tag))
+					task.setTags(tags);
+			}
+		} finally {
+			TaskFactory.getInstance().endBatch();
 		}
 	}
 	
-	private void initialize() {
+	private synchronized void initialize() {
 		List<Task> tasks = TaskFactory.getInstance().getList();
 		
 		for (Task task : tasks) {
-			if (!task.getModelStatus().isEndUserStatus()) {
+			if (!task.getModelStatus().isEndUserStatus())
 				continue;
-			}
 			
-			this.tags.addAll(task.getTags().asList());
-			this.sortedTags.addAll(this.tags);
+			List<Tag> tags = task.getTags().asList();
+			this.tagsByTask.put(task, tags);
+			
+			for (Tag tag : tags)
+				this.getTaskSet(tag).add(task);
 		}
 		
+		this.sortedTags.addAll(this.tasksByTag.keySet());
+		
 		TaskFactory.getInstance().addListChangeListener(this);
 		TaskFactory.getInstance().addPropertyChangeListener(this);
 	}
@@ -121,78 +210,81 @@ public final class TaskTagList implements ListChangeSupported, ListChangeListene
 	public void listChange(ListChangeEvent evt) {
 		Task task = (Task) evt.getValue();
 		
-		if (evt.getChangeType() == ListChangeEvent.VALUE_ADDED) {
-			if (task.getModelStatus().isEndUserStatus()) {
-				this.addTags(task.getTags());
-			}
-		}
+		if (evt.getChangeType() == ListChangeEvent.VALUE_ADDED)
+			this.updateTask(task, true);
 		
-		if (evt.getChangeType() == ListChangeEvent.VALUE_REMOVED) {
-			this.removeTags(task.getTags());
-		}
+		if (evt.getChangeType() == ListChangeEvent.VALUE_REMOVED)
+			this.updateTask(task, false);
 	}
 	
 	@Override
 	public void propertyChange(PropertyChangeEvent evt) {
-		Task task = (Task) evt.getSource();
+		if (evt.getPropertyName().equals(Model.PROP_MODEL_STATUS)
+				|| evt.getPropertyName().equals(Task.PROP_TAGS))
+			this.updateTask((Task) evt.getSource(), true);
+	}
+	
+	private synchronized void updateTask(Task task, boolean registered) {
+		List<Tag> oldTags = this.tagsByTask.remove(task);
+		List<Tag> newTags = null;
 		
-		if (evt.getPropertyName().equals(Model.PROP_MODEL_STATUS)) {
-			ModelStatus oldStatus = (ModelStatus) evt.getOldValue();
-			ModelStatus newStatus = (ModelStatus) evt.getNewValue();
-			
-			if (!oldStatus.isEndUserStatus() && newStatus.isEndUserStatus()) {
-				this.addTags(task.getTags());
-			} else if (oldStatus.isEndUserStatus()
-					&& !newStatus.isEndUserStatus()) {
-				this.removeTags(task.getTags());
-			}
+		if (registered && task.getModelStatus().isEndUserStatus()) {
+			newTags = task.getTags().asList();
+			this.tagsByTask.put(task, newTags);
 		}
 		
-		if (evt.getPropertyName().equals(Task.PROP_TAGS)) {
-			if (task.getModelStatus().isEndUserStatus()) {
-				this.addTags((TagList) evt.getNewValue());
-				this.removeTags((TagList) evt.getOldValue());
-			}
+		if (oldTags != null)
+			for (Tag tag : oldTags)
+				if (newTags == null || !newTags.contains(tag))
+					this.removeTask(tag, task);
+		
+		if (newTags != null)
+			for (Tag tag : newTags)
+				if (oldTags == null || !oldTags.contains(tag))
+					this.addTask(tag, task);
+	}
+	
+	private Set<Task> getTaskSet(Tag tag) {
+		Set<Task> tasks = this.tasksByTag.get(tag);
+		
+		if (tasks == null) {
+			tasks = Collections.newSetFromMap(new IdentityHashMap<Task, Boolean>());
+			this.tasksByTag.put(tag, tasks);
 		}
+		
+		return tasks;
 	}
 	
-	private void addTags(TagList tags) {
-		for (Tag tag : tags) {
-			this.tags.add(tag);
+	private void addTask(Tag tag, Task task) {
+		this.getTaskSet(tag).add(task);
+		this.modificationCount++;
+		
+		if (this.sortedTags.add(tag)) {
+			int index = this.sortedTags.headSet(tag).size();
 			
-			if (!this.sortedTags.contains(tag)) {
-				this.sortedTags.add(tag);
-				
-				int index = 0;
-				Iterator<Tag> it = this.sortedTags.iterator();
-				while (it.hasNext()) {
-					if (it.next().equals(tag))
-						break;
-					
-					index++;
-				}
-				
-				this.listChangeSupport.fireListChange(
-						ListChangeEvent.VALUE_ADDED,
-						index,
-						tag);
-			}
+			this.listChangeSupport.fireListChange(
+					ListChangeEvent.VALUE_ADDED,
+					index,
+					tag);
 		}
 	}
 	
-	private void removeTags(TagList tags) {
-		for (Tag tag : tags) {
-			this.tags.remove(tag);
+	private void removeTask(Tag tag, Task task) {
+		Set<Task> tasks = this.tasksByTag.get(tag);
+		
+		if (tasks == null || !tasks.remove(task))
+			return;
+		
+		this.modificationCount++;
+		
+		if (tasks.isEmpty()) {
+			this.tasksByTag.remove(tag);
+			this.sortedTags.remove(tag);
 			
-			if (!this.tags.contains(tag)) {
-				if (this.sortedTags.contains(tag)) {
-					this.sortedTags.remove(tag);
-					this.listChangeSupport.fireListChange(
-							ListChangeEvent.VALUE_REMOVED,
-							-1,
-							tag);
-				}
-			}
+			this.listChangeSupport.fireListChange(
+					ListChangeEvent.VALUE_REMOVED,
+					-1,
+					tag);
 		}
 	}
 	
@@ -0,0 +1,245 @@
+/*
+ * TaskUnifier
+ * Copyright (c) 2011, Benjamin Leclerc
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ *   - Neither the name of TaskUnifier or the names of its
+ *     contributors may be used to endorse or promote products derived
+ *     from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.leclercb.taskunifier.api.synchronizer;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.leclercb.commons.api.logger.ApiLogger;
+import com.leclercb.commons.api.utils.CheckUtils;
+import com.leclercb.taskunifier.api.models.Model;
+import com.leclercb.taskunifier.api.models.ModelFactory;
+import com.leclercb.taskunifier.api.models.ModelId;
+import com.leclercb.taskunifier.api.models.ModelType;
+import com.leclercb.taskunifier.api.models.beans.ModelBean;
+import com.leclercb.taskunifier.api.models.utils.ModelFactoryUtils;
+
+/**
+ * Changes returned by a {@link DetachedSynchronizer}. The changes are keyed
+ * by model ID: a later change of a model replaces the previous one.
+ * 
+ * The changes must be applied on the thread owning the models, in the order
+ * of {@link #getChanges()}: the created and updated models by model type
+ * (contacts first, tasks last) then the deleted models in the reverse order.
+ */
+public class SynchronizerChangeSet {
+	
+	public enum ChangeType {
+		
+		CREATE,
+		UPDATE,
+		DELETE;
+		
+	}
+	
+	private Map<ModelType, Map<ModelId, Change>> changes;
+	
+	public SynchronizerChangeSet() {
+		this.changes = new EnumMap<ModelType, Map<ModelId, Change>>(
+				ModelType.class);
+		
+		for (ModelType type : ModelType.values())
+			this.changes.put(type, new LinkedHashMap<ModelId, Change>());
+	}
+	
+	public void createModel(ModelBean bean) {
+		CheckUtils.isNotNull(bean);
+		this.addChange(new Change(
+				ChangeType.CREATE,
+				bean.getModelType(),
+				bean.getModelId(),
+				bean));
+	}
+	
+	public void updateModel(ModelBean bean) {
+		CheckUtils.isNotNull(bean);
+		
+		Change change = this.changes.get(bean.getModelType()).get(
+				bean.getModelId());
+		
+		// A model created in this change set is still a creation
+		ChangeType changeType = ChangeType.UPDATE;
+		if (change != null && change.getChangeType() == ChangeType.CREATE)
+			changeType = ChangeType.CREATE;
+		
+		this.addChange(new Change(
+				changeType,
+				bean.getModelType(),
+				bean.getModelId(),
+				bean));
+	}
+	
+	public void deleteModel(ModelType type, ModelId modelId) {
+		CheckUtils.isNotNull(type);
+		CheckUtils.isNotNull(modelId);
+		this.addChange(new Change(ChangeType.DELETE, type, modelId, null));
+	}
+	
+	private void addChange(Change change) {
+		Map<ModelId, Change> changes = this.changes.get(change.getModelType());
+		
+		// Move the model to the end of the order
+		changes.remove(change.getModelId());
+		changes.put(change.getModelId(), change);
+	}
+	
+	public int size() {
+		int size = 0;
+		
+		for (Map<ModelId, Change> changes : this.changes.values())
+			size += changes.size();
+		
+		return size;
+	}
+	
+	public boolean isEmpty() {
+		return this.size() == 0;
+	}
+	
+	/**
+	 * Returns the changes in the order they must be applied.
+	 */
+	public List<Change> getChanges() {
+		List<Change> changes = new ArrayList<Change>(this.size());
+		
+		ModelType[] types = ModelType.values();
+		
+		for (int i = 0; i < types.length; i++)
+			for (Change change : this.changes.get(types[i]).values())
+				if (change.getChangeType() != ChangeType.DELETE)
+					changes.add(change);
+		
+		for (int i = types.length - 1; i >= 0; i--)
+			for (Change change : this.changes.get(types[i]).values())
+				if (change.getChangeType() == ChangeType.DELETE)
+					changes.add(change);
+		
+		return changes;
+	}
+	
+	public static class Change {
+		
+		private ChangeType changeType;
+		private ModelType modelType;
+		private ModelId modelId;
+		private ModelBean bean;
+		
+		private Change(
+				ChangeType changeType,
+				ModelType modelType,
+				ModelId modelId,
+				ModelBean bean) {
+			this.changeType = changeType;
+			this.modelType = modelType;
+			this.modelId = modelId;
+			this.bean = bean;
+		}
+		
+		public ChangeType getChangeType() {
+			return this.changeType;
+		}
+		
+		public ModelType getModelType() {
+			return this.modelType;
+		}
+		
+		public ModelId getModelId() {
+			return this.modelId;
+		}
+		
+		public ModelBean getBean() {
+			return this.bean;
+		}
+		
+		/**
+		 * Applies the change to the factory of the model. A created or updated
+		 * model which has been modified locally since the snapshot was taken is
+		 * not overwritten: the local modification will be synchronized next
+		 * time.
+		 * 
+		 * @param snapshot
+		 *            the snapshot given to the synchronizer, or null
+		 * @return true if the change has been applied
+		 */
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		public boolean apply(SynchronizerSnapshot snapshot) {
+			ModelFactory factory = ModelFactoryUtils.getFactory(this.modelType);
+			Model model = factory.get(this.modelId);
+			
+			if (this.changeType == ChangeType.DELETE) {
+				if (model == null)
+					return false;
+				
+				factory.markDeleted(this.modelId);
+				return true;
+			}
+			
+			if (model == null) {
+				factory.create(this.bean, true);
+				return true;
+			}
+			
+			if (snapshot != null
+					&& isModifiedSince(
+							model,
+							snapshot.getBean(this.modelType, this.modelId))) {
+				ApiLogger.getLogger().info(
+						"Model modified during synchronization: "
+								+ this.modelId);
+				return false;
+			}
+			
+			model.loadBean(this.bean, true);
+			return true;
+		}
+		
+		private static boolean isModifiedSince(Model model, ModelBean bean) {
+			if (bean == null)
+				return false;
+			
+			Calendar modelUpdateDate = model.getModelUpdateDate();
+			Calendar beanUpdateDate = bean.getModelUpdateDate();
+			
+			if (modelUpdateDate == null || beanUpdateDate == null)
+				return false;
+			
+			return modelUpdateDate.after(beanUpdateDate);
+		}
+		
+	}
+	
+}
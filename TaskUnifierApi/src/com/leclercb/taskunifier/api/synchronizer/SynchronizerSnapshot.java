@@ -0,0 +1,107 @@
+/*
+ * TaskUnifier
+ * Copyright (c) 2011, Benjamin Leclerc
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ *   - Neither the name of TaskUnifier or the names of its
+ *     contributors may be used to endorse or promote products derived
+ *     from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.leclercb.taskunifier.api.synchronizer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.leclercb.commons.api.utils.CheckUtils;
+import com.leclercb.taskunifier.api.models.Model;
+import com.leclercb.taskunifier.api.models.ModelId;
+import com.leclercb.taskunifier.api.models.ModelType;
+import com.leclercb.taskunifier.api.models.beans.ModelBean;
+import com.leclercb.taskunifier.api.models.utils.ModelFactoryUtils;
+
+/**
+ * Detached copy of the models of the factories. The snapshot is taken on the
+ * thread owning the models, then a {@link DetachedSynchronizer} reads it on
+ * another thread while the models can still be modified.
+ */
+public class SynchronizerSnapshot {
+	
+	private Map<ModelType, Map<ModelId, ModelBean>> beans;
+	
+	public SynchronizerSnapshot() {
+		this.beans = new EnumMap<ModelType, Map<ModelId, ModelBean>>(
+				ModelType.class);
+		
+		for (ModelType type : ModelType.values())
+			this.beans.put(type, new LinkedHashMap<ModelId, ModelBean>());
+	}
+	
+	/**
+	 * Creates a snapshot of the models of all the factories.
+	 */
+	public static SynchronizerSnapshot create() {
+		SynchronizerSnapshot snapshot = new SynchronizerSnapshot();
+		
+		for (ModelType type : ModelType.values())
+			for (Model model : ModelFactoryUtils.getFactory(type).getList())
+				snapshot.addBean(model.toBean());
+		
+		return snapshot;
+	}
+	
+	public void addBean(ModelBean bean) {
+		CheckUtils.isNotNull(bean);
+		
+		this.beans.get(bean.getModelType()).put(bean.getModelId(), bean);
+	}
+	
+	public ModelBean getBean(ModelType type, ModelId modelId) {
+		CheckUtils.isNotNull(type);
+		
+		return this.beans.get(type).get(modelId);
+	}
+	
+	public List<ModelBean> getBeans(ModelType type) {
+		CheckUtils.isNotNull(type);
+		
+		return Collections.unmodifiableList(new ArrayList<ModelBean>(
+				this.beans.get(type).values()));
+	}
+	
+	public int size() {
+		int size = 0;
+		
+		for (Map<ModelId, ModelBean> beans : this.beans.values())
+			size += beans.size();
+		
+		return size;
+	}
+	
+}
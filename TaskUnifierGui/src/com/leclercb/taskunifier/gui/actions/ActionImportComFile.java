@@ -37,6 +37,7 @@ import java.awt.event.ActionEvent;
 import java.io.File;
 import java.io.FileInputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import javax.swing.AbstractAction;
@@ -47,7 +48,9 @@ import org.jdesktop.swingx.error.ErrorInfo;
 import com.leclercb.commons.api.utils.FileUtils;
 import com.leclercb.commons.gui.logger.GuiLogger;
 import com.leclercb.taskunifier.api.models.Note;
+import com.leclercb.taskunifier.api.models.NoteFactory;
 import com.leclercb.taskunifier.api.models.Task;
+import com.leclercb.taskunifier.api.models.TaskFactory;
 import com.leclercb.taskunifier.gui.api.models.beans.ComBean;
 import com.leclercb.taskunifier.gui.api.models.beans.ComNoteBean;
 import com.leclercb.taskunifier.gui.api.models.beans.ComQuickTaskBean;
@@ -120,75 +123,111 @@ public class ActionImportComFile extends AbstractAction {
 	}
 	
 	public static void importComBean(ComBean bean) {
+		importComBeans(Collections.singletonList(bean));
+	}
+	
+	/**
+	 * Imports the beans in one pass. The selection is updated once, with all
+	 * the imported notes and tasks, after the last bean has been imported.
+	 */
+	public static void importComBeans(List<ComBean> beans) {
+		List<Note> importedNotes = new ArrayList<Note>();
+		List<Task> importedTasks = new ArrayList<Task>();
+		
+		NoteFactory.getInstance().beginBatch();
+		TaskFactory.getInstance().beginBatch();
+		
 		try {
-			if (bean.getArguments() != null) {
-				MainFrame.getInstance().getFrame().setVisible(true);
-				MainFrame.getInstance().getFrame().setState(Frame.NORMAL);
-				
-				Main.handleArguments(bean.getArguments());
-			}
-			
-			if (bean.getNotes() != null) {
-				List<Note> notes = new ArrayList<Note>();
-				for (ComNoteBean note : bean.getNotes()) {
-					note.loadModels(false);
-					notes.add(ActionAddNote.addNote(note, false));
+			for (ComBean bean : beans) {
+				try {
+					importComBean(bean, importedNotes, importedTasks);
+					continue;
+				} catch (Exception e) {
+					e.printStackTrace();
 				}
 				
 				Constants.PROGRESS_MONITOR.addMessage(new CommunicatorDefaultProgressMessage(
-						Translations.getString(
-								"communicator.message.add_note",
-								notes.size(),
-								bean.getApplicationName())));
+						Translations.getString("error.unknown_message_format")));
 				
-				ViewUtils.setSelectedNotes(notes.toArray(new Note[0]));
+				GuiLogger.getLogger().warning("Unknown message format");
 			}
+		} finally {
+			TaskFactory.getInstance().endBatch();
+			NoteFactory.getInstance().endBatch();
+		}
+		
+		if (importedNotes.size() != 0)
+			ViewUtils.setSelectedNotes(importedNotes.toArray(new Note[0]));
+		
+		if (importedTasks.size() != 0)
+			ViewUtils.setSelectedTasks(importedTasks.toArray(new Task[0]));
+	}
+	
+	private static void importComBean(
+			ComBean bean,
+			List<Note> importedNotes,
+			List<Task> importedTasks) {
+		if (bean.getArguments() != null) {
+			MainFrame.getInstance().getFrame().setVisible(true);
+			MainFrame.getInstance().getFrame().setState(Frame.NORMAL);
 			
-			if (bean.getTasks() != null) {
-				List<Task> tasks = new ArrayList<Task>();
-				for (ComTaskBean task : bean.getTasks()) {
-					task.loadModels(false);
-					tasks.add(ActionAddTask.addTask(task, false));
-				}
-				
-				Constants.PROGRESS_MONITOR.addMessage(new CommunicatorDefaultProgressMessage(
-						Translations.getString(
-								"communicator.message.add_task",
-								tasks.size(),
-								bean.getApplicationName())));
-				
-				ViewUtils.setSelectedTasks(tasks.toArray(new Task[0]));
+			Main.handleArguments(bean.getArguments());
+		}
+		
+		if (bean.getNotes() != null) {
+			List<Note> notes = new ArrayList<Note>();
+			for (ComNoteBean note : bean.getNotes()) {
+				note.loadModels(false);
+				notes.add(ActionAddNote.addNote(note, false));
 			}
 			
-			if (bean.getQuickTasks() != null) {
-				List<Task> tasks = new ArrayList<Task>();
-				for (ComQuickTaskBean quickTask : bean.getQuickTasks()) {
-					if (quickTask.getTitle() == null)
-						continue;
-					
-					tasks.add(ActionAddQuickTask.addQuickTask(
-							quickTask.getTitle(),
-							false));
-				}
+			Constants.PROGRESS_MONITOR.addMessage(new CommunicatorDefaultProgressMessage(
+					Translations.getString(
+							"communicator.message.add_note",
+							notes.size(),
+							bean.getApplicationName())));
+			
+			importedNotes.addAll(notes);
+		}
+		
+		if (bean.getTasks() != null) {
+			List<Task> tasks = new ArrayList<Task>();
+			for (ComTaskBean task : bean.getTasks()) {
+				task.loadModels(false);
+				tasks.add(ActionAddTask.addTask(task, false));
+			}
+			
+			Constants.PROGRESS_MONITOR.addMessage(new CommunicatorDefaultProgressMessage(
+					Translations.getString(
+							"communicator.message.add_task",
+							tasks.size(),
+							bean.getApplicationName())));
+			
+			importedTasks.addAll(tasks);
+		}
+		
+		if (bean.getQuickTasks() != null) {
+			List<Task> tasks = new ArrayList<Task>();
+			for (ComQuickTaskBean quickTask : bean.getQuickTasks()) {
+				if (quickTask.getTitle() == null)
+					continue;
 				
-				Constants.PROGRESS_MONITOR.addMessage(new CommunicatorDefaultProgressMessage(
-						Translations.getString(
-								"communicator.message.add_task",
-								tasks.size(),
-								bean.getApplicationName())));
+				Task task = ActionAddQuickTask.addQuickTask(
+						quickTask.getTitle(),
+						false);
 				
-				ViewUtils.setSelectedTasks(tasks.toArray(new Task[0]));
+				if (task != null)
+					tasks.add(task);
 			}
 			
-			return;
-		} catch (Exception e) {
-			e.printStackTrace();
+			Constants.PROGRESS_MONITOR.addMessage(new CommunicatorDefaultProgressMessage(
+					Translations.getString(
+							"communicator.message.add_task",
+							tasks.size(),
+							bean.getApplicationName())));
+			
+			importedTasks.addAll(tasks);
 		}
-		
-		Constants.PROGRESS_MONITOR.addMessage(new CommunicatorDefaultProgressMessage(
-				Translations.getString("error.unknown_message_format")));
-		
-		GuiLogger.getLogger().warning("Unknown message format");
 	}
 	
 }
@@ -3,8 +3,6 @@ package com.leclercb.taskunifier.gui.api.models.beans;
 import java.io.InputStream;
 import java.io.OutputStream;
 
-import com.leclercb.taskunifier.api.models.templates.NoteTemplateFactory;
-import com.leclercb.taskunifier.api.models.templates.TaskTemplateFactory;
 import com.leclercb.taskunifier.gui.api.models.beans.converters.ComNoteBeanWithTemplateConverter;
 import com.leclercb.taskunifier.gui.api.models.beans.converters.ComTaskBeanWithTemplateConverter;
 import com.thoughtworks.xstream.XStream;
@@ -15,6 +13,8 @@ import com.thoughtworks.xstream.io.xml.DomDriver;
 @XStreamAlias("com")
 public class ComBean {
 	
+	private static XStream XSTREAM;
+	
 	@XStreamAlias("applicationname")
 	private String applicationName;
 	
@@ -83,29 +83,17 @@ public class ComBean {
 	}
 	
 	public static void encodeToXML(OutputStream output, ComBean bean) {
-		XStream xstream = new XStream(
-				new PureJavaReflectionProvider(),
-				new DomDriver("UTF-8"));
-		xstream.setMode(XStream.NO_REFERENCES);
-		xstream.processAnnotations(ComBean.class);
-		xstream.alias("note", ComNoteBean.class);
-		xstream.alias("task", ComTaskBean.class);
-		xstream.alias("quicktask", ComQuickTaskBean.class);
-		
-		xstream.registerConverter(new ComNoteBeanWithTemplateConverter(
-				xstream.getMapper(),
-				xstream.getReflectionProvider(),
-				NoteTemplateFactory.getInstance().getDefaultTemplate()));
-		
-		xstream.registerConverter(new ComTaskBeanWithTemplateConverter(
-				xstream.getMapper(),
-				xstream.getReflectionProvider(),
-				TaskTemplateFactory.getInstance().getDefaultTemplate()));
-		
-		xstream.toXML(bean, output);
+		getXStream().toXML(bean, output);
 	}
 	
 	public static ComBean decodeFromXML(InputStream input) {
+		return (ComBean) getXStream().fromXML(input);
+	}
+	
+	private static synchronized XStream getXStream() {
+		if (XSTREAM != null)
+			return XSTREAM;
+		
 		XStream xstream = new XStream(
 				new PureJavaReflectionProvider(),
 				new DomDriver("UTF-8"));
@@ -115,17 +103,17 @@ public class ComBean {
 		xstream.alias("task", ComTaskBean.class);
 		xstream.alias("quicktask", ComQuickTaskBean.class);
 		
+		// The converters apply the default templates at decoding time
 		xstream.registerConverter(new ComNoteBeanWithTemplateConverter(
 				xstream.getMapper(),
-				xstream.getReflectionProvider(),
-				NoteTemplateFactory.getInstance().getDefaultTemplate()));
+				xstream.getReflectionProvider()));
 		
 		xstream.registerConverter(new ComTaskBeanWithTemplateConverter(
 				xstream.getMapper(),
-				xstream.getReflectionProvider(),
-				TaskTemplateFactory.getInstance().getDefaultTemplate()));
+				xstream.getReflectionProvider()));
 		
-		return (ComBean) xstream.fromXML(input);
+		XSTREAM = xstream;
+		return XSTREAM;
 	}
 	
 }
@@ -33,6 +33,7 @@
 package com.leclercb.taskunifier.gui.api.models.beans.converters;
 
 import com.leclercb.taskunifier.api.models.templates.NoteTemplate;
+import com.leclercb.taskunifier.api.models.templates.NoteTemplateFactory;
 import com.leclercb.taskunifier.gui.api.models.beans.ComNoteBean;
 import com.thoughtworks.xstream.converters.UnmarshallingContext;
 import com.thoughtworks.xstream.converters.reflection.ReflectionConverter;
@@ -42,13 +43,27 @@ import com.thoughtworks.xstream.mapper.Mapper;
 
 public class ComNoteBeanWithTemplateConverter extends ReflectionConverter {
 	
+	private boolean useDefaultTemplate;
 	private NoteTemplate template;
 	
+	/**
+	 * The default template of the {@link NoteTemplateFactory} at the time of
+	 * the decoding will be applied to the beans.
+	 */
+	public ComNoteBeanWithTemplateConverter(
+			Mapper mapper,
+			ReflectionProvider reflectionProvider) {
+		super(mapper, reflectionProvider);
+		this.useDefaultTemplate = true;
+		this.template = null;
+	}
+	
 	public ComNoteBeanWithTemplateConverter(
 			Mapper mapper,
 			ReflectionProvider reflectionProvider,
 			NoteTemplate template) {
 		super(mapper, reflectionProvider);
+		this.useDefaultTemplate = false;
 		this.template = template;
 	}
 	
@@ -64,8 +79,13 @@ public class ComNoteBeanWithTemplateConverter extends ReflectionConverter {
 			UnmarshallingContext context) {
 		ComNoteBean bean = new ComNoteBean();
 		
-		if (this.template != null)
-			this.template.applyTo(bean);
+		NoteTemplate template = this.template;
+		
+		if (this.useDefaultTemplate)
+			template = NoteTemplateFactory.getInstance().getDefaultTemplate();
+		
+		if (template != null)
+			template.applyTo(bean);
 		
 		return bean;
 	}
@@ -33,6 +33,7 @@
 package com.leclercb.taskunifier.gui.api.models.beans.converters;
 
 import com.leclercb.taskunifier.api.models.templates.TaskTemplate;
+import com.leclercb.taskunifier.api.models.templates.TaskTemplateFactory;
 import com.leclercb.taskunifier.gui.api.models.beans.ComTaskBean;
 import com.thoughtworks.xstream.converters.UnmarshallingContext;
 import com.thoughtworks.xstream.converters.reflection.ReflectionConverter;
@@ -42,13 +43,27 @@ import com.thoughtworks.xstream.mapper.Mapper;
 
 public class ComTaskBeanWithTemplateConverter extends ReflectionConverter {
 	
+	private boolean useDefaultTemplate;
 	private TaskTemplate template;
 	
+	/**
+	 * The default template of the {@link TaskTemplateFactory} at the time of
+	 * the decoding will be applied to the beans.
+	 */
+	public ComTaskBeanWithTemplateConverter(
+			Mapper mapper,
+			ReflectionProvider reflectionProvider) {
+		super(mapper, reflectionProvider);
+		this.useDefaultTemplate = true;
+		this.template = null;
+	}
+	
 	public ComTaskBeanWithTemplateConverter(
 			Mapper mapper,
 			ReflectionProvider reflectionProvider,
 			TaskTemplate template) {
 		super(mapper, reflectionProvider);
+		this.useDefaultTemplate = false;
 		this.template = template;
 	}
 	
@@ -64,8 +79,13 @@ public class ComTaskBeanWithTemplateConverter extends ReflectionConverter {
 			UnmarshallingContext context) {
 		ComTaskBean bean = new ComTaskBean();
 		
-		if (this.template != null)
-			this.template.applyTo(bean);
+		TaskTemplate template = this.template;
+		
+		if (this.useDefaultTemplate)
+			template = TaskTemplateFactory.getInstance().getDefaultTemplate();
+		
+		if (template != null)
+			template.applyTo(bean);
 		
 		return bean;
 	}
@@ -33,6 +33,8 @@
 package com.leclercb.taskunifier.gui.api.searchers.coders;
 
 import java.util.Calendar;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -56,6 +58,7 @@ import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.CalendarCon
 import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.DaysCondition;
 import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.EnumCondition;
 import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.ModelCondition;
+import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.ModelSetCondition;
 import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.NumberCondition;
 import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.StringCondition;
 import com.leclercb.taskunifier.gui.components.tasks.TaskColumn;
@@ -234,6 +237,37 @@ public class TaskFilterXMLCoder extends AbstractXMLCoder<TaskFilter> {
 									column,
 									condition,
 									value);
+					} else if (column != null
+							&& conditionClass.equals("ModelSetCondition")) {
+						ModelSetCondition condition = ModelSetCondition.valueOf(enumName);
+						Set<ModelId> value = null;
+						
+						if (valueStr != null) {
+							value = new HashSet<ModelId>();
+							
+							NodeList nModelIds = valueNode.getChildNodes();
+							for (int j = 0; j < nModelIds.getLength(); j++) {
+								if (!nModelIds.item(j).getNodeName().equals(
+										"modelid"))
+									continue;
+								
+								Boolean newId = XMLUtils.getBooleanAttributeValue(
+										nModelIds.item(j),
+										"isnew");
+								
+								if (newId == null)
+									newId = false;
+								
+								value.add(new ModelId(
+										newId,
+										nModelIds.item(j).getTextContent()));
+							}
+						}
+						
+						element = new TaskFilterElement(
+								column,
+								condition,
+								value);
 					}
 					
 					if (element != null)
@@ -313,6 +347,20 @@ public class TaskFilterXMLCoder extends AbstractXMLCoder<TaskFilter> {
 					
 					value.setTextContent(id.getId());
 				}
+			} else if (e.getCondition() instanceof ModelSetCondition) {
+				condition.setTextContent("ModelSetCondition."
+						+ e.getCondition().name());
+				
+				if (e.getValue() != null) {
+					for (Object id : (Set<?>) e.getValue()) {
+						Element modelId = document.createElement("modelid");
+						modelId.setAttribute(
+								"isnew",
+								((ModelId) id).isNewId() + "");
+						modelId.setTextContent(((ModelId) id).getId());
+						value.appendChild(modelId);
+					}
+				}
 			}
 			
 			if (e.getValue() == null)
@@ -36,6 +36,7 @@ import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
@@ -63,6 +64,9 @@ public abstract class Filter<M extends Model, MP extends ModelProperties<M>, F e
 	private List<F> filters;
 	private List<FE> elements;
 	
+	private volatile List<FE> sortedElements;
+	private volatile long modificationCount;
+	
 	public Filter() {
 		this.listChangeSupport = new ListChangeSupport(this);
 		this.propertyChangeSupport = new PropertyChangeSupport(this);
@@ -90,6 +94,7 @@ public abstract class Filter<M extends Model, MP extends ModelProperties<M>, F e
 		CheckUtils.isNotNull(link);
 		FilterLink oldLink = this.link;
 		this.link = link;
+		this.modificationCount++;
 		this.propertyChangeSupport.firePropertyChange(PROP_LINK, oldLink, link);
 	}
 	
@@ -120,6 +125,8 @@ public abstract class Filter<M extends Model, MP extends ModelProperties<M>, F e
 		
 		element.setParent((F) this);
 		element.addPropertyChangeListener(this);
+		this.sortedElements = null;
+		this.modificationCount++;
 		int index = this.elements.indexOf(element);
 		this.listChangeSupport.fireListChange(
 				ListChangeEvent.VALUE_ADDED,
@@ -134,6 +141,8 @@ public abstract class Filter<M extends Model, MP extends ModelProperties<M>, F e
 		if (this.elements.remove(element)) {
 			element.setParent(null);
 			element.removePropertyChangeListener(this);
+			this.sortedElements = null;
+			this.modificationCount++;
 			this.listChangeSupport.fireListChange(
 					ListChangeEvent.VALUE_REMOVED,
 					index,
@@ -176,6 +185,7 @@ public abstract class Filter<M extends Model, MP extends ModelProperties<M>, F e
 		filter.setParent((F) this);
 		filter.addListChangeListener(this);
 		filter.addPropertyChangeListener(this);
+		this.modificationCount++;
 		int index = this.filters.indexOf(filter);
 		this.listChangeSupport.fireListChange(
 				ListChangeEvent.VALUE_ADDED,
@@ -191,6 +201,7 @@ public abstract class Filter<M extends Model, MP extends ModelProperties<M>, F e
 			filter.setParent(null);
 			filter.removeListChangeListener(this);
 			filter.removePropertyChangeListener(this);
+			this.modificationCount++;
 			this.listChangeSupport.fireListChange(
 					ListChangeEvent.VALUE_REMOVED,
 					index,
@@ -205,9 +216,45 @@ public abstract class Filter<M extends Model, MP extends ModelProperties<M>, F e
 		}
 	}
 	
+	/**
+	 * Returns a counter incremented each time this filter, one of its elements
+	 * or one of its sub filters is modified, before the listeners are
+	 * notified.
+	 */
+	public long getModificationCount() {
+		return this.modificationCount;
+	}
+	
+	/**
+	 * Returns the elements sorted by the cost of their compiled condition.
+	 * The list is kept until an element is added, removed or modified.
+	 */
+	private List<FE> getSortedElements() {
+		List<FE> sortedElements = this.sortedElements;
+		
+		if (sortedElements == null) {
+			sortedElements = new ArrayList<FE>(this.elements);
+			Collections.sort(sortedElements, new Comparator<FE>() {
+				
+				@Override
+				public int compare(FE e1, FE e2) {
+					return e1.getCompiledCondition().getCost()
+							- e2.getCompiledCondition().getCost();
+				}
+				
+			});
+			
+			this.sortedElements = sortedElements;
+		}
+		
+		return sortedElements;
+	}
+	
 	public boolean include(M model) {
+		List<FE> elements = this.getSortedElements();
+		
 		if (this.link == FilterLink.AND) {
-			for (FE element : this.elements) {
+			for (FE element : elements) {
 				if (!element.include(model))
 					return false;
 			}
@@ -222,7 +269,7 @@ public abstract class Filter<M extends Model, MP extends ModelProperties<M>, F e
 			if (this.getElementCount() == 0 && this.getFilterCount() == 0)
 				return true;
 			
-			for (FE element : this.elements) {
+			for (FE element : elements) {
 				if (element.include(model))
 					return true;
 			}
@@ -267,11 +314,16 @@ public abstract class Filter<M extends Model, MP extends ModelProperties<M>, F e
 	
 	@Override
 	public void listChange(ListChangeEvent event) {
+		this.modificationCount++;
 		this.listChangeSupport.fireListChange(event);
 	}
 	
 	@Override
 	public void propertyChange(PropertyChangeEvent event) {
+		if (event.getSource() instanceof FilterElement<?, ?, ?>)
+			this.sortedElements = null;
+		
+		this.modificationCount++;
 		this.propertyChangeSupport.firePropertyChange(event);
 	}
 	
@@ -35,7 +35,6 @@ package com.leclercb.taskunifier.gui.api.searchers.filters;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.List;
 
 import com.leclercb.commons.api.event.propertychange.PropertyChangeSupport;
@@ -43,13 +42,8 @@ import com.leclercb.commons.api.event.propertychange.PropertyChangeSupported;
 import com.leclercb.commons.api.utils.CheckUtils;
 import com.leclercb.taskunifier.api.models.Model;
 import com.leclercb.taskunifier.gui.api.models.properties.ModelProperties;
-import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.CalendarCondition;
+import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.CompiledCondition;
 import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.Condition;
-import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.DaysCondition;
-import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.EnumCondition;
-import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.ModelCondition;
-import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.NumberCondition;
-import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.StringCondition;
 import com.leclercb.taskunifier.gui.translations.TranslationsUtils;
 
 public abstract class FilterElement<M extends Model, MP extends ModelProperties<M>, F extends Filter<M, MP, F, ? extends FilterElement<M, MP, F>>> implements PropertyChangeSupported {
@@ -66,6 +60,8 @@ public abstract class FilterElement<M extends Model, MP extends ModelProperties<
 	private Condition<?, ?> condition;
 	private Object value;
 	
+	private volatile CompiledCondition<Object> compiledCondition;
+	
 	public FilterElement(MP property, Condition<?, ?> condition, Object value) {
 		this.checkAndSet(property, condition, value);
 	}
@@ -82,6 +78,8 @@ public abstract class FilterElement<M extends Model, MP extends ModelProperties<
 		events.add(this.setCondition(condition));
 		events.add(this.setValue(value));
 		
+		this.compiledCondition = null;
+		
 		for (PropertyChangeEvent event : events)
 			this.propertyChangeSupport.firePropertyChange(event);
 	}
@@ -144,30 +142,25 @@ public abstract class FilterElement<M extends Model, MP extends ModelProperties<
 					"The property is incompatible with this condition");
 	}
 	
-	public boolean include(M model) {
-		Object taskValue = this.property.getProperty(model);
+	/**
+	 * Returns the condition compiled with the value of this element. The
+	 * compiled condition is kept until the element is modified.
+	 */
+	@SuppressWarnings("unchecked")
+	public CompiledCondition<Object> getCompiledCondition() {
+		CompiledCondition<Object> compiledCondition = this.compiledCondition;
 		
-		if (this.condition instanceof CalendarCondition) {
-			CalendarCondition c = (CalendarCondition) this.condition;
-			return c.include((Calendar) this.value, (Calendar) taskValue);
-		} else if (this.condition instanceof DaysCondition) {
-			DaysCondition c = (DaysCondition) this.condition;
-			return c.include((Integer) this.value, (Calendar) taskValue);
-		} else if (this.condition instanceof EnumCondition) {
-			EnumCondition c = (EnumCondition) this.condition;
-			return c.include((Enum<?>) this.value, (Enum<?>) taskValue);
-		} else if (this.condition instanceof ModelCondition) {
-			ModelCondition c = (ModelCondition) this.condition;
-			return c.include((Model) this.value, (Model) taskValue);
-		} else if (this.condition instanceof NumberCondition) {
-			NumberCondition c = (NumberCondition) this.condition;
-			return c.include((Number) this.value, (Number) taskValue);
-		} else if (this.condition instanceof StringCondition) {
-			StringCondition c = (StringCondition) this.condition;
-			return c.include((String) this.value, taskValue);
+		if (compiledCondition == null) {
+			compiledCondition = ((Condition<Object, Object>) this.condition).compile(this.value);
+			this.compiledCondition = compiledCondition;
 		}
 		
-		return false;
+		return compiledCondition;
+	}
+	
+	public boolean include(M model) {
+		return this.getCompiledCondition().include(
+				this.property.getProperty(model));
 	}
 	
 	@Override
@@ -33,20 +33,26 @@
 package com.leclercb.taskunifier.gui.api.searchers.filters;
 
 import java.util.Calendar;
+import java.util.Set;
 
 import com.leclercb.commons.api.utils.DateUtils;
 import com.leclercb.taskunifier.api.models.Task;
 import com.leclercb.taskunifier.api.models.enums.TaskPriority;
 import com.leclercb.taskunifier.api.models.enums.TaskRepeatFrom;
 import com.leclercb.taskunifier.api.models.enums.TaskStatus;
+import com.leclercb.taskunifier.api.models.utils.TaskTagList;
+import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.CompiledDateCondition;
 import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.Condition;
 import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.DaysCondition;
+import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.StringCondition;
 import com.leclercb.taskunifier.gui.commons.values.StringValueCalendar;
 import com.leclercb.taskunifier.gui.components.tasks.TaskColumn;
 import com.leclercb.taskunifier.gui.translations.TranslationsUtils;
 
 public class TaskFilterElement extends FilterElement<Task, TaskColumn, TaskFilter> implements Cloneable {
 	
+	private volatile TaggedTasks taggedTasks;
+	
 	public TaskFilterElement(
 			TaskColumn property,
 			Condition<?, ?> condition,
@@ -54,6 +60,97 @@ public class TaskFilterElement extends FilterElement<Task, TaskColumn, TaskFilte
 		super(property, condition, value);
 	}
 	
+	@Override
+	public boolean include(Task task) {
+		if (this.getProperty() == TaskColumn.TAGS
+				&& task.getModelStatus().isEndUserStatus()) {
+			Set<Task> tasks = this.getTaggedTasks();
+			
+			if (tasks != null) {
+				if (this.getCondition() == StringCondition.CONTAINS)
+					return tasks.contains(task);
+				else
+					return !tasks.contains(task);
+			}
+		}
+		
+		if (this.isTextSearch()) {
+			String value = (this.getValue() == null ? "" : this.getValue().toString());
+			
+			boolean contains = TaskTextIndex.getInstance().contains(
+					task,
+					this.getProperty(),
+					value);
+			
+			if (this.getCondition() == StringCondition.CONTAINS)
+				return contains;
+			else
+				return !contains;
+		}
+		
+		if (this.getProperty().getType() == Calendar.class) {
+			Object condition = this.getCompiledCondition();
+			
+			if (condition instanceof CompiledDateCondition)
+				return ((CompiledDateCondition) condition).includeMillis(this.getProperty().getPropertyMillis(
+						task));
+		}
+		
+		return super.include(task);
+	}
+	
+	/**
+	 * Returns true if this element searches the title or the note of the
+	 * tasks, which can be done with the {@link TaskTextIndex}.
+	 */
+	private boolean isTextSearch() {
+		if (this.getProperty() != TaskColumn.TITLE
+				&& this.getProperty() != TaskColumn.NOTE)
+			return false;
+		
+		return this.getCondition() == StringCondition.CONTAINS
+				|| this.getCondition() == StringCondition.DOES_NOT_CONTAIN;
+	}
+	
+	/**
+	 * Returns the tasks with a tag containing the value of this element, as
+	 * found in the {@link TaskTagList}. Returns null if the condition cannot
+	 * be evaluated with the tag index.
+	 */
+	private Set<Task> getTaggedTasks() {
+		if (this.getCondition() != StringCondition.CONTAINS
+				&& this.getCondition() != StringCondition.DOES_NOT_CONTAIN)
+			return null;
+		
+		if (!(this.getValue() instanceof String))
+			return null;
+		
+		String value = (String) this.getValue();
+		
+		// The value could match the separator between two tags
+		if (value.length() == 0
+				|| value.indexOf(',') != -1
+				|| !value.equals(value.trim()))
+			return null;
+		
+		TaskTagList tagList = TaskTagList.getInstance();
+		long modificationCount = tagList.getModificationCount();
+		
+		TaggedTasks taggedTasks = this.taggedTasks;
+		
+		if (taggedTasks == null
+				|| taggedTasks.modificationCount != modificationCount
+				|| !taggedTasks.value.equals(value)) {
+			taggedTasks = new TaggedTasks(
+					value,
+					modificationCount,
+					tagList.getTasksWithTagContaining(value));
+			this.taggedTasks = taggedTasks;
+		}
+		
+		return taggedTasks.tasks;
+	}
+	
 	@Override
 	public TaskFilterElement clone() {
 		return new TaskFilterElement(
@@ -142,4 +239,18 @@ public class TaskFilterElement extends FilterElement<Task, TaskColumn, TaskFilte
 		return str + "\"";
 	}
 	
+	private static class TaggedTasks {
+		
+		private String value;
+		private long modificationCount;
+		private Set<Task> tasks;
+		
+		public TaggedTasks(String value, long modificationCount, Set<Task> tasks) {
+			this.value = value;
+			this.modificationCount = modificationCount;
+			this.tasks = tasks;
+		}
+		
+	}
+	
 }
@@ -0,0 +1,272 @@
+/*
+ * TaskUnifier
+ * Copyright (c) 2011, Benjamin Leclerc
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ *   - Neither the name of TaskUnifier or the names of its
+ *     contributors may be used to endorse or promote products derived
+ *     from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.leclercb.taskunifier.gui.api.searchers.filters;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.leclercb.commons.api.event.listchange.ListChangeEvent;
+import com.leclercb.commons.api.event.listchange.ListChangeListener;
+import com.leclercb.taskunifier.api.models.Model;
+import com.leclercb.taskunifier.api.models.ModelNote;
+import com.leclercb.taskunifier.api.models.Task;
+import com.leclercb.taskunifier.api.models.TaskFactory;
+import com.leclercb.taskunifier.gui.components.tasks.TaskColumn;
+
+/**
+ * Index of the words found in the title and in the note of the tasks. A
+ * "contains" search only compares the tasks using a word matching each word
+ * of the searched value, against a lower case copy of their text kept by the
+ * index. The index is updated lazily, when it is used after a change.
+ */
+final class TaskTextIndex implements ListChangeListener, PropertyChangeListener {
+	
+	private static TaskTextIndex INSTANCE;
+	
+	public static synchronized TaskTextIndex getInstance() {
+		if (INSTANCE == null)
+			INSTANCE = new TaskTextIndex();
+		
+		return INSTANCE;
+	}
+	
+	private Map<Task, Entry> entries;
+	private Map<String, Set<Task>> tasksByWord;
+	private Set<Task> dirtyTasks;
+	
+	private long version;
+	
+	private String candidatesValue;
+	private long candidatesVersion;
+	private Set<Task> candidates;
+	
+	private TaskTextIndex() {
+		this.entries = new IdentityHashMap<Task, Entry>();
+		this.tasksByWord = new HashMap<String, Set<Task>>();
+		this.dirtyTasks = Collections.newSetFromMap(new IdentityHashMap<Task, Boolean>());
+		
+		this.version = 0;
+		
+		synchronized (this) {
+			this.dirtyTasks.addAll(TaskFactory.getInstance().getList());
+			
+			TaskFactory.getInstance().addListChangeListener(this);
+			TaskFactory.getInstance().addPropertyChangeListener(this);
+		}
+	}
+	
+	/**
+	 * Returns true if the value of the column (title or note) of the task
+	 * contains the given value, ignoring case.
+	 */
+	public synchronized boolean contains(
+			Task task,
+			TaskColumn column,
+			String value) {
+		this.update();
+		
+		String lowerCaseValue = value.toLowerCase();
+		Entry entry = this.entries.get(task);
+		
+		if (entry == null)
+			return getLowerCaseText(task, column).contains(lowerCaseValue);
+		
+		Set<Task> candidates = this.getCandidates(lowerCaseValue);
+		
+		if (candidates != null && !candidates.contains(task))
+			return false;
+		
+		if (column == TaskColumn.TITLE)
+			return entry.title.contains(lowerCaseValue);
+		else
+			return entry.note.contains(lowerCaseValue);
+	}
+	
+	/**
+	 * Returns the tasks using, for each word of the value, a word containing
+	 * it. Returns null if the value does not contain any word.
+	 */
+	private Set<Task> getCandidates(String value) {
+		if (value.equals(this.candidatesValue)
+				&& this.version == this.candidatesVersion)
+			return this.candidates;
+		
+		Set<Task> candidates = null;
+		
+		for (String part : getWords(value)) {
+			Set<Task> tasks = Collections.newSetFromMap(new IdentityHashMap<Task, Boolean>());
+			
+			for (Map.Entry<String, Set<Task>> word : this.tasksByWord.entrySet())
+				if (word.getKey().contains(part))
+					tasks.addAll(word.getValue());
+			
+			if (candidates == null)
+				candidates = tasks;
+			else
+				candidates.retainAll(tasks);
+		}
+		
+		this.candidatesValue = value;
+		this.candidatesVersion = this.version;
+		this.candidates = candidates;
+		
+		return candidates;
+	}
+	
+	private void update() {
+		if (this.dirtyTasks.isEmpty())
+			return;
+		
+		for (Task task : this.dirtyTasks) {
+			this.remove(task);
+			
+			Entry entry = new Entry(
+					getLowerCaseText(task, TaskColumn.TITLE),
+					getLowerCaseText(task, TaskColumn.NOTE));
+			
+			Set<String> words = new LinkedHashSet<String>();
+			words.addAll(getWords(entry.title));
+			words.addAll(getWords(entry.note));
+			entry.words = words.toArray(new String[0]);
+			
+			for (String word : entry.words) {
+				Set<Task> tasks = this.tasksByWord.get(word);
+				
+				if (tasks == null) {
+					tasks = Collections.newSetFromMap(new IdentityHashMap<Task, Boolean>());
+					this.tasksByWord.put(word, tasks);
+				}
+				
+				tasks.add(task);
+			}
+			
+			this.entries.put(task, entry);
+		}
+		
+		this.dirtyTasks.clear();
+		this.version++;
+	}
+	
+	private void remove(Task task) {
+		Entry entry = this.entries.remove(task);
+		
+		if (entry == null)
+			return;
+		
+		for (String word : entry.words) {
+			Set<Task> tasks = this.tasksByWord.get(word);
+			
+			if (tasks == null)
+				continue;
+			
+			tasks.remove(task);
+			
+			if (tasks.isEmpty())
+				this.tasksByWord.remove(word);
+		}
+		
+		this.version++;
+	}
+	
+	@Override
+	public synchronized void listChange(ListChangeEvent event) {
+		Task task = (Task) event.getValue();
+		
+		if (event.getChangeType() == ListChangeEvent.VALUE_ADDED) {
+			this.dirtyTasks.add(task);
+		} else if (event.getChangeType() == ListChangeEvent.VALUE_REMOVED) {
+			this.dirtyTasks.remove(task);
+			this.remove(task);
+		}
+	}
+	
+	@Override
+	public synchronized void propertyChange(PropertyChangeEvent event) {
+		if (event.getPropertyName().equals(Model.PROP_TITLE)
+				|| event.getPropertyName().equals(ModelNote.PROP_NOTE))
+			this.dirtyTasks.add((Task) event.getSource());
+	}
+	
+	private static String getLowerCaseText(Task task, TaskColumn column) {
+		Object value = column.getProperty(task);
+		
+		if (value == null)
+			return "";
+		
+		return value.toString().toLowerCase();
+	}
+	
+	/**
+	 * Returns the sequences of letters and digits of the given text.
+	 */
+	private static List<String> getWords(String text) {
+		List<String> words = new ArrayList<String>();
+		
+		int start = -1;
+		for (int i = 0; i <= text.length(); i++) {
+			boolean letter = i < text.length()
+					&& Character.isLetterOrDigit(text.charAt(i));
+			
+			if (letter && start == -1) {
+				start = i;
+			} else if (!letter && start != -1) {
+				words.add(text.substring(start, i));
+				start = -1;
+			}
+		}
+		
+		return words;
+	}
+	
+	private static class Entry {
+		
+		private String title;
+		private String note;
+		private String[] words;
+		
+		public Entry(String title, String note) {
+			this.title = title;
+			this.note = note;
+		}
+		
+	}
+	
+}
@@ -34,6 +34,8 @@ package com.leclercb.taskunifier.gui.api.searchers.filters.conditions;
 
 import java.util.Calendar;
 
+import com.leclercb.commons.api.utils.DateUtils;
+
 public enum CalendarCondition implements Condition<Calendar, Calendar> {
 	
 	AFTER,
@@ -81,4 +83,40 @@ public enum CalendarCondition implements Condition<Calendar, Calendar> {
 		return false;
 	}
 	
+	@Override
+	public CompiledCondition<Calendar> compile(final Calendar value) {
+		final long millis = DateUtils.getTimeInMillis(value);
+		
+		return new CompiledDateCondition() {
+			
+			@Override
+			public int getCost() {
+				return COST_LOW;
+			}
+			
+			@Override
+			public boolean include(Calendar taskValue) {
+				return CalendarCondition.this.include(value, taskValue);
+			}
+			
+			@Override
+			public boolean includeMillis(long taskValue) {
+				if (millis == DateUtils.NO_DATE
+						|| taskValue == DateUtils.NO_DATE
+						|| CalendarCondition.this == EQUALS)
+					return this.include(DateUtils.getCalendar(taskValue));
+				
+				switch (CalendarCondition.this) {
+					case AFTER:
+						return taskValue > millis;
+					case BEFORE:
+						return taskValue < millis;
+					default:
+						return false;
+				}
+			}
+			
+		};
+	}
+	
 }
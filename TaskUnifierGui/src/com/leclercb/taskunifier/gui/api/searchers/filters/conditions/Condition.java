@@ -42,4 +42,6 @@ public interface Condition<ValueType, TaskValueType> {
 	
 	public abstract boolean include(ValueType value, TaskValueType taskValue);
 	
+	public abstract CompiledCondition<TaskValueType> compile(ValueType value);
+	
 }
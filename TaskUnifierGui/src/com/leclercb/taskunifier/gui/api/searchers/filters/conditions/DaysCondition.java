@@ -33,6 +33,7 @@
 package com.leclercb.taskunifier.gui.api.searchers.filters.conditions;
 
 import java.util.Calendar;
+import java.util.TimeZone;
 
 import com.leclercb.commons.api.utils.DateUtils;
 
@@ -127,4 +128,155 @@ public enum DaysCondition implements Condition<Integer, Calendar> {
 		return false;
 	}
 	
+	@Override
+	public CompiledCondition<Calendar> compile(Integer value) {
+		return new CompiledDaysCondition(this, value);
+	}
+	
+	/**
+	 * Computes the same differences as {@link DateUtils} from day numbers
+	 * instead of cloned calendars. The values depending on the current date
+	 * are computed once per day.
+	 */
+	private static class CompiledDaysCondition implements CompiledDateCondition {
+		
+		private static final long DAY = 24 * 60 * 60 * 1000;
+		
+		private DaysCondition condition;
+		private Integer value;
+		private boolean useTime;
+		
+		private long nextDay;
+		private TimeZone timeZone;
+		private int firstDayOfWeek;
+		private long today;
+		private long week;
+		private int month;
+		private Calendar calendar;
+		
+		public CompiledDaysCondition(DaysCondition condition, Integer value) {
+			this.condition = condition;
+			this.value = value;
+			this.useTime = (condition == GREATER_THAN_USING_TIME || condition == LESS_THAN_USING_TIME);
+			
+			this.nextDay = Long.MIN_VALUE;
+		}
+		
+		@Override
+		public int getCost() {
+			return COST_MEDIUM;
+		}
+		
+		@Override
+		public boolean include(Calendar taskValue) {
+			return this.includeMillis(DateUtils.getTimeInMillis(taskValue));
+		}
+		
+		@Override
+		public synchronized boolean includeMillis(long millis) {
+			if (this.value == null || millis == DateUtils.NO_DATE)
+				return this.condition.include(
+						this.value,
+						DateUtils.getCalendar(millis));
+			
+			int value = this.value;
+			long now = System.currentTimeMillis();
+			
+			if (now >= this.nextDay)
+				this.initialize(now);
+			
+			switch (this.condition) {
+				case WEEK_EQUALS:
+					return this.getDiffInWeeks(millis) == value;
+				case MONTH_EQUALS:
+					return this.getDiffInMonths(millis) == value;
+				case WEEK_NOT_EQUALS:
+					return this.getDiffInWeeks(millis) != value;
+				case MONTH_NOT_EQUALS:
+					return this.getDiffInMonths(millis) != value;
+				default:
+					break;
+			}
+			
+			double diffDays;
+			
+			if (this.useTime)
+				diffDays = (millis - now) / (double) DAY;
+			else
+				diffDays = this.getDayNumber(millis) - this.today;
+			
+			switch (this.condition) {
+				case EQUALS:
+					return diffDays == value;
+				case GREATER_THAN:
+					return diffDays > value;
+				case GREATER_THAN_OR_EQUALS:
+				case GREATER_THAN_USING_TIME:
+					return diffDays >= value;
+				case LESS_THAN:
+					return diffDays < value;
+				case LESS_THAN_OR_EQUALS:
+				case LESS_THAN_USING_TIME:
+					return diffDays <= value;
+				case NOT_EQUALS:
+					return diffDays != value;
+				default:
+					return false;
+			}
+		}
+		
+		private void initialize(long now) {
+			this.calendar = Calendar.getInstance();
+			this.calendar.setTimeInMillis(now);
+			
+			this.timeZone = this.calendar.getTimeZone();
+			this.firstDayOfWeek = this.calendar.getFirstDayOfWeek();
+			
+			this.today = this.getDayNumber(now);
+			this.week = this.getFirstDayOfWeek(this.today);
+			this.month = this.getMonthNumber(now);
+			
+			Calendar nextDay = Calendar.getInstance();
+			nextDay.setTimeInMillis(now);
+			DateUtils.removeTime(nextDay);
+			nextDay.add(Calendar.DAY_OF_MONTH, 1);
+			
+			this.nextDay = nextDay.getTimeInMillis();
+		}
+		
+		private long getDayNumber(long millis) {
+			return DateUtils.getDayNumber(millis, this.timeZone);
+		}
+		
+		/**
+		 * Same computation as {@link DateUtils#goToFirstDayOfWeek(Calendar)}.
+		 */
+		private long getFirstDayOfWeek(long day) {
+			// 1970-01-01 is a thursday
+			int dayOfWeek = (int) (((day + 4) % 7 + 7) % 7) + Calendar.SUNDAY;
+			int r = dayOfWeek - this.firstDayOfWeek;
+			
+			if (r < 0)
+				r = 7 - r;
+			
+			return day - r;
+		}
+		
+		private int getMonthNumber(long millis) {
+			this.calendar.setTimeInMillis(millis);
+			return this.calendar.get(Calendar.YEAR) * 12
+					+ this.calendar.get(Calendar.MONTH);
+		}
+		
+		private int getDiffInWeeks(long millis) {
+			long week = this.getFirstDayOfWeek(this.getDayNumber(millis));
+			return (int) Math.round((week - this.week) / 7.0);
+		}
+		
+		private int getDiffInMonths(long millis) {
+			return this.getMonthNumber(millis) - this.month;
+		}
+		
+	}
+	
 }
@@ -93,4 +93,21 @@ public enum EnumCondition implements Condition<Enum<?>, Enum<?>> {
 		return false;
 	}
 	
+	@Override
+	public CompiledCondition<Enum<?>> compile(final Enum<?> value) {
+		return new CompiledCondition<Enum<?>>() {
+			
+			@Override
+			public int getCost() {
+				return COST_LOW;
+			}
+			
+			@Override
+			public boolean include(Enum<?> taskValue) {
+				return EnumCondition.this.include(value, taskValue);
+			}
+			
+		};
+	}
+	
 }
@@ -84,4 +84,21 @@ public enum ModelCondition implements Condition<Model, Model> {
 		return false;
 	}
 	
+	@Override
+	public CompiledCondition<Model> compile(final Model value) {
+		return new CompiledCondition<Model>() {
+			
+			@Override
+			public int getCost() {
+				return COST_LOW;
+			}
+			
+			@Override
+			public boolean include(Model taskValue) {
+				return ModelCondition.this.include(value, taskValue);
+			}
+			
+		};
+	}
+	
 }
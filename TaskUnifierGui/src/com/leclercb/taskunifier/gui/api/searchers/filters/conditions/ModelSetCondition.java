@@ -0,0 +1,103 @@
+/*
+ * TaskUnifier
+ * Copyright (c) 2011, Benjamin Leclerc
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ *   - Neither the name of TaskUnifier or the names of its
+ *     contributors may be used to endorse or promote products derived
+ *     from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.leclercb.taskunifier.gui.api.searchers.filters.conditions;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import com.leclercb.taskunifier.api.models.Model;
+import com.leclercb.taskunifier.api.models.ModelId;
+
+/**
+ * Checks if the ID of a model belongs to a set of model IDs. The value of the
+ * condition is a {@link Set} of {@link ModelId}.
+ */
+public enum ModelSetCondition implements Condition<Set<ModelId>, Model> {
+	
+	IN,
+	NOT_IN;
+	
+	private ModelSetCondition() {
+		
+	}
+	
+	@Override
+	public Class<?> getValueType() {
+		return Set.class;
+	}
+	
+	@Override
+	public Class<?> getModelValueType() {
+		return Model.class;
+	}
+	
+	@Override
+	public boolean include(Set<ModelId> value, Model taskValue) {
+		boolean in = false;
+		
+		if (value != null && taskValue != null)
+			in = value.contains(taskValue.getModelId());
+		
+		switch (this) {
+			case IN:
+				return in;
+			case NOT_IN:
+				return !in;
+		}
+		
+		return false;
+	}
+	
+	@Override
+	public CompiledCondition<Model> compile(Set<ModelId> value) {
+		final Set<ModelId> modelIds = new HashSet<ModelId>();
+		
+		if (value != null)
+			modelIds.addAll(value);
+		
+		return new CompiledCondition<Model>() {
+			
+			@Override
+			public int getCost() {
+				return COST_LOW;
+			}
+			
+			@Override
+			public boolean include(Model taskValue) {
+				return ModelSetCondition.this.include(modelIds, taskValue);
+			}
+			
+		};
+	}
+	
+}
@@ -93,4 +93,21 @@ public enum NumberCondition implements Condition<Number, Number> {
 		return false;
 	}
 	
+	@Override
+	public CompiledCondition<Number> compile(final Number value) {
+		return new CompiledCondition<Number>() {
+			
+			@Override
+			public int getCost() {
+				return COST_LOW;
+			}
+			
+			@Override
+			public boolean include(Number taskValue) {
+				return NumberCondition.this.include(value, taskValue);
+			}
+			
+		};
+	}
+	
 }
@@ -84,4 +84,46 @@ public enum StringCondition implements Condition<String, Object> {
 		return false;
 	}
 	
+	@Override
+	public CompiledCondition<Object> compile(String value) {
+		if (value == null)
+			value = "";
+		
+		final String string = value.toLowerCase();
+		
+		return new CompiledCondition<Object>() {
+			
+			@Override
+			public int getCost() {
+				return COST_HIGH;
+			}
+			
+			@Override
+			public boolean include(Object taskValue) {
+				if (taskValue == null)
+					taskValue = "";
+				
+				String taskString = taskValue.toString().toLowerCase();
+				
+				switch (StringCondition.this) {
+					case CONTAINS:
+						return taskString.contains(string);
+					case DOES_NOT_CONTAIN:
+						return !(taskString.contains(string));
+					case ENDS_WITH:
+						return taskString.endsWith(string);
+					case EQUALS:
+						return taskString.equals(string);
+					case NOT_EQUALS:
+						return !(taskString.equals(string));
+					case STARTS_WITH:
+						return taskString.startsWith(string);
+				}
+				
+				return false;
+			}
+			
+		};
+	}
+	
 }
@@ -59,6 +59,8 @@ public abstract class Sorter<M extends Model, MP extends ModelProperties<M>, SE
 	@XStreamAlias("element")
 	private List<SE> elements;
 	
+	private volatile long modificationCount;
+	
 	public Sorter() {
 		this.listChangeSupport = new ListChangeSupport(this);
 		this.propertyChangeSupport = new PropertyChangeSupport(this);
@@ -66,6 +68,14 @@ public abstract class Sorter<M extends Model, MP extends ModelProperties<M>, SE
 		this.elements = new ArrayList<SE>();
 	}
 	
+	/**
+	 * Returns a counter which is incremented each time an element is added,
+	 * removed or modified.
+	 */
+	public long getModificationCount() {
+		return this.modificationCount;
+	}
+	
 	public int getIndexOf(SE element) {
 		return this.elements.indexOf(element);
 	}
@@ -86,6 +96,7 @@ public abstract class Sorter<M extends Model, MP extends ModelProperties<M>, SE
 		CheckUtils.isNotNull(element);
 		this.elements.add(element);
 		element.addPropertyChangeListener(this);
+		this.modificationCount++;
 		int index = this.elements.indexOf(element);
 		this.listChangeSupport.fireListChange(
 				ListChangeEvent.VALUE_ADDED,
@@ -97,6 +108,7 @@ public abstract class Sorter<M extends Model, MP extends ModelProperties<M>, SE
 		CheckUtils.isNotNull(element);
 		this.elements.add(index, element);
 		element.addPropertyChangeListener(this);
+		this.modificationCount++;
 		this.listChangeSupport.fireListChange(
 				ListChangeEvent.VALUE_ADDED,
 				index,
@@ -109,6 +121,7 @@ public abstract class Sorter<M extends Model, MP extends ModelProperties<M>, SE
 		int index = this.elements.indexOf(element);
 		if (this.elements.remove(element)) {
 			element.removePropertyChangeListener(this);
+			this.modificationCount++;
 			this.listChangeSupport.fireListChange(
 					ListChangeEvent.VALUE_REMOVED,
 					index,
@@ -152,6 +165,7 @@ public abstract class Sorter<M extends Model, MP extends ModelProperties<M>, SE
 	
 	@Override
 	public void propertyChange(PropertyChangeEvent event) {
+		this.modificationCount++;
 		this.propertyChangeSupport.firePropertyChange(event);
 	}
 	
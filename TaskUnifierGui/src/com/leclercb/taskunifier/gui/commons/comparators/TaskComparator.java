@@ -32,36 +32,80 @@
  */
 package com.leclercb.taskunifier.gui.commons.comparators;
 
-import java.util.ArrayList;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.util.Calendar;
-import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.swing.SortOrder;
 
-import com.leclercb.commons.api.utils.CompareUtils;
-import com.leclercb.taskunifier.api.models.Context;
-import com.leclercb.taskunifier.api.models.Folder;
-import com.leclercb.taskunifier.api.models.Goal;
-import com.leclercb.taskunifier.api.models.Location;
+import com.leclercb.commons.api.utils.DateUtils;
+import com.leclercb.taskunifier.api.models.ContactFactory;
+import com.leclercb.taskunifier.api.models.ContextFactory;
+import com.leclercb.taskunifier.api.models.FolderFactory;
+import com.leclercb.taskunifier.api.models.GoalFactory;
+import com.leclercb.taskunifier.api.models.LocationFactory;
 import com.leclercb.taskunifier.api.models.Model;
 import com.leclercb.taskunifier.api.models.Task;
-import com.leclercb.taskunifier.api.models.Timer;
-import com.leclercb.taskunifier.api.models.enums.TaskPriority;
-import com.leclercb.taskunifier.api.models.enums.TaskRepeatFrom;
-import com.leclercb.taskunifier.api.models.enums.TaskStatus;
+import com.leclercb.taskunifier.api.models.TaskFactory;
 import com.leclercb.taskunifier.gui.api.searchers.sorters.TaskSorter;
 import com.leclercb.taskunifier.gui.api.searchers.sorters.TaskSorterElement;
 import com.leclercb.taskunifier.gui.components.tasks.TaskColumn;
 import com.leclercb.taskunifier.gui.main.Main;
+import com.leclercb.taskunifier.gui.settings.SettingKeys;
 
+/**
+ * Compares tasks according to a task sorter.
+ * 
+ * The values used to sort a task are extracted once and kept as sort keys
+ * (milliseconds for dates, ordinals for enums, case folded strings, titles
+ * for models and the path from the root task for indented tasks). The keys
+ * are extracted again when a task, a referenced model, the sorter or one of
+ * the settings they depend on has changed.
+ */
 public class TaskComparator implements Comparator<Task> {
 	
+	private static final Integer NOT_COMPARABLE = 0;
+	
 	private TaskSorter sorter;
 	
+	private volatile boolean indentSubtasks;
+	private volatile long settingsModificationCount;
+	
+	private TaskColumn[] columns;
+	private boolean[] ascending;
+	private Map<Task, TaskSortKey> sortKeys;
+	
+	private long modelModificationCount;
+	private long sorterModificationCount;
+	private long keysSettingsModificationCount;
+	private long keysMinute;
+	
 	public TaskComparator() {
 		this.sorter = null;
+		
+		this.indentSubtasks = Main.getSettings().getValue(
+				SettingKeys.TASK_INDENT_SUBTASKS);
+		
+		Main.getSettings().addPropertyChangeListener(
+				new PropertyChangeListener() {
+					
+					@Override
+					public void propertyChange(PropertyChangeEvent evt) {
+						if (evt.getPropertyName().equals("task.indent_subtasks")) {
+							TaskComparator.this.indentSubtasks = Main.getSettings().getValue(
+									SettingKeys.TASK_INDENT_SUBTASKS);
+							TaskComparator.this.settingsModificationCount++;
+						} else if (evt.getPropertyName().equals(
+								"date.use_due_time")) {
+							TaskComparator.this.settingsModificationCount++;
+						}
+					}
+					
+				});
 	}
 	
 	public TaskSorter getTaskSorter() {
@@ -70,6 +114,7 @@ public class TaskComparator implements Comparator<Task> {
 	
 	public void setTaskSorter(TaskSorter sorter) {
 		this.sorter = sorter;
+		this.sortKeys = null;
 	}
 	
 	@Override
@@ -77,119 +122,159 @@ public class TaskComparator implements Comparator<Task> {
 		if (this.sorter == null)
 			return 0;
 		
-		List<TaskSorterElement> sortElements = this.sorter.getElements();
+		this.checkSortKeys();
 		
-		for (TaskSorterElement element : sortElements) {
-			int result = this.compare(
-					element.getProperty(),
-					element.getSortOrder(),
-					task1,
-					task2);
+		TaskSortKey key1 = this.getSortKey(task1);
+		TaskSortKey key2 = this.getSortKey(task2);
+		
+		for (int i = 0; i < this.columns.length; i++) {
+			int result;
+			
+			if (this.indentSubtasks)
+				result = this.compareIndented(i, key1, key2);
+			else
+				result = this.compare(i, key1, key2);
 			
 			if (result != 0)
 				return result;
 		}
 		
-		int result = this.compare(
-				TaskColumn.MODEL_CREATION_DATE,
-				SortOrder.ASCENDING,
-				task1,
-				task2);
-		
-		if (result != 0)
-			return result;
-		
-		return this.compare(TaskColumn.MODEL, SortOrder.ASCENDING, task1, task2);
+		return 0;
 	}
 	
-	private int compare(
-			TaskColumn taskColumn,
-			SortOrder sortOrder,
-			Task task1,
-			Task task2) {
-		boolean indentSubtasks = Main.getSettings().getBooleanProperty(
-				"task.indent_subtasks");
-		
-		if (indentSubtasks)
-			return this.compareIndented(taskColumn, sortOrder, task1, task2);
-		else
-			return this.compareUnindented(taskColumn, sortOrder, task1, task2);
-	}
-	
-	private int compareUnindented(
-			TaskColumn taskColumn,
-			SortOrder sortOrder,
-			Task task1,
-			Task task2) {
-		Object o1 = taskColumn.getProperty(task1);
-		Object o2 = taskColumn.getProperty(task2);
-		
-		return this.compare(taskColumn, o1, o2, sortOrder);
+	/**
+	 * Discards the sort keys if a task, a referenced model, the sorter or a
+	 * setting has changed since they were extracted. The keys are also
+	 * discarded every minute because the importance depends on the current
+	 * time.
+	 */
+	private void checkSortKeys() {
+		long modelModificationCount = TaskFactory.getInstance().getModificationCount()
+				+ FolderFactory.getInstance().getModificationCount()
+				+ ContextFactory.getInstance().getModificationCount()
+				+ GoalFactory.getInstance().getModificationCount()
+				+ LocationFactory.getInstance().getModificationCount()
+				+ ContactFactory.getInstance().getModificationCount();
+		
+		long minute = System.currentTimeMillis() / 60000;
+		
+		if (this.sortKeys != null
+				&& this.modelModificationCount == modelModificationCount
+				&& this.sorterModificationCount == this.sorter.getModificationCount()
+				&& this.keysSettingsModificationCount == this.settingsModificationCount
+				&& this.keysMinute == minute)
+			return;
+		
+		this.modelModificationCount = modelModificationCount;
+		this.sorterModificationCount = this.sorter.getModificationCount();
+		this.keysSettingsModificationCount = this.settingsModificationCount;
+		this.keysMinute = minute;
+		
+		List<TaskSorterElement> sortElements = this.sorter.getElements();
+		
+		this.columns = new TaskColumn[sortElements.size() + 2];
+		this.ascending = new boolean[sortElements.size() + 2];
+		
+		for (int i = 0; i < sortElements.size(); i++) {
+			this.columns[i] = sortElements.get(i).getProperty();
+			this.ascending[i] = SortOrder.ASCENDING.equals(sortElements.get(
+					i).getSortOrder());
+		}
+		
+		this.columns[sortElements.size()] = TaskColumn.MODEL_CREATION_DATE;
+		this.ascending[sortElements.size()] = true;
+		
+		this.columns[sortElements.size() + 1] = TaskColumn.MODEL;
+		this.ascending[sortElements.size() + 1] = true;
+		
+		this.sortKeys = new IdentityHashMap<Task, TaskSortKey>();
 	}
 	
-	private int compareIndented(
-			TaskColumn taskColumn,
-			SortOrder sortOrder,
-			Task task1,
-			Task task2) {
-		Object o1 = taskColumn.getProperty(task1);
-		Object o2 = taskColumn.getProperty(task2);
+	private TaskSortKey getSortKey(Task task) {
+		TaskSortKey key = this.sortKeys.get(task);
+		
+		if (key != null)
+			return key;
+		
+		key = new TaskSortKey();
+		key.task = task;
+		
+		if (task.getParent() == null) {
+			key.path = new TaskSortKey[] { key };
+		} else {
+			TaskSortKey parentKey = this.getSortKey(task.getParent());
+			
+			key.path = new TaskSortKey[parentKey.path.length + 1];
+			System.arraycopy(
+					parentKey.path,
+					0,
+					key.path,
+					0,
+					parentKey.path.length);
+			key.path[parentKey.path.length] = key;
+		}
 		
-		int result = 0;
+		key.values = new Object[this.columns.length];
+		for (int i = 0; i < this.columns.length; i++)
+			key.values[i] = this.getSortValue(this.columns[i], task);
 		
-		List<Task> parents1 = new ArrayList<Task>(task1.getAllParents());
-		List<Task> parents2 = new ArrayList<Task>(task2.getAllParents());
+		this.sortKeys.put(task, key);
 		
-		if (task1.getParent() == null && task2.getParent() == null) {
+		return key;
+	}
+	
+	private int compareIndented(int index, TaskSortKey key1, TaskSortKey key2) {
+		TaskSortKey parent1 = key1.getParent();
+		TaskSortKey parent2 = key2.getParent();
+		
+		if (parent1 == null && parent2 == null) {
 			// If both tasks are parents, compare them
-			result = this.compare(taskColumn, o1, o2, sortOrder);
-		} else if (task1.getParent() != null
-				&& task2.getParent() != null
-				&& task1.getParent().equals(task2.getParent())) {
+			return this.compare(index, key1, key2);
+		}
+		
+		if (parent1 != null
+				&& parent2 != null
+				&& parent1.task.equals(parent2.task)) {
 			// If both tasks have the same parent, compare them
-			result = this.compare(taskColumn, o1, o2, sortOrder);
-		} else if (parents1.contains(task2)) {
+			return this.compare(index, key1, key2);
+		}
+		
+		if (key1.hasParent(key2.task)) {
 			// If a task is the child of the other task
-			result = 1;
-		} else if (parents2.contains(task1)) {
+			return 1;
+		}
+		
+		if (key2.hasParent(key1.task)) {
 			// If a task is the child of the other task
-			result = -1;
-		} else {
-			// Else, compare tasks with parent
-			parents1.add(0, task1);
-			parents2.add(0, task2);
+			return -1;
+		}
+		
+		// Else, compare tasks with parent
+		TaskSortKey[] path1 = key1.path;
+		TaskSortKey[] path2 = key2.path;
+		
+		int max = Math.max(path1.length, path2.length);
+		for (int i = 0; i < max; i++) {
+			if (i < path1.length)
+				key1 = path1[i];
 			
-			Collections.reverse(parents1);
-			Collections.reverse(parents2);
+			if (i < path2.length)
+				key2 = path2[i];
 			
-			int max = Math.max(parents1.size(), parents2.size());
-			for (int i = 0; i < max; i++) {
-				if (i < parents1.size())
-					task1 = parents1.get(i);
-				
-				if (i < parents2.size())
-					task2 = parents2.get(i);
-				
-				if (task1.equals(task2))
-					continue;
-				
-				Object newO1 = taskColumn.getProperty(task1);
-				Object newO2 = taskColumn.getProperty(task2);
-				
-				result = this.compare(taskColumn, newO1, newO2, sortOrder);
-				
-				break;
-			}
+			if (key1.task.equals(key2.task))
+				continue;
+			
+			return this.compare(index, key1, key2);
 		}
 		
-		return result;
+		return 0;
 	}
 	
-	private int compare(
-			TaskColumn column,
-			Object o1,
-			Object o2,
-			SortOrder sortOrder) {
+	@SuppressWarnings("unchecked")
+	private int compare(int index, TaskSortKey key1, TaskSortKey key2) {
+		Object o1 = key1.values[index];
+		Object o2 = key2.values[index];
+		
 		if (o1 == null && o2 == null)
 			return 0;
 		
@@ -199,183 +284,107 @@ public class TaskComparator implements Comparator<Task> {
 		if (o2 == null)
 			return -1;
 		
-		int result = 0;
+		int result = ((Comparable<Object>) o1).compareTo(o2);
+		
+		return (this.ascending[index] ? 1 : -1) * result;
+	}
+	
+	/**
+	 * Converts a property of a task into a value which orders the same way as
+	 * the property, but which can be compared cheaply. The dates are read in
+	 * milliseconds, without creating calendars.
+	 */
+	private Object getSortValue(TaskColumn column, Task task) {
+		if (column.getType() == Calendar.class) {
+			long millis = column.getPropertyMillis(task);
+			
+			if (millis == DateUtils.NO_DATE)
+				return null;
+			
+			if (column == TaskColumn.MODEL_CREATION_DATE
+					|| column == TaskColumn.MODEL_UPDATE_DATE)
+				return millis;
+			
+			// Ignore the seconds and the milliseconds
+			return millis - (millis % 60000 + 60000) % 60000;
+		}
+		
+		Object value = column.getProperty(task);
+		
+		if (value == null)
+			return null;
 		
 		switch (column) {
 			case MODEL:
-				result = CompareUtils.compare(
-						((Task) o1).getModelId(),
-						((Task) o2).getModelId());
-				break;
-			case MODEL_EDIT:
-				result = 0;
-				break;
-			case MODEL_CREATION_DATE:
-				result = this.compareCalendars(
-						(Calendar) o1,
-						(Calendar) o2,
-						true);
-				break;
-			case MODEL_UPDATE_DATE:
-				result = this.compareCalendars(
-						(Calendar) o1,
-						(Calendar) o2,
-						true);
-				break;
-			case SHOW_CHILDREN:
-				result = CompareUtils.compare((Boolean) o1, (Boolean) o2);
-				break;
+				return ((Task) value).getModelId();
 			case TITLE:
-				result = CompareUtils.compareStringIgnoreCase(
-						(String) o1,
-						(String) o2);
-				break;
-			case ORDER:
-				result = CompareUtils.compare((Integer) o1, (Integer) o2);
-				break;
 			case CONTACTS:
-				result = CompareUtils.compareStringIgnoreCase(
-						(String) o1,
-						(String) o2);
-				break;
 			case TASKS:
-				result = CompareUtils.compareStringIgnoreCase(
-						(String) o1,
-						(String) o2);
-				break;
 			case FILES:
-				result = CompareUtils.compareStringIgnoreCase(
-						(String) o1,
-						(String) o2);
-				break;
 			case TAGS:
-				result = CompareUtils.compareStringIgnoreCase(
-						(String) o1,
-						(String) o2);
-				break;
+			case REPEAT:
+			case NOTE:
+				return foldCase((String) value);
 			case FOLDER:
-				result = this.compareModels(((Folder) o1), ((Folder) o2));
-				break;
 			case CONTEXT:
-				result = this.compareModels(((Context) o1), ((Context) o2));
-				break;
 			case GOAL:
-				result = this.compareModels(((Goal) o1), ((Goal) o2));
-				break;
 			case LOCATION:
-				result = this.compareModels(((Location) o1), ((Location) o2));
-				break;
 			case PARENT:
-				result = this.compareModels(((Task) o1), ((Task) o2));
-				break;
+				return ((Model) value).getTitle();
+			case REPEAT_FROM:
+			case STATUS:
+			case PRIORITY:
+				return ((Enum<?>) value).ordinal();
+			case SHOW_CHILDREN:
+			case ORDER:
 			case PROGRESS:
-				result = CompareUtils.compare((Double) o1, (Double) o2);
-				break;
 			case COMPLETED:
-				result = CompareUtils.compare((Boolean) o1, (Boolean) o2);
-				break;
-			case COMPLETED_ON:
-				result = this.compareCalendars(
-						(Calendar) o1,
-						(Calendar) o2,
-						false);
-				break;
-			case DUE_DATE:
-				result = this.compareCalendars(
-						(Calendar) o1,
-						(Calendar) o2,
-						false);
-				break;
-			case START_DATE:
-				result = this.compareCalendars(
-						(Calendar) o1,
-						(Calendar) o2,
-						false);
-				break;
 			case DUE_DATE_REMINDER:
-				result = CompareUtils.compare((Integer) o1, (Integer) o2);
-				break;
 			case START_DATE_REMINDER:
-				result = CompareUtils.compare((Integer) o1, (Integer) o2);
-				break;
-			case REPEAT:
-				result = CompareUtils.compareStringIgnoreCase(
-						(String) o1,
-						(String) o2);
-				break;
-			case REPEAT_FROM:
-				result = CompareUtils.compare(
-						(TaskRepeatFrom) o1,
-						(TaskRepeatFrom) o2);
-				break;
-			case STATUS:
-				result = CompareUtils.compare((TaskStatus) o1, (TaskStatus) o2);
-				break;
 			case LENGTH:
-				result = CompareUtils.compare((Integer) o1, (Integer) o2);
-				break;
 			case TIMER:
-				result = CompareUtils.compare(((Timer) o1), ((Timer) o2));
-				break;
-			case PRIORITY:
-				result = CompareUtils.compare(
-						(TaskPriority) o1,
-						(TaskPriority) o2);
-				break;
 			case STAR:
-				result = CompareUtils.compare((Boolean) o1, (Boolean) o2);
-				break;
-			case NOTE:
-				result = CompareUtils.compareStringIgnoreCase(
-						(String) o1,
-						(String) o2);
-				break;
 			case IMPORTANCE:
-				result = CompareUtils.compare((Integer) o1, (Integer) o2);
-				break;
+				return value;
 			default:
-				result = 0;
-				break;
+				return NOT_COMPARABLE;
 		}
-		
-		return (sortOrder.equals(SortOrder.ASCENDING) ? 1 : -1) * result;
 	}
 	
-	private int compareModels(Model model1, Model model2) {
-		if (model1 == null && model2 == null)
-			return 0;
+	/**
+	 * Returns a string whose natural order is the order defined by
+	 * {@link String#compareToIgnoreCase(String)}.
+	 */
+	private static String foldCase(String s) {
+		char[] chars = s.toCharArray();
 		
-		if (model1 == null)
-			return 1;
-		
-		if (model2 == null)
-			return -1;
+		for (int i = 0; i < chars.length; i++)
+			chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
 		
-		return model1.getTitle().compareTo(model2.getTitle());
+		return new String(chars);
 	}
 	
-	private int compareCalendars(
-			Calendar calendar1,
-			Calendar calendar2,
-			boolean raw) {
-		if (calendar1 == null && calendar2 == null)
-			return 0;
+	private static class TaskSortKey {
 		
-		if (calendar1 == null)
-			return 1;
+		private Task task;
+		private TaskSortKey[] path;
+		private Object[] values;
 		
-		if (calendar2 == null)
-			return -1;
+		public TaskSortKey getParent() {
+			if (this.path.length < 2)
+				return null;
+			
+			return this.path[this.path.length - 2];
+		}
 		
-		if (!raw) {
-			calendar1.set(Calendar.SECOND, 0);
-			calendar1.set(Calendar.MILLISECOND, 0);
+		public boolean hasParent(Task task) {
+			for (int i = 0; i < this.path.length - 1; i++)
+				if (this.path[i].task.equals(task))
+					return true;
 			
-			calendar2.set(Calendar.SECOND, 0);
-			calendar2.set(Calendar.MILLISECOND, 0);
+			return false;
 		}
 		
-		return calendar1.compareTo(calendar2);
 	}
 	
 }
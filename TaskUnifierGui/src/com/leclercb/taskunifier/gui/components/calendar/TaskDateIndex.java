@@ -0,0 +1,186 @@
+package com.leclercb.taskunifier.gui.components.calendar;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.leclercb.commons.api.event.listchange.ListChangeEvent;
+import com.leclercb.commons.api.event.listchange.ListChangeListener;
+import com.leclercb.taskunifier.api.models.Task;
+import com.leclercb.taskunifier.api.models.TaskFactory;
+
+/**
+ * Index of the events of a tasks calendar sorted by start date. Only the
+ * tasks whose event overlaps a date range are returned, instead of scanning
+ * every task. The index is updated lazily, when it is used after a change.
+ */
+final class TaskDateIndex implements ListChangeListener, PropertyChangeListener {
+	
+	private TasksCalendar calendar;
+	private List<String> propertyNames;
+	
+	private Map<Task, Entry> entries;
+	private TreeMap<Long, Set<Task>> tasksByStart;
+	private Set<Task> dirtyTasks;
+	
+	private long maxDuration;
+	
+	public TaskDateIndex(TasksCalendar calendar, String... propertyNames) {
+		this.calendar = calendar;
+		this.propertyNames = Arrays.asList(propertyNames);
+		
+		this.entries = new IdentityHashMap<Task, Entry>();
+		this.tasksByStart = new TreeMap<Long, Set<Task>>();
+		this.dirtyTasks = Collections.newSetFromMap(new IdentityHashMap<Task, Boolean>());
+		
+		this.maxDuration = 0;
+		
+		synchronized (this) {
+			this.dirtyTasks.addAll(TaskFactory.getInstance().getList());
+			
+			TaskFactory.getInstance().addListChangeListener(this);
+			TaskFactory.getInstance().addPropertyChangeListener(this);
+		}
+	}
+	
+	/**
+	 * Returns the tasks whose event overlaps the given range. If from or to is
+	 * null, the range is not bounded on that side.
+	 */
+	public synchronized List<Task> getTasks(Date from, Date to) {
+		this.update();
+		
+		if (from != null && to != null
+				&& from.getTime() - this.maxDuration >= to.getTime())
+			return new ArrayList<Task>();
+		
+		Map<Long, Set<Task>> tasksByStart = this.tasksByStart;
+		
+		if (from != null && to != null)
+			tasksByStart = this.tasksByStart.subMap(
+					from.getTime() - this.maxDuration,
+					to.getTime());
+		else if (from != null)
+			tasksByStart = this.tasksByStart.tailMap(from.getTime()
+					- this.maxDuration);
+		else if (to != null)
+			tasksByStart = this.tasksByStart.headMap(to.getTime());
+		
+		List<Task> tasks = new ArrayList<Task>();
+		
+		for (Set<Task> startTasks : tasksByStart.values()) {
+			for (Task task : startTasks) {
+				if (from != null
+						&& this.entries.get(task).end <= from.getTime())
+					continue;
+				
+				tasks.add(task);
+			}
+		}
+		
+		return tasks;
+	}
+	
+	/**
+	 * Marks every task to be indexed again. Must be called when a setting
+	 * used to compute the events changes.
+	 */
+	public synchronized void invalidate() {
+		this.entries.clear();
+		this.tasksByStart.clear();
+		this.dirtyTasks.clear();
+		this.dirtyTasks.addAll(TaskFactory.getInstance().getList());
+		
+		this.maxDuration = 0;
+	}
+	
+	private void update() {
+		if (this.dirtyTasks.isEmpty())
+			return;
+		
+		for (Task task : this.dirtyTasks) {
+			this.remove(task);
+			
+			Date[] dates = this.calendar.getEventDates(task);
+			
+			if (dates == null)
+				continue;
+			
+			Entry entry = new Entry(
+					dates[0].getTime(),
+					dates[1].getTime());
+			
+			Set<Task> tasks = this.tasksByStart.get(entry.start);
+			
+			if (tasks == null) {
+				tasks = Collections.newSetFromMap(new IdentityHashMap<Task, Boolean>());
+				this.tasksByStart.put(entry.start, tasks);
+			}
+			
+			tasks.add(task);
+			
+			this.entries.put(task, entry);
+			this.maxDuration = Math.max(
+					this.maxDuration,
+					entry.end - entry.start);
+		}
+		
+		this.dirtyTasks.clear();
+	}
+	
+	private void remove(Task task) {
+		Entry entry = this.entries.remove(task);
+		
+		if (entry == null)
+			return;
+		
+		Set<Task> tasks = this.tasksByStart.get(entry.start);
+		
+		if (tasks == null)
+			return;
+		
+		tasks.remove(task);
+		
+		if (tasks.isEmpty())
+			this.tasksByStart.remove(entry.start);
+	}
+	
+	@Override
+	public synchronized void listChange(ListChangeEvent event) {
+		Task task = (Task) event.getValue();
+		
+		if (event.getChangeType() == ListChangeEvent.VALUE_ADDED) {
+			this.dirtyTasks.add(task);
+		} else if (event.getChangeType() == ListChangeEvent.VALUE_REMOVED) {
+			this.dirtyTasks.remove(task);
+			this.remove(task);
+		}
+	}
+	
+	@Override
+	public synchronized void propertyChange(PropertyChangeEvent event) {
+		if (this.propertyNames.contains(event.getPropertyName()))
+			this.dirtyTasks.add((Task) event.getSource());
+	}
+	
+	private static class Entry {
+		
+		private long start;
+		private long end;
+		
+		public Entry(long start, long end) {
+			this.start = start;
+			this.end = end;
+		}
+		
+	}
+	
+}
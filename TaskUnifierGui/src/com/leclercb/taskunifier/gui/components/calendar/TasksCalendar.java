@@ -32,6 +32,12 @@ public abstract class TasksCalendar extends NamedCalendar {
 			boolean showCompletedTasks,
 			TaskSearcher searcher);
 	
+	/**
+	 * Returns the start and the end of the event of the task, or null if the
+	 * task has no event in this calendar.
+	 */
+	abstract Date[] getEventDates(Task task);
+	
 	public abstract void newEvent(DateInterval interval) throws Exception;
 	
 	public abstract void moved(Event event, Date orgDate, Date newDate)
@@ -17,6 +17,7 @@ import javax.swing.JPanel;
 
 import lu.tudor.santec.bizcal.EventModel;
 import lu.tudor.santec.bizcal.NamedCalendar;
+import lu.tudor.santec.bizcal.listeners.DateListener;
 import lu.tudor.santec.bizcal.listeners.NamedCalendarListener;
 import lu.tudor.santec.bizcal.resources.BizCalTranslations;
 import lu.tudor.santec.bizcal.util.ObservableEventList;
@@ -51,6 +52,10 @@ public class TasksCalendarPanel extends JPanel implements TaskCalendarView, Save
 	private ModelSelectionChangeSupport modelSelectionChangeSupport;
 	
 	private ObservableEventList eventDataList;
+	private EventModel[] eventModels;
+	
+	private Date eventsFrom;
+	private Date eventsTo;
 	
 	private DayViewPanel dayViewPanel;
 	private DayViewPanel weekViewPanel;
@@ -124,6 +129,12 @@ public class TasksCalendarPanel extends JPanel implements TaskCalendarView, Save
 				this.eventDataList,
 				EventModel.TYPE_MONTH);
 		
+		this.eventModels = new EventModel[] {
+				dayModel,
+				weekModel,
+				listModel,
+				monthModel };
+		
 		this.dayViewPanel = new DayViewPanel(dayModel, config);
 		this.weekViewPanel = new DayViewPanel(weekModel, config);
 		this.listViewPanel = new WeekListViewPanel(listModel, config);
@@ -176,6 +187,23 @@ public class TasksCalendarPanel extends JPanel implements TaskCalendarView, Save
 		if (!foundSelected)
 			this.calendarPanel.setSelectedCalendar(this.tasksCalendars[1]);
 		
+		this.calendarPanel.addDateListener(new DateListener() {
+			
+			@Override
+			public void dateChanged(Date date) {
+				if (TasksCalendarPanel.this.eventsFrom == null)
+					return;
+				
+				Date[] dates = TasksCalendarPanel.this.getDisplayedDates();
+				
+				if (dates == null
+						|| dates[0].before(TasksCalendarPanel.this.eventsFrom)
+						|| dates[1].after(TasksCalendarPanel.this.eventsTo))
+					TasksCalendarPanel.this.refreshTasks();
+			}
+			
+		});
+		
 		this.calendarPanel.addNamedCalendarListener(new NamedCalendarListener() {
 			
 			@Override
@@ -270,11 +298,18 @@ public class TasksCalendarPanel extends JPanel implements TaskCalendarView, Save
 		for (TasksCalendar calendar : this.tasksCalendars)
 			calendar.updateEvents(selected, searcher);
 		
+		Date[] dates = this.getDisplayedDates();
+		
+		this.eventsFrom = (dates == null ? null : dates[0]);
+		this.eventsTo = (dates == null ? null : dates[1]);
+		
 		List<Event> allActiveEvents = new ArrayList<Event>();
 		
 		for (NamedCalendar nc : this.calendarPanel.getCalendars()) {
 			if (nc.isActive())
-				allActiveEvents.addAll(nc.getEvents(null, null));
+				allActiveEvents.addAll(nc.getEvents(
+						this.eventsFrom,
+						this.eventsTo));
 		}
 		
 		Collections.sort(allActiveEvents);
@@ -298,6 +333,34 @@ public class TasksCalendarPanel extends JPanel implements TaskCalendarView, Save
 		this.eventDataList.addAll(allActiveEvents);
 	}
 	
+	/**
+	 * Returns the first and the last date displayed by the views, or null if
+	 * they are unknown.
+	 */
+	private Date[] getDisplayedDates() {
+		Date from = null;
+		Date to = null;
+		
+		try {
+			for (EventModel model : this.eventModels) {
+				DateInterval interval = model.getInterval();
+				
+				if (interval == null)
+					return null;
+				
+				if (from == null || interval.getStartDate().before(from))
+					from = interval.getStartDate();
+				
+				if (to == null || interval.getEndDate().after(to))
+					to = interval.getEndDate();
+			}
+		} catch (Exception e) {
+			return null;
+		}
+		
+		return new Date[] { from, to };
+	}
+	
 	@Override
 	public boolean shouldBeDisplayed(Task task) {
 		TaskSearcher searcher = this.calendarPanel.getTaskSearcherPanel().getSelectedTaskSearcher();
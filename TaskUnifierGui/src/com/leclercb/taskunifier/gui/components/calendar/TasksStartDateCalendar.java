@@ -1,5 +1,7 @@
 package com.leclercb.taskunifier.gui.components.calendar;
 
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
@@ -18,27 +20,84 @@ import com.leclercb.taskunifier.gui.api.searchers.TaskSearcher;
 import com.leclercb.taskunifier.gui.components.tasks.TaskColumn;
 import com.leclercb.taskunifier.gui.components.views.ViewUtils;
 import com.leclercb.taskunifier.gui.main.Main;
+import com.leclercb.taskunifier.gui.settings.SettingKeys;
 import com.leclercb.taskunifier.gui.translations.Translations;
 import com.leclercb.taskunifier.gui.utils.ImageUtils;
 import com.leclercb.taskunifier.gui.utils.TaskUtils;
 
 public class TasksStartDateCalendar extends TasksCalendar {
 	
-	private List<Event> events;
+	private TaskDateIndex index;
+	
+	private boolean showCompletedTasks;
+	private TaskSearcher searcher;
 	
 	public TasksStartDateCalendar() {
 		super(
 				Translations.getString("calendar.tasks_by_start_date"),
 				Translations.getString("calendar.tasks_by_start_date"),
 				null);
-		this.events = new ArrayList<Event>();
+		this.index = new TaskDateIndex(
+				this,
+				Task.PROP_START_DATE,
+				Task.PROP_LENGTH);
+		
+		PropertyChangeListener listener = new PropertyChangeListener() {
+			
+			@Override
+			public void propertyChange(PropertyChangeEvent evt) {
+				TasksStartDateCalendar.this.index.invalidate();
+			}
+			
+		};
+		
+		Main.getSettings().addPropertyChangeListener(
+				"date.use_start_time",
+				listener);
+		Main.getSettings().addPropertyChangeListener(
+				"date.day_start_hour",
+				listener);
 		
 		this.setId("tasksstartdatecalendar");
 	}
 	
 	@Override
 	public void updateEvents(boolean showCompletedTasks, TaskSearcher searcher) {
-		this.events.clear();
+		this.showCompletedTasks = showCompletedTasks;
+		this.searcher = searcher;
+	}
+	
+	@Override
+	Date[] getEventDates(Task task) {
+		if (task.getStartDate() == null)
+			return null;
+		
+		Calendar startDate = task.getStartDate();
+		
+		if (!Main.getSettings().getValue(SettingKeys.DATE_USE_START_TIME)) {
+			startDate.set(
+					Calendar.HOUR_OF_DAY,
+					Main.getSettings().getValue(
+							SettingKeys.DATE_DAY_START_HOUR));
+			startDate.set(Calendar.MINUTE, 0);
+			startDate.set(Calendar.SECOND, 0);
+			startDate.set(Calendar.MILLISECOND, 0);
+		}
+		
+		int length = task.getLength();
+		
+		if (length < 30)
+			length = 30;
+		
+		Calendar dueDate = DateUtils.cloneCalendar(startDate);
+		dueDate.add(Calendar.MINUTE, length);
+		
+		return new Date[] { startDate.getTime(), dueDate.getTime() };
+	}
+	
+	@Override
+	public List<Event> getEvents(Date from, Date to) {
+		List<Event> events = new ArrayList<Event>();
 		
 		List<TaskColumn> columns = new ArrayList<TaskColumn>(
 				Arrays.asList(ViewUtils.getMainTaskView().getTaskTableView().getTaskColumnsProperties().getVisibleTaskColumns()));
@@ -48,40 +107,24 @@ public class TasksStartDateCalendar extends TasksCalendar {
 		columns.remove(TaskColumn.ORDER);
 		TaskColumn[] c = columns.toArray(new TaskColumn[0]);
 		
-		List<Task> tasks = TaskFactory.getInstance().getList();
+		List<Task> tasks = this.index.getTasks(from, to);
 		for (Task task : tasks) {
 			if (!task.getModelStatus().isEndUserStatus())
 				continue;
 			
-			if (!showCompletedTasks && task.isCompleted())
+			if (!this.showCompletedTasks && task.isCompleted())
 				continue;
 			
-			if (task.getStartDate() == null)
+			if (this.searcher != null
+					&& !TaskUtils.showUnindentTask(
+							task,
+							this.searcher.getFilter()))
 				continue;
 			
-			if (searcher != null
-					&& !TaskUtils.showUnindentTask(task, searcher.getFilter()))
-				continue;
-			
-			Calendar startDate = task.getStartDate();
-			
-			if (!Main.getSettings().getBooleanProperty("date.use_start_time")) {
-				startDate.set(
-						Calendar.HOUR_OF_DAY,
-						Main.getSettings().getIntegerProperty(
-								"date.day_start_hour"));
-				startDate.set(Calendar.MINUTE, 0);
-				startDate.set(Calendar.SECOND, 0);
-				startDate.set(Calendar.MILLISECOND, 0);
-			}
-			
-			int length = task.getLength();
-			
-			if (length < 30)
-				length = 30;
+			Date[] dates = this.getEventDates(task);
 			
-			Calendar dueDate = DateUtils.cloneCalendar(startDate);
-			dueDate.add(Calendar.MINUTE, length);
+			if (dates == null)
+				continue;
 			
 			Event event = new Event();
 			event.setId(task.getModelId());
@@ -94,8 +137,8 @@ public class TasksStartDateCalendar extends TasksCalendar {
 					+ "</i><br />"
 					+ TaskUtils.toText(new Task[] { task }, c, true)
 					+ "</html>");
-			event.setStart(startDate.getTime());
-			event.setEnd(dueDate.getTime());
+			event.setStart(dates[0]);
+			event.setEnd(dates[1]);
 			event.setColor(Main.getSettings().getColorProperty(
 					"theme.color.importance." + TaskUtils.getImportance(task)));
 			
@@ -110,13 +153,10 @@ public class TasksStartDateCalendar extends TasksCalendar {
 						16,
 						16));
 			
-			this.events.add(event);
+			events.add(event);
 		}
-	}
-	
-	@Override
-	public List<Event> getEvents(Date from, Date to) {
-		return this.events;
+		
+		return events;
 	}
 	
 	@Override
@@ -42,6 +42,8 @@ import com.leclercb.commons.api.event.listchange.ListChangeListener;
 import com.leclercb.commons.api.utils.CheckUtils;
 import com.leclercb.commons.api.utils.EqualsUtils;
 import com.leclercb.taskunifier.api.models.Model;
+import com.leclercb.taskunifier.api.models.ModelBatchEvent;
+import com.leclercb.taskunifier.api.models.ModelBatchListener;
 import com.leclercb.taskunifier.api.models.ModelStatus;
 import com.leclercb.taskunifier.api.models.Note;
 import com.leclercb.taskunifier.api.models.NoteFactory;
@@ -49,7 +51,7 @@ import com.leclercb.taskunifier.gui.commons.undoableedit.NoteEditUndoableEdit;
 import com.leclercb.taskunifier.gui.components.notes.NoteColumn;
 import com.leclercb.taskunifier.gui.utils.UndoSupport;
 
-public class NoteTableModel extends AbstractTableModel implements ListChangeListener, PropertyChangeListener {
+public class NoteTableModel extends AbstractTableModel implements ListChangeListener, PropertyChangeListener, ModelBatchListener {
 	
 	private UndoSupport undoSupport;
 	
@@ -59,6 +61,7 @@ public class NoteTableModel extends AbstractTableModel implements ListChangeList
 		
 		NoteFactory.getInstance().addListChangeListener(this);
 		NoteFactory.getInstance().addPropertyChangeListener(this);
+		NoteFactory.getInstance().addModelBatchListener(this);
 	}
 	
 	public Note getNote(int row) {
@@ -119,6 +122,9 @@ public class NoteTableModel extends AbstractTableModel implements ListChangeList
 	
 	@Override
 	public void listChange(ListChangeEvent event) {
+		if (NoteFactory.getInstance().isBatching())
+			return;
+		
 		if (event.getChangeType() == ListChangeEvent.VALUE_ADDED) {
 			this.fireTableRowsInserted(event.getIndex(), event.getIndex());
 		} else if (event.getChangeType() == ListChangeEvent.VALUE_REMOVED) {
@@ -128,6 +134,9 @@ public class NoteTableModel extends AbstractTableModel implements ListChangeList
 	
 	@Override
 	public void propertyChange(PropertyChangeEvent event) {
+		if (NoteFactory.getInstance().isBatching())
+			return;
+		
 		if (event.getPropertyName().equals(Model.PROP_MODEL_STATUS)) {
 			ModelStatus oldStatus = (ModelStatus) event.getOldValue();
 			ModelStatus newStatus = (ModelStatus) event.getNewValue();
@@ -141,4 +150,14 @@ public class NoteTableModel extends AbstractTableModel implements ListChangeList
 		}
 	}
 	
+	@Override
+	public void batchEnded(ModelBatchEvent event) {
+		if (event.isListChanged()
+				|| event.getPropertyNames().contains(Model.PROP_MODEL_STATUS)) {
+			this.fireTableDataChanged();
+		} else if (this.getRowCount() != 0) {
+			this.fireTableRowsUpdated(0, this.getRowCount() - 1);
+		}
+	}
+	
 }
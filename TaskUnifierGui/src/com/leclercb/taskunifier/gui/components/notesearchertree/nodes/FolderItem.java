@@ -53,6 +53,7 @@ import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.ModelCondit
 import com.leclercb.taskunifier.gui.components.notes.NoteColumn;
 import com.leclercb.taskunifier.gui.constants.Constants;
 import com.leclercb.taskunifier.gui.main.Main;
+import com.leclercb.taskunifier.gui.settings.SettingKeys;
 import com.leclercb.taskunifier.gui.swing.TUColorBadgeIcon;
 import com.leclercb.taskunifier.gui.translations.Translations;
 import com.leclercb.taskunifier.gui.utils.NoteUtils;
@@ -142,7 +143,8 @@ public class FolderItem extends DefaultMutableTreeNode implements SearcherNode {
 	
 	@Override
 	public void updateBadgeCount() {
-		if (!Main.getSettings().getBooleanProperty("notesearcher.show_badges")) {
+		if (!Main.getSettings().getValue(
+				SettingKeys.NOTESEARCHER_SHOW_BADGES)) {
 			this.badgeCount = null;
 			return;
 		}
@@ -42,6 +42,7 @@ import com.leclercb.taskunifier.api.models.Note;
 import com.leclercb.taskunifier.api.models.NoteFactory;
 import com.leclercb.taskunifier.gui.api.searchers.NoteSearcher;
 import com.leclercb.taskunifier.gui.main.Main;
+import com.leclercb.taskunifier.gui.settings.SettingKeys;
 import com.leclercb.taskunifier.gui.utils.ImageUtils;
 import com.leclercb.taskunifier.gui.utils.NoteUtils;
 
@@ -77,7 +78,8 @@ public class SearcherItem extends DefaultMutableTreeNode implements SearcherNode
 	
 	@Override
 	public void updateBadgeCount() {
-		if (!Main.getSettings().getBooleanProperty("notesearcher.show_badges")) {
+		if (!Main.getSettings().getValue(
+				SettingKeys.NOTESEARCHER_SHOW_BADGES)) {
 			this.badgeCount = null;
 			return;
 		}
@@ -48,8 +48,12 @@ import com.leclercb.commons.api.progress.ProgressMessage;
 import com.leclercb.commons.api.progress.ProgressMonitor;
 import com.leclercb.commons.api.utils.CheckUtils;
 import com.leclercb.taskunifier.api.synchronizer.Connection;
+import com.leclercb.taskunifier.api.synchronizer.DetachedSynchronizer;
 import com.leclercb.taskunifier.api.synchronizer.Synchronizer;
+import com.leclercb.taskunifier.api.synchronizer.SynchronizerChangeSet;
+import com.leclercb.taskunifier.api.synchronizer.SynchronizerChangeSet.Change;
 import com.leclercb.taskunifier.api.synchronizer.SynchronizerChoice;
+import com.leclercb.taskunifier.api.synchronizer.SynchronizerSnapshot;
 import com.leclercb.taskunifier.api.synchronizer.exc.SynchronizerException;
 import com.leclercb.taskunifier.api.synchronizer.exc.SynchronizerSettingsException;
 import com.leclercb.taskunifier.api.synchronizer.progress.messages.SynchronizerDefaultProgressMessage;
@@ -77,6 +81,8 @@ public class SynchronizerWorker extends TUStopableWorker<Void> {
 	
 	private static int NO_LICENSE_COUNT = 0;
 	
+	private static final int CHANGE_BATCH_SIZE = 200;
+	
 	private List<SynchronizerGuiPlugin> plugins;
 	private List<Type> types;
 	private boolean silent;
@@ -251,7 +257,13 @@ public class SynchronizerWorker extends TUStopableWorker<Void> {
 					
 				});
 				
-				if (type == Type.PUBLISH) {
+				if (synchronizer instanceof DetachedSynchronizer) {
+					this.synchronizeDetached(
+							(DetachedSynchronizer) synchronizer,
+							type,
+							monitor,
+							plugin);
+				} else if (type == Type.PUBLISH) {
 					SwingUtilities.invokeAndWait(new Runnable() {
 						
 						@Override
@@ -267,9 +279,7 @@ public class SynchronizerWorker extends TUStopableWorker<Void> {
 						};
 						
 					});
-				}
-				
-				if (type == Type.SYNCHRONIZE) {
+				} else if (type == Type.SYNCHRONIZE) {
 					SwingUtilities.invokeAndWait(new Runnable() {
 						
 						@Override
@@ -326,6 +336,8 @@ public class SynchronizerWorker extends TUStopableWorker<Void> {
 	
 	@Override
 	protected void done() {
+		Constants.PROGRESS_MONITOR.flush();
+		
 		if (this.handler != null)
 			Constants.PROGRESS_MONITOR.removeListChangeListener(this.handler);
 		
@@ -340,6 +352,73 @@ public class SynchronizerWorker extends TUStopableWorker<Void> {
 		super.done();
 	}
 	
+	/**
+	 * Runs a detached synchronizer on the worker thread. The snapshot of the
+	 * models is taken and the returned changes are applied on the event
+	 * dispatch thread, by batches so that the user interface stays
+	 * responsive.
+	 */
+	private void synchronizeDetached(
+			DetachedSynchronizer synchronizer,
+			Type type,
+			ProgressMonitor monitor,
+			SynchronizerGuiPlugin plugin) throws Exception {
+		final SynchronizerSnapshot[] snapshot = new SynchronizerSnapshot[1];
+		
+		SwingUtilities.invokeAndWait(new Runnable() {
+			
+			@Override
+			public void run() {
+				snapshot[0] = SynchronizerSnapshot.create();
+			};
+			
+		});
+		
+		SynchronizerChangeSet changeSet = null;
+		
+		try {
+			if (type == Type.PUBLISH) {
+				changeSet = synchronizer.publish(snapshot[0], monitor);
+			} else {
+				SynchronizerChoice choice = Main.getUserSettings().getEnumProperty(
+						"synchronizer.choice",
+						SynchronizerChoice.class);
+				
+				changeSet = synchronizer.synchronize(
+						snapshot[0],
+						choice,
+						monitor);
+			}
+			
+			synchronizer.saveParameters(Main.getUserSettings());
+		} catch (SynchronizerException e) {
+			this.handleSynchronizerException(e, plugin);
+		}
+		
+		if (changeSet == null)
+			return;
+		
+		// The remote changes are done: the local changes are applied even if
+		// the worker is stopped
+		List<Change> changes = changeSet.getChanges();
+		
+		for (int i = 0; i < changes.size(); i += CHANGE_BATCH_SIZE) {
+			final List<Change> batch = changes.subList(
+					i,
+					Math.min(i + CHANGE_BATCH_SIZE, changes.size()));
+			
+			SwingUtilities.invokeAndWait(new Runnable() {
+				
+				@Override
+				public void run() {
+					for (Change change : batch)
+						change.apply(snapshot[0]);
+				};
+				
+			});
+		}
+	}
+	
 	private void handleSynchronizerException(
 			final SynchronizerException e,
 			final SynchronizerGuiPlugin plugin) {
@@ -34,6 +34,7 @@ package com.leclercb.taskunifier.gui.components.tasks;
 
 import java.util.Calendar;
 
+import com.leclercb.commons.api.utils.DateUtils;
 import com.leclercb.taskunifier.api.models.Context;
 import com.leclercb.taskunifier.api.models.Folder;
 import com.leclercb.taskunifier.api.models.Goal;
@@ -199,6 +200,31 @@ public enum TaskColumn implements ModelProperties<Task> {
 		}
 	}
 	
+	/**
+	 * Returns the value of a date column in milliseconds without creating a
+	 * calendar. Returns {@link DateUtils#NO_DATE} if the task has no such date
+	 * or if the column is not a date column.
+	 */
+	public long getPropertyMillis(Task task) {
+		if (task == null)
+			return DateUtils.NO_DATE;
+		
+		switch (this) {
+			case MODEL_CREATION_DATE:
+				return task.getModelCreationDateMillis();
+			case MODEL_UPDATE_DATE:
+				return task.getModelUpdateDateMillis();
+			case COMPLETED_ON:
+				return task.getCompletedOnMillis();
+			case DUE_DATE:
+				return task.getDueDateMillis();
+			case START_DATE:
+				return task.getStartDateMillis();
+			default:
+				return DateUtils.NO_DATE;
+		}
+	}
+	
 	@Override
 	public void setProperty(Task task, Object value) {
 		if (task == null)
@@ -0,0 +1,170 @@
+/*
+ * TaskUnifier
+ * Copyright (c) 2011, Benjamin Leclerc
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ *   - Neither the name of TaskUnifier or the names of its
+ *     contributors may be used to endorse or promote products derived
+ *     from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.leclercb.taskunifier.gui.components.tasks.table;
+
+import java.awt.Color;
+
+import com.leclercb.taskunifier.api.models.Task;
+import com.leclercb.taskunifier.gui.commons.values.StringValueTaskLength;
+import com.leclercb.taskunifier.gui.commons.values.StringValueTaskProgress;
+import com.leclercb.taskunifier.gui.main.Main;
+import com.leclercb.taskunifier.gui.settings.SettingKeys;
+import com.leclercb.taskunifier.gui.translations.Translations;
+import com.leclercb.taskunifier.gui.utils.SynchronizerUtils;
+import com.leclercb.taskunifier.gui.utils.TaskUtils;
+
+/**
+ * Values derived from a task which are displayed by the highlighters of the
+ * task table. They are computed once and shared by all the highlighters, see
+ * {@link TaskRowStateCache}.
+ */
+public final class TaskRowState {
+	
+	private boolean overDue;
+	private boolean dueToday;
+	private int importance;
+	private Color importanceColor;
+	private int nbParents;
+	private boolean repeatValid;
+	private String progressToolTip;
+	private String lengthToolTip;
+	
+	TaskRowState(Task task) {
+		boolean useDueTime = Main.getSettings().getValue(
+				SettingKeys.DATE_USE_DUE_TIME);
+		
+		this.overDue = task.isOverDue(!useDueTime);
+		this.dueToday = task.isDueToday(!useDueTime);
+		this.importance = TaskUtils.getImportance(task);
+		this.importanceColor = Main.getSettings().getColorProperty(
+				"theme.color.importance." + this.importance);
+		this.nbParents = task.getAllParents().size();
+		
+		if (task.getRepeat() == null)
+			this.repeatValid = true;
+		else
+			this.repeatValid = SynchronizerUtils.getSynchronizerPlugin().getSynchronizerApi().isValidRepeatValue(
+					task.getRepeat());
+		
+		this.initializeToolTips(task);
+	}
+	
+	private void initializeToolTips(Task task) {
+		int nbChildren = 0;
+		double progress = 0;
+		
+		boolean atLeastOneChild = false;
+		int length = task.getLength();
+		
+		for (Task child : task.getAllChildren()) {
+			if (!child.getModelStatus().isEndUserStatus())
+				continue;
+			
+			nbChildren++;
+			
+			if (child.isCompleted()) {
+				progress += 1;
+				continue;
+			}
+			
+			progress += child.getProgress();
+			
+			atLeastOneChild = true;
+			length += child.getLength();
+		}
+		
+		if (nbChildren > 0)
+			this.progressToolTip = String.format(
+					"%1s (%2s: %3s)",
+					StringValueTaskProgress.INSTANCE.getString(task.getProgress()),
+					Translations.getString("general.subtasks"),
+					StringValueTaskProgress.INSTANCE.getString(progress
+							/ nbChildren));
+		else
+			this.progressToolTip = StringValueTaskProgress.INSTANCE.getString(task.getProgress());
+		
+		if (atLeastOneChild)
+			this.lengthToolTip = String.format(
+					"%1s (%2s: %3s)",
+					StringValueTaskLength.INSTANCE.getString(task.getLength()),
+					Translations.getString("general.total"),
+					StringValueTaskLength.INSTANCE.getString(length));
+		else
+			this.lengthToolTip = StringValueTaskLength.INSTANCE.getString(task.getLength());
+	}
+	
+	/**
+	 * Returns true if the task is over due, comparing the time only if the
+	 * due time is used.
+	 */
+	public boolean isOverDue() {
+		return this.overDue;
+	}
+	
+	/**
+	 * Returns true if the task is due today, comparing the time only if the
+	 * due time is used.
+	 */
+	public boolean isDueToday() {
+		return this.dueToday;
+	}
+	
+	public int getImportance() {
+		return this.importance;
+	}
+	
+	public Color getImportanceColor() {
+		return this.importanceColor;
+	}
+	
+	public int getNbParents() {
+		return this.nbParents;
+	}
+	
+	/**
+	 * Returns true if the repeat value of the task is understood by the
+	 * current synchronizer plugin.
+	 */
+	public boolean isRepeatValid() {
+		return this.repeatValid;
+	}
+	
+	public String getProgressToolTip() {
+		return this.progressToolTip;
+	}
+	
+	public String getLengthToolTip() {
+		return this.lengthToolTip;
+	}
+	
+}
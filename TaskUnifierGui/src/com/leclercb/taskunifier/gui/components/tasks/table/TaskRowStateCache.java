@@ -0,0 +1,129 @@
+/*
+ * TaskUnifier
+ * Copyright (c) 2011, Benjamin Leclerc
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ *   - Neither the name of TaskUnifier or the names of its
+ *     contributors may be used to endorse or promote products derived
+ *     from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.leclercb.taskunifier.gui.components.tasks.table;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.leclercb.commons.api.event.listchange.ListChangeEvent;
+import com.leclercb.commons.api.event.listchange.ListChangeListener;
+import com.leclercb.taskunifier.api.models.Task;
+import com.leclercb.taskunifier.api.models.TaskFactory;
+import com.leclercb.taskunifier.gui.main.Main;
+
+/**
+ * Keeps the {@link TaskRowState} of the tasks painted by the task tables. A
+ * state is discarded when its task or one of its subtasks changes. All the
+ * states are discarded when a setting changes, when a task is added, removed
+ * or moved, and every minute because some values depend on the current time.
+ */
+public final class TaskRowStateCache implements ListChangeListener, PropertyChangeListener {
+	
+	private static TaskRowStateCache INSTANCE;
+	
+	public static synchronized TaskRowStateCache getInstance() {
+		if (INSTANCE == null)
+			INSTANCE = new TaskRowStateCache();
+		
+		return INSTANCE;
+	}
+	
+	private Map<Task, TaskRowState> states;
+	private long minute;
+	
+	private TaskRowStateCache() {
+		this.states = new IdentityHashMap<Task, TaskRowState>();
+		this.minute = 0;
+		
+		TaskFactory.getInstance().addListChangeListener(this);
+		TaskFactory.getInstance().addPropertyChangeListener(this);
+		
+		Main.getSettings().addPropertyChangeListener(
+				new PropertyChangeListener() {
+					
+					@Override
+					public void propertyChange(PropertyChangeEvent evt) {
+						TaskRowStateCache.this.clear();
+					}
+					
+				});
+	}
+	
+	public synchronized TaskRowState getState(Task task) {
+		long minute = System.currentTimeMillis() / 60000;
+		
+		if (this.minute != minute) {
+			this.states.clear();
+			this.minute = minute;
+		}
+		
+		TaskRowState state = this.states.get(task);
+		
+		if (state == null) {
+			state = new TaskRowState(task);
+			this.states.put(task, state);
+		}
+		
+		return state;
+	}
+	
+	public synchronized void clear() {
+		this.states.clear();
+	}
+	
+	@Override
+	public synchronized void listChange(ListChangeEvent event) {
+		this.states.clear();
+	}
+	
+	@Override
+	public synchronized void propertyChange(PropertyChangeEvent event) {
+		// Moving a task changes the depth of its subtasks and the tool tips
+		// of its former and new parents
+		if (Task.PROP_PARENT.equals(event.getPropertyName())) {
+			this.states.clear();
+			return;
+		}
+		
+		Task task = (Task) event.getSource();
+		
+		this.states.remove(task);
+		
+		// The tool tips of the parents depend on their subtasks
+		for (Task parent : task.getAllParents())
+			this.states.remove(parent);
+	}
+	
+}
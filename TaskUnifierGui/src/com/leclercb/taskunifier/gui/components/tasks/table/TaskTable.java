@@ -221,6 +221,9 @@ public class TaskTable extends JXTable implements TaskTableView {
 	
 	@Override
 	public void refreshTasks() {
+		if (this.getSortController().getRowFilter() instanceof TaskRowFilter)
+			((TaskRowFilter) this.getSortController().getRowFilter()).invalidate();
+		
 		this.getRowSorter().allRowsChanged();
 		
 		try {
@@ -42,6 +42,8 @@ import com.leclercb.commons.api.event.listchange.ListChangeListener;
 import com.leclercb.commons.api.utils.CheckUtils;
 import com.leclercb.commons.api.utils.EqualsUtils;
 import com.leclercb.taskunifier.api.models.Model;
+import com.leclercb.taskunifier.api.models.ModelBatchEvent;
+import com.leclercb.taskunifier.api.models.ModelBatchListener;
 import com.leclercb.taskunifier.api.models.ModelParent;
 import com.leclercb.taskunifier.api.models.ModelStatus;
 import com.leclercb.taskunifier.api.models.Task;
@@ -52,7 +54,7 @@ import com.leclercb.taskunifier.gui.components.synchronize.Synchronizing;
 import com.leclercb.taskunifier.gui.components.tasks.TaskColumn;
 import com.leclercb.taskunifier.gui.utils.UndoSupport;
 
-public class TaskTableModel extends AbstractTableModel implements ListChangeListener, PropertyChangeListener {
+public class TaskTableModel extends AbstractTableModel implements ListChangeListener, PropertyChangeListener, ModelBatchListener {
 	
 	private UndoSupport undoSupport;
 	
@@ -62,6 +64,7 @@ public class TaskTableModel extends AbstractTableModel implements ListChangeList
 		
 		TaskFactory.getInstance().addListChangeListener(this);
 		TaskFactory.getInstance().addPropertyChangeListener(this);
+		TaskFactory.getInstance().addModelBatchListener(this);
 		
 		Synchronizing.addPropertyChangeListener(
 				Synchronizing.PROP_SYNCHRONIZING,
@@ -134,7 +137,8 @@ public class TaskTableModel extends AbstractTableModel implements ListChangeList
 	
 	@Override
 	public void listChange(ListChangeEvent event) {
-		if (Synchronizing.isSynchronizing())
+		if (Synchronizing.isSynchronizing()
+				|| TaskFactory.getInstance().isBatching())
 			return;
 		
 		if (event.getChangeType() == ListChangeEvent.VALUE_ADDED) {
@@ -146,7 +150,8 @@ public class TaskTableModel extends AbstractTableModel implements ListChangeList
 	
 	@Override
 	public void propertyChange(PropertyChangeEvent event) {
-		if (Synchronizing.isSynchronizing())
+		if (Synchronizing.isSynchronizing()
+				|| TaskFactory.getInstance().isBatching())
 			return;
 		
 		if (event.getPropertyName().equals(Model.PROP_MODEL_STATUS)) {
@@ -166,4 +171,20 @@ public class TaskTableModel extends AbstractTableModel implements ListChangeList
 		}
 	}
 	
+	@Override
+	public void batchEnded(ModelBatchEvent event) {
+		if (Synchronizing.isSynchronizing())
+			return;
+		
+		if (event.isListChanged()
+				|| event.getPropertyNames().contains(Model.PROP_MODEL_STATUS)
+				|| event.getPropertyNames().contains(GuiTask.PROP_SHOW_CHILDREN)
+				|| event.getPropertyNames().contains(ModelParent.PROP_PARENT)
+				|| event.getPropertyNames().contains(Model.PROP_ORDER)) {
+			this.fireTableDataChanged();
+		} else if (this.getRowCount() != 0) {
+			this.fireTableRowsUpdated(0, this.getRowCount() - 1);
+		}
+	}
+	
 }
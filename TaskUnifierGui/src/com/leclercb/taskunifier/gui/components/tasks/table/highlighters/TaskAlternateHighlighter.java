@@ -44,8 +44,8 @@ import org.jdesktop.swingx.decorator.ComponentAdapter;
 
 import com.leclercb.taskunifier.api.models.Task;
 import com.leclercb.taskunifier.gui.components.tasks.TaskColumn;
+import com.leclercb.taskunifier.gui.components.tasks.table.TaskRowStateCache;
 import com.leclercb.taskunifier.gui.main.Main;
-import com.leclercb.taskunifier.gui.utils.TaskUtils;
 
 public class TaskAlternateHighlighter extends AbstractHighlighter {
 	
@@ -115,13 +115,12 @@ public class TaskAlternateHighlighter extends AbstractHighlighter {
 		if (value == null || !(value instanceof Task))
 			return renderer;
 		
-		int importance = TaskUtils.getImportance((Task) value);
+		Task task = (Task) value;
 		
-		if (((Task) value).isCompleted()) {
+		if (task.isCompleted()) {
 			renderer.setBackground(Color.WHITE);
 		} else {
-			Color color = Main.getSettings().getColorProperty(
-					"theme.color.importance." + importance);
+			Color color = TaskRowStateCache.getInstance().getState(task).getImportanceColor();
 			
 			renderer.setBackground(color);
 		}
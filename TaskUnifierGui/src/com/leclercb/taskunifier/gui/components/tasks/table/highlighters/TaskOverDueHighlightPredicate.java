@@ -39,7 +39,7 @@ import org.jdesktop.swingx.decorator.HighlightPredicate;
 
 import com.leclercb.taskunifier.api.models.Task;
 import com.leclercb.taskunifier.gui.components.tasks.TaskColumn;
-import com.leclercb.taskunifier.gui.main.Main;
+import com.leclercb.taskunifier.gui.components.tasks.table.TaskRowStateCache;
 
 public class TaskOverDueHighlightPredicate implements HighlightPredicate {
 	
@@ -54,10 +54,8 @@ public class TaskOverDueHighlightPredicate implements HighlightPredicate {
 		
 		Task task = (Task) value;
 		
-		boolean useDueTime = Main.getSettings().getBooleanProperty(
-				"date.use_due_time");
-		
-		return task.isOverDue(!useDueTime) && !task.isCompleted();
+		return !task.isCompleted()
+				&& TaskRowStateCache.getInstance().getState(task).isOverDue();
 	}
 	
 }
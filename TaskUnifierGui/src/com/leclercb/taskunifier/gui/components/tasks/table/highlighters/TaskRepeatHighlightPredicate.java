@@ -37,8 +37,9 @@ import java.awt.Component;
 import org.jdesktop.swingx.decorator.ComponentAdapter;
 import org.jdesktop.swingx.decorator.HighlightPredicate;
 
+import com.leclercb.taskunifier.api.models.Task;
 import com.leclercb.taskunifier.gui.components.tasks.TaskColumn;
-import com.leclercb.taskunifier.gui.utils.SynchronizerUtils;
+import com.leclercb.taskunifier.gui.components.tasks.table.TaskRowStateCache;
 
 public class TaskRepeatHighlightPredicate implements HighlightPredicate {
 	
@@ -47,13 +48,14 @@ public class TaskRepeatHighlightPredicate implements HighlightPredicate {
 		if (adapter.getColumnIdentifierAt(adapter.convertColumnIndexToModel(adapter.column)) != TaskColumn.REPEAT)
 			return false;
 		
-		Object value = adapter.getValue(adapter.convertColumnIndexToModel(adapter.column));
+		Object value = adapter.getFilteredValueAt(
+				adapter.row,
+				adapter.getColumnIndex(TaskColumn.MODEL));
 		
-		if (value == null || !(value instanceof String))
+		if (value == null || !(value instanceof Task))
 			return false;
 		
-		return !SynchronizerUtils.getSynchronizerPlugin().getSynchronizerApi().isValidRepeatValue(
-				(String) value);
+		return !TaskRowStateCache.getInstance().getState((Task) value).isRepeatValid();
 	}
 	
 }
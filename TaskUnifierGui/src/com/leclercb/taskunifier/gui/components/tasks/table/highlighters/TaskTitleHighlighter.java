@@ -51,7 +51,10 @@ import org.jdesktop.swingx.renderer.JRendererLabel;
 
 import com.leclercb.taskunifier.api.models.Task;
 import com.leclercb.taskunifier.gui.components.tasks.TaskColumn;
+import com.leclercb.taskunifier.gui.components.tasks.table.TaskRowState;
+import com.leclercb.taskunifier.gui.components.tasks.table.TaskRowStateCache;
 import com.leclercb.taskunifier.gui.main.Main;
+import com.leclercb.taskunifier.gui.settings.SettingKeys;
 import com.leclercb.taskunifier.gui.translations.Translations;
 import com.leclercb.taskunifier.gui.utils.ImageUtils;
 
@@ -100,12 +103,12 @@ public class TaskTitleHighlighter extends AbstractHighlighter {
 			return r;
 		
 		final Task task = (Task) value;
+		final TaskRowState state = TaskRowStateCache.getInstance().getState(
+				task);
 		
-		final boolean indentSubtasks = Main.getSettings().getBooleanProperty(
-				"task.indent_subtasks");
-		final boolean useDueTime = Main.getSettings().getBooleanProperty(
-				"date.use_due_time");
-		final int nbParents = task.getAllParents().size();
+		final boolean indentSubtasks = Main.getSettings().getValue(
+				SettingKeys.TASK_INDENT_SUBTASKS);
+		final int nbParents = state.getNbParents();
 		
 		String title = task.getTitle();
 		
@@ -142,7 +145,7 @@ public class TaskTitleHighlighter extends AbstractHighlighter {
 		}
 		
 		// Set Icon
-		if (!task.isCompleted() && task.isOverDue(!useDueTime))
+		if (!task.isCompleted() && state.isOverDue())
 			r.setIcon(ImageUtils.getResourceImage("warning.png", 16, 16));
 		else
 			r.setIcon(ImageUtils.getResourceImage("transparent.png", 16, 16));
@@ -42,10 +42,9 @@ import org.jdesktop.swingx.decorator.ToolTipHighlighter;
 
 import com.leclercb.taskunifier.api.models.Task;
 import com.leclercb.taskunifier.api.models.Timer;
-import com.leclercb.taskunifier.gui.commons.values.StringValueTaskLength;
-import com.leclercb.taskunifier.gui.commons.values.StringValueTaskProgress;
 import com.leclercb.taskunifier.gui.commons.values.StringValueTimer;
 import com.leclercb.taskunifier.gui.components.tasks.TaskColumn;
+import com.leclercb.taskunifier.gui.components.tasks.table.TaskRowStateCache;
 import com.leclercb.taskunifier.gui.translations.Translations;
 
 public class TaskTooltipHighlighter extends ToolTipHighlighter {
@@ -142,33 +141,8 @@ public class TaskTooltipHighlighter extends ToolTipHighlighter {
 		
 		final Task task = (Task) value;
 		
-		int nbChildren = 0;
-		double progress = 0;
-		for (Task child : task.getAllChildren()) {
-			if (!child.getModelStatus().isEndUserStatus())
-				continue;
-			
-			nbChildren++;
-			
-			if (child.isCompleted())
-				progress += 1;
-			else
-				progress += child.getProgress();
-		}
-		
-		String tooltip = null;
-		
-		if (nbChildren > 0)
-			tooltip = String.format(
-					"%1s (%2s: %3s)",
-					StringValueTaskProgress.INSTANCE.getString(task.getProgress()),
-					Translations.getString("general.subtasks"),
-					StringValueTaskProgress.INSTANCE.getString(progress
-							/ nbChildren));
-		else
-			tooltip = StringValueTaskProgress.INSTANCE.getString(task.getProgress());
-		
-		((JComponent) renderer).setToolTipText(tooltip);
+		((JComponent) renderer).setToolTipText(TaskRowStateCache.getInstance().getState(
+				task).getProgressToolTip());
 		
 		return renderer;
 	}
@@ -185,31 +159,8 @@ public class TaskTooltipHighlighter extends ToolTipHighlighter {
 		
 		final Task task = (Task) value;
 		
-		boolean atLeastOneChild = false;
-		int length = task.getLength();
-		for (Task child : task.getAllChildren()) {
-			if (!child.getModelStatus().isEndUserStatus())
-				continue;
-			
-			if (child.isCompleted())
-				continue;
-			
-			atLeastOneChild = true;
-			length += child.getLength();
-		}
-		
-		String tooltip = null;
-		
-		if (atLeastOneChild)
-			tooltip = String.format(
-					"%1s (%2s: %3s)",
-					StringValueTaskLength.INSTANCE.getString(task.getLength()),
-					Translations.getString("general.total"),
-					StringValueTaskLength.INSTANCE.getString(length));
-		else
-			tooltip = StringValueTaskLength.INSTANCE.getString(task.getLength());
-		
-		((JComponent) renderer).setToolTipText(tooltip);
+		((JComponent) renderer).setToolTipText(TaskRowStateCache.getInstance().getState(
+				task).getLengthToolTip());
 		
 		return renderer;
 	}
@@ -32,20 +32,30 @@
  */
 package com.leclercb.taskunifier.gui.components.tasks.table.sorter;
 
+import java.util.BitSet;
+
 import javax.swing.RowFilter;
 import javax.swing.table.TableModel;
 
 import com.leclercb.commons.api.utils.CheckUtils;
 import com.leclercb.taskunifier.api.models.Task;
+import com.leclercb.taskunifier.api.models.TaskFactory;
 import com.leclercb.taskunifier.gui.api.searchers.filters.TaskFilter;
-import com.leclercb.taskunifier.gui.components.tasks.table.TaskTableModel;
 import com.leclercb.taskunifier.gui.main.Main;
+import com.leclercb.taskunifier.gui.settings.SettingKeys;
 import com.leclercb.taskunifier.gui.utils.TaskUtils;
 
 public class TaskRowFilter extends RowFilter<TableModel, Integer> {
 	
 	private TaskFilter filter;
 	
+	private BitSet visibleTasks;
+	private long taskModificationCount;
+	private long filterModificationCount;
+	private boolean indentSubtasks;
+	private boolean showCompletedTasks;
+	private long minute;
+	
 	public TaskRowFilter(TaskFilter filter) {
 		this.setFilter(filter);
 	}
@@ -57,23 +67,66 @@ public class TaskRowFilter extends RowFilter<TableModel, Integer> {
 	public void setFilter(TaskFilter filter) {
 		CheckUtils.isNotNull(filter);
 		this.filter = filter;
+		this.visibleTasks = null;
+	}
+	
+	/**
+	 * Forces the visibility of the tasks to be computed again, for example
+	 * when the table is explicitly refreshed.
+	 */
+	public void invalidate() {
+		this.visibleTasks = null;
 	}
 	
 	@Override
 	public boolean include(Entry<? extends TableModel, ? extends Integer> entry) {
-		TaskTableModel taskTableModel = (TaskTableModel) entry.getModel();
-		Task task = taskTableModel.getTask(entry.getIdentifier());
-		return this.include(task);
+		// The rows of the task table model are the indexes of the factory
+		return this.getVisibleTasks().get(entry.getIdentifier());
 	}
 	
 	public boolean include(Task task) {
-		boolean indentSubtasks = Main.getSettings().getBooleanProperty(
-				"task.indent_subtasks");
+		int index = TaskFactory.getInstance().getIndexOf(task);
+		
+		if (index == -1)
+			return false;
+		
+		return this.getVisibleTasks().get(index);
+	}
+	
+	/**
+	 * Returns the visibility of all the tasks of the factory. It is computed
+	 * again when a task, the filter or one of the settings it depends on has
+	 * changed, and every minute because some conditions (today, over due...)
+	 * depend on the current time.
+	 */
+	private BitSet getVisibleTasks() {
+		long taskModificationCount = TaskFactory.getInstance().getModificationCount();
+		
+		boolean indentSubtasks = Main.getSettings().getValue(
+				SettingKeys.TASK_INDENT_SUBTASKS);
+		boolean showCompletedTasks = Main.getSettings().getValue(
+				SettingKeys.TASKSEARCHER_SHOW_COMPLETED_TASKS);
+		long minute = System.currentTimeMillis() / 60000;
+		
+		if (this.visibleTasks == null
+				|| this.minute != minute
+				|| this.taskModificationCount != taskModificationCount
+				|| this.filterModificationCount != this.filter.getModificationCount()
+				|| this.indentSubtasks != indentSubtasks
+				|| this.showCompletedTasks != showCompletedTasks) {
+			this.taskModificationCount = taskModificationCount;
+			this.filterModificationCount = this.filter.getModificationCount();
+			this.indentSubtasks = indentSubtasks;
+			this.showCompletedTasks = showCompletedTasks;
+			this.minute = minute;
+			
+			this.visibleTasks = TaskUtils.showTasks(
+					TaskFactory.getInstance().getList(),
+					this.filter,
+					indentSubtasks);
+		}
 		
-		if (indentSubtasks)
-			return TaskUtils.showTask(task, this.filter);
-		else
-			return TaskUtils.showUnindentTask(task, this.filter);
+		return this.visibleTasks;
 	}
 	
 }
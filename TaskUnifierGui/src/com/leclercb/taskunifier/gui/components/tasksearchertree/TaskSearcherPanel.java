@@ -35,7 +35,11 @@ package com.leclercb.taskunifier.gui.components.tasksearchertree;
 import java.awt.BorderLayout;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.logging.Level;
 
 import javax.swing.BorderFactory;
@@ -61,6 +65,7 @@ import com.leclercb.taskunifier.api.models.Model;
 import com.leclercb.taskunifier.api.models.ModelId;
 import com.leclercb.taskunifier.api.models.Tag;
 import com.leclercb.taskunifier.api.models.Task;
+import com.leclercb.taskunifier.api.models.TaskFactory;
 import com.leclercb.taskunifier.api.settings.ModelIdSettingsCoder;
 import com.leclercb.taskunifier.gui.actions.ActionAddTaskSearcher;
 import com.leclercb.taskunifier.gui.actions.ActionConfiguration;
@@ -72,7 +77,7 @@ import com.leclercb.taskunifier.gui.api.searchers.TaskSearcherType;
 import com.leclercb.taskunifier.gui.api.searchers.filters.FilterLink;
 import com.leclercb.taskunifier.gui.api.searchers.filters.TaskFilter;
 import com.leclercb.taskunifier.gui.api.searchers.filters.TaskFilterElement;
-import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.ModelCondition;
+import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.ModelSetCondition;
 import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.StringCondition;
 import com.leclercb.taskunifier.gui.api.searchers.sorters.TaskSorterElement;
 import com.leclercb.taskunifier.gui.commons.events.TaskSearcherSelectionChangeSupport;
@@ -84,6 +89,7 @@ import com.leclercb.taskunifier.gui.components.tasksearchertree.nodes.ModelItem;
 import com.leclercb.taskunifier.gui.components.tasksearchertree.nodes.SearcherItem;
 import com.leclercb.taskunifier.gui.components.tasksearchertree.nodes.TagItem;
 import com.leclercb.taskunifier.gui.main.Main;
+import com.leclercb.taskunifier.gui.swing.TUSwingUtilities;
 import com.leclercb.taskunifier.gui.swing.buttons.TUButtonsPanel;
 import com.leclercb.taskunifier.gui.utils.ComponentFactory;
 
@@ -216,12 +222,15 @@ public class TaskSearcherPanel extends JPanel implements SavePropertiesListener,
 		}
 		
 		if (this.tasks != null) {
-			for (Task task : this.tasks) {
-				extraFilter.addElement(new TaskFilterElement(
-						TaskColumn.MODEL,
-						ModelCondition.EQUALS,
-						task));
-			}
+			Set<ModelId> modelIds = new HashSet<ModelId>();
+			
+			for (Task task : this.tasks)
+				modelIds.add(task.getModelId());
+			
+			extraFilter.addElement(new TaskFilterElement(
+					TaskColumn.MODEL,
+					ModelSetCondition.IN,
+					modelIds));
 			
 			mainFilter.addFilter(extraFilter);
 		}
@@ -299,11 +308,43 @@ public class TaskSearcherPanel extends JPanel implements SavePropertiesListener,
 			
 		});
 		
+		// The extra tasks are filtered by model id: rebuild the filter when
+		// one of them receives a new id (after a synchronization)
+		TaskFactory.getInstance().addPropertyChangeListener(
+				Model.PROP_MODEL_ID,
+				new PropertyChangeListener() {
+					
+					@Override
+					public void propertyChange(final PropertyChangeEvent evt) {
+						TUSwingUtilities.invokeLater(new Runnable() {
+							
+							@Override
+							public void run() {
+								if (TaskSearcherPanel.this.isExtraTask(evt.getSource()))
+									TaskSearcherPanel.this.refreshTaskSearcher();
+							}
+							
+						});
+					}
+					
+				});
+		
 		this.initializeButtons();
 		
 		this.initializeSelectedSearcher();
 	}
 	
+	private boolean isExtraTask(Object source) {
+		if (this.tasks == null)
+			return false;
+		
+		for (Task task : this.tasks)
+			if (task == source)
+				return true;
+		
+		return false;
+	}
+	
 	private void initializeButtons() {
 		JPanel panel = new TUButtonsPanel(true, new JButton(
 				new ActionAddTaskSearcher(16, 16)), new JButton(
@@ -36,8 +36,11 @@ import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
+import javax.swing.SwingUtilities;
 import javax.swing.event.TreeSelectionEvent;
 import javax.swing.event.TreeSelectionListener;
 import javax.swing.tree.DefaultMutableTreeNode;
@@ -59,6 +62,7 @@ import com.leclercb.taskunifier.api.models.Location;
 import com.leclercb.taskunifier.api.models.LocationFactory;
 import com.leclercb.taskunifier.api.models.Model;
 import com.leclercb.taskunifier.api.models.ModelNote;
+import com.leclercb.taskunifier.api.models.ModelParent;
 import com.leclercb.taskunifier.api.models.ModelType;
 import com.leclercb.taskunifier.api.models.Tag;
 import com.leclercb.taskunifier.api.models.TagList;
@@ -76,6 +80,7 @@ import com.leclercb.taskunifier.gui.components.tasksearchertree.nodes.ModelItem;
 import com.leclercb.taskunifier.gui.components.tasksearchertree.nodes.SearcherCategory;
 import com.leclercb.taskunifier.gui.components.tasksearchertree.nodes.SearcherItem;
 import com.leclercb.taskunifier.gui.components.tasksearchertree.nodes.SearcherNode;
+import com.leclercb.taskunifier.gui.components.tasksearchertree.nodes.TaskBadgeCounter;
 import com.leclercb.taskunifier.gui.components.tasksearchertree.nodes.TagItem;
 import com.leclercb.taskunifier.gui.constants.Constants;
 import com.leclercb.taskunifier.gui.main.Main;
@@ -95,6 +100,9 @@ public class TaskSearcherTreeModel extends DefaultTreeModel implements ListChang
 	private SearcherCategory tagCategory;
 	private SearcherCategory personalCategory;
 	
+	private Set<Task> changedTasks;
+	private boolean badgeUpdateScheduled;
+	
 	public TaskSearcherTreeModel(
 			String settingsPrefix,
 			TreeSelectionModel treeSelectionModel) {
@@ -104,6 +112,9 @@ public class TaskSearcherTreeModel extends DefaultTreeModel implements ListChang
 		
 		this.treeSelectionModel = treeSelectionModel;
 		
+		this.changedTasks = Collections.newSetFromMap(new IdentityHashMap<Task, Boolean>());
+		this.badgeUpdateScheduled = false;
+		
 		this.initializeDefaultSearcher();
 		this.initializeGeneralCategory();
 		this.initializeContextCategory();
@@ -134,7 +145,7 @@ public class TaskSearcherTreeModel extends DefaultTreeModel implements ListChang
 			
 			@Override
 			public void valueChanged(TreeSelectionEvent e) {
-				TaskSearcherTreeModel.this.updateBadges();
+				TaskSearcherTreeModel.this.updateChangedBadges();
 			}
 			
 		});
@@ -403,7 +414,7 @@ public class TaskSearcherTreeModel extends DefaultTreeModel implements ListChang
 	public void listChange(ListChangeEvent event) {
 		if (event.getValue() instanceof Task) {
 			if (!Synchronizing.isSynchronizing())
-				this.updateBadges();
+				this.taskChanged((Task) event.getValue());
 			return;
 		}
 		
@@ -481,9 +492,15 @@ public class TaskSearcherTreeModel extends DefaultTreeModel implements ListChang
 	@Override
 	public void propertyChange(PropertyChangeEvent event) {
 		if (event.getSource() instanceof Task) {
-			if (!Synchronizing.isSynchronizing())
+			if (!Synchronizing.isSynchronizing()) {
 				if (!event.getPropertyName().equals(ModelNote.PROP_NOTE))
-					this.updateBadges();
+					this.taskChanged((Task) event.getSource());
+				
+				// The former parent has lost a child
+				if (event.getPropertyName().equals(ModelParent.PROP_PARENT)
+						&& event.getOldValue() != null)
+					this.taskChanged((Task) event.getOldValue());
+			}
 			return;
 		}
 		
@@ -558,7 +575,14 @@ public class TaskSearcherTreeModel extends DefaultTreeModel implements ListChang
 		}
 	}
 	
+	/**
+	 * Counts again all the tasks of the badges.
+	 */
 	public void updateBadges() {
+		synchronized (this.changedTasks) {
+			this.changedTasks.clear();
+		}
+		
 		this.defaultSearcher.updateBadgeCount();
 		
 		SearcherCategory[] categories = this.getCategories();
@@ -570,6 +594,54 @@ public class TaskSearcherTreeModel extends DefaultTreeModel implements ListChang
 		this.nodeChanged((TreeNode) this.getRoot());
 	}
 	
+	/**
+	 * Schedules the update of the badges. The changes received until the
+	 * update is run are applied at once.
+	 */
+	private void taskChanged(Task task) {
+		synchronized (this.changedTasks) {
+			this.changedTasks.add(task);
+			
+			if (this.badgeUpdateScheduled)
+				return;
+			
+			this.badgeUpdateScheduled = true;
+		}
+		
+		SwingUtilities.invokeLater(new Runnable() {
+			
+			@Override
+			public void run() {
+				TaskSearcherTreeModel.this.updateChangedBadges();
+			}
+			
+		});
+	}
+	
+	/**
+	 * Evaluates again the changed tasks (and their parents and children) and
+	 * adjusts the badges.
+	 */
+	private void updateChangedBadges() {
+		List<Task> tasks;
+		
+		synchronized (this.changedTasks) {
+			tasks = TaskBadgeCounter.getAffectedTasks(this.changedTasks);
+			this.changedTasks.clear();
+			this.badgeUpdateScheduled = false;
+		}
+		
+		this.defaultSearcher.updateBadgeCount(tasks);
+		
+		SearcherCategory[] categories = this.getCategories();
+		for (SearcherCategory category : categories) {
+			for (int i = 0; i < category.getChildCount(); i++)
+				((SearcherNode) category.getChildAt(i)).updateBadgeCount(tasks);
+		}
+		
+		this.nodeChanged((TreeNode) this.getRoot());
+	}
+	
 	private void updateSelection() {
 		if (this.treeSelectionModel.getSelectionPath() == null)
 			this.treeSelectionModel.setSelectionPath(TreeUtils.getPath(this.getDefaultSearcher()));
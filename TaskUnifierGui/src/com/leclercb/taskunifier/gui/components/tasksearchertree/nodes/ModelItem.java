@@ -47,7 +47,6 @@ import com.leclercb.taskunifier.api.models.Location;
 import com.leclercb.taskunifier.api.models.Model;
 import com.leclercb.taskunifier.api.models.ModelType;
 import com.leclercb.taskunifier.api.models.Task;
-import com.leclercb.taskunifier.api.models.TaskFactory;
 import com.leclercb.taskunifier.api.models.templates.TaskTemplate;
 import com.leclercb.taskunifier.gui.api.models.GuiModel;
 import com.leclercb.taskunifier.gui.api.searchers.TaskSearcher;
@@ -58,14 +57,15 @@ import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.ModelCondit
 import com.leclercb.taskunifier.gui.components.tasks.TaskColumn;
 import com.leclercb.taskunifier.gui.constants.Constants;
 import com.leclercb.taskunifier.gui.main.Main;
+import com.leclercb.taskunifier.gui.settings.SettingKeys;
 import com.leclercb.taskunifier.gui.swing.TUColorBadgeIcon;
 import com.leclercb.taskunifier.gui.translations.Translations;
-import com.leclercb.taskunifier.gui.utils.TaskUtils;
 
 public class ModelItem extends DefaultMutableTreeNode implements SearcherNode {
 	
 	private ModelType modelType;
 	private TaskSearcher searcher;
+	private TaskBadgeCounter badgeCounter;
 	private BadgeCount badgeCount;
 	
 	public ModelItem(ModelType modelType, Model model) {
@@ -74,6 +74,8 @@ public class ModelItem extends DefaultMutableTreeNode implements SearcherNode {
 		CheckUtils.isNotNull(modelType);
 		this.modelType = modelType;
 		
+		this.badgeCounter = new TaskBadgeCounter();
+		
 		this.initializeTaskSearcher();
 		this.updateBadgeCount();
 	}
@@ -192,29 +194,28 @@ public class ModelItem extends DefaultMutableTreeNode implements SearcherNode {
 	
 	@Override
 	public void updateBadgeCount() {
-		if (!Main.getSettings().getBooleanProperty("tasksearcher.show_badges")) {
+		if (!Main.getSettings().getValue(
+				SettingKeys.TASKSEARCHER_SHOW_BADGES)) {
+			this.badgeCounter.reset();
 			this.badgeCount = null;
 			return;
 		}
 		
-		List<Task> tasks = TaskFactory.getInstance().getList();
-		TaskSearcher searcher = this.getTaskSearcher();
-		
-		boolean useDueTime = Main.getSettings().getBooleanProperty(
-				"date.use_due_time");
-		
-		int count = 0;
-		int countOverdue = 0;
-		for (Task task : tasks) {
-			if (TaskUtils.badgeTask(task, searcher.getFilter())) {
-				count++;
-				
-				if (!task.isCompleted() && task.isOverDue(!useDueTime))
-					countOverdue++;
-			}
+		this.badgeCount = this.badgeCounter.count(this.getTaskSearcher().getFilter());
+	}
+	
+	@Override
+	public void updateBadgeCount(List<Task> tasks) {
+		if (!Main.getSettings().getValue(
+				SettingKeys.TASKSEARCHER_SHOW_BADGES)) {
+			this.badgeCounter.reset();
+			this.badgeCount = null;
+			return;
 		}
 		
-		this.badgeCount = new BadgeCount(count, countOverdue);
+		this.badgeCount = this.badgeCounter.update(
+				this.getTaskSearcher().getFilter(),
+				tasks);
 	}
 	
 	@Override
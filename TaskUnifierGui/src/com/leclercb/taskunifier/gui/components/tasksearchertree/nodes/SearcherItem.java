@@ -39,14 +39,14 @@ import javax.swing.tree.DefaultMutableTreeNode;
 
 import com.leclercb.commons.api.utils.CheckUtils;
 import com.leclercb.taskunifier.api.models.Task;
-import com.leclercb.taskunifier.api.models.TaskFactory;
 import com.leclercb.taskunifier.gui.api.searchers.TaskSearcher;
 import com.leclercb.taskunifier.gui.main.Main;
+import com.leclercb.taskunifier.gui.settings.SettingKeys;
 import com.leclercb.taskunifier.gui.utils.ImageUtils;
-import com.leclercb.taskunifier.gui.utils.TaskUtils;
 
 public class SearcherItem extends DefaultMutableTreeNode implements SearcherNode {
 	
+	private TaskBadgeCounter badgeCounter;
 	private BadgeCount badgeCount;
 	
 	public SearcherItem(TaskSearcher searcher) {
@@ -54,6 +54,7 @@ public class SearcherItem extends DefaultMutableTreeNode implements SearcherNode
 		
 		CheckUtils.isNotNull(searcher);
 		
+		this.badgeCounter = new TaskBadgeCounter();
 		this.updateBadgeCount();
 	}
 	
@@ -77,29 +78,28 @@ public class SearcherItem extends DefaultMutableTreeNode implements SearcherNode
 	
 	@Override
 	public void updateBadgeCount() {
-		if (!Main.getSettings().getBooleanProperty("tasksearcher.show_badges")) {
+		if (!Main.getSettings().getValue(
+				SettingKeys.TASKSEARCHER_SHOW_BADGES)) {
+			this.badgeCounter.reset();
 			this.badgeCount = null;
 			return;
 		}
 		
-		List<Task> tasks = TaskFactory.getInstance().getList();
-		TaskSearcher searcher = this.getTaskSearcher();
-		
-		boolean useDueTime = Main.getSettings().getBooleanProperty(
-				"date.use_due_time");
-		
-		int count = 0;
-		int countOverdue = 0;
-		for (Task task : tasks) {
-			if (TaskUtils.badgeTask(task, searcher.getFilter())) {
-				count++;
-				
-				if (!task.isCompleted() && task.isOverDue(!useDueTime))
-					countOverdue++;
-			}
+		this.badgeCount = this.badgeCounter.count(this.getTaskSearcher().getFilter());
+	}
+	
+	@Override
+	public void updateBadgeCount(List<Task> tasks) {
+		if (!Main.getSettings().getValue(
+				SettingKeys.TASKSEARCHER_SHOW_BADGES)) {
+			this.badgeCounter.reset();
+			this.badgeCount = null;
+			return;
 		}
 		
-		this.badgeCount = new BadgeCount(count, countOverdue);
+		this.badgeCount = this.badgeCounter.update(
+				this.getTaskSearcher().getFilter(),
+				tasks);
 	}
 	
 	@Override
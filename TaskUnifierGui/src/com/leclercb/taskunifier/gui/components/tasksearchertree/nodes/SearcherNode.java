@@ -32,9 +32,13 @@
  */
 package com.leclercb.taskunifier.gui.components.tasksearchertree.nodes;
 
+import java.util.List;
+
 import javax.swing.Icon;
 import javax.swing.tree.MutableTreeNode;
 
+import com.leclercb.taskunifier.api.models.Task;
+
 public interface SearcherNode extends TaskSearcherProvider, MutableTreeNode {
 	
 	public abstract Icon getIcon();
@@ -43,6 +47,12 @@ public interface SearcherNode extends TaskSearcherProvider, MutableTreeNode {
 	
 	public abstract void updateBadgeCount();
 	
+	/**
+	 * Updates the badge count after the given tasks have changed. The tasks
+	 * are returned by {@link TaskBadgeCounter#getAffectedTasks}.
+	 */
+	public abstract void updateBadgeCount(List<Task> tasks);
+	
 	public abstract BadgeCount getBadgeCount();
 	
 	public static class BadgeCount {
@@ -40,7 +40,6 @@ import javax.swing.tree.DefaultMutableTreeNode;
 import com.leclercb.commons.api.utils.CheckUtils;
 import com.leclercb.taskunifier.api.models.Tag;
 import com.leclercb.taskunifier.api.models.Task;
-import com.leclercb.taskunifier.api.models.TaskFactory;
 import com.leclercb.taskunifier.api.models.templates.TaskTemplate;
 import com.leclercb.taskunifier.gui.api.searchers.TaskSearcher;
 import com.leclercb.taskunifier.gui.api.searchers.TaskSearcherType;
@@ -50,12 +49,13 @@ import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.StringCondi
 import com.leclercb.taskunifier.gui.components.tasks.TaskColumn;
 import com.leclercb.taskunifier.gui.constants.Constants;
 import com.leclercb.taskunifier.gui.main.Main;
+import com.leclercb.taskunifier.gui.settings.SettingKeys;
 import com.leclercb.taskunifier.gui.utils.ImageUtils;
-import com.leclercb.taskunifier.gui.utils.TaskUtils;
 
 public class TagItem extends DefaultMutableTreeNode implements SearcherNode {
 	
 	private TaskSearcher searcher;
+	private TaskBadgeCounter badgeCounter;
 	private BadgeCount badgeCount;
 	
 	public TagItem(Tag tag) {
@@ -63,6 +63,8 @@ public class TagItem extends DefaultMutableTreeNode implements SearcherNode {
 		
 		CheckUtils.isNotNull(tag);
 		
+		this.badgeCounter = new TaskBadgeCounter();
+		
 		this.initializeTaskSearcher();
 		this.updateBadgeCount();
 	}
@@ -108,29 +110,28 @@ public class TagItem extends DefaultMutableTreeNode implements SearcherNode {
 	
 	@Override
 	public void updateBadgeCount() {
-		if (!Main.getSettings().getBooleanProperty("tasksearcher.show_badges")) {
+		if (!Main.getSettings().getValue(
+				SettingKeys.TASKSEARCHER_SHOW_BADGES)) {
+			this.badgeCounter.reset();
 			this.badgeCount = null;
 			return;
 		}
 		
-		List<Task> tasks = TaskFactory.getInstance().getList();
-		TaskSearcher searcher = this.getTaskSearcher();
-		
-		boolean useDueTime = Main.getSettings().getBooleanProperty(
-				"date.use_due_time");
-		
-		int count = 0;
-		int countOverdue = 0;
-		for (Task task : tasks) {
-			if (TaskUtils.badgeTask(task, searcher.getFilter())) {
-				count++;
-				
-				if (!task.isCompleted() && task.isOverDue(!useDueTime))
-					countOverdue++;
-			}
+		this.badgeCount = this.badgeCounter.count(this.getTaskSearcher().getFilter());
+	}
+	
+	@Override
+	public void updateBadgeCount(List<Task> tasks) {
+		if (!Main.getSettings().getValue(
+				SettingKeys.TASKSEARCHER_SHOW_BADGES)) {
+			this.badgeCounter.reset();
+			this.badgeCount = null;
+			return;
 		}
 		
-		this.badgeCount = new BadgeCount(count, countOverdue);
+		this.badgeCount = this.badgeCounter.update(
+				this.getTaskSearcher().getFilter(),
+				tasks);
 	}
 	
 	@Override
@@ -0,0 +1,184 @@
+/*
+ * TaskUnifier
+ * Copyright (c) 2011, Benjamin Leclerc
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ *   - Neither the name of TaskUnifier or the names of its
+ *     contributors may be used to endorse or promote products derived
+ *     from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.leclercb.taskunifier.gui.components.tasksearchertree.nodes;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import com.leclercb.commons.api.utils.CheckUtils;
+import com.leclercb.taskunifier.api.models.Task;
+import com.leclercb.taskunifier.api.models.TaskFactory;
+import com.leclercb.taskunifier.gui.api.searchers.filters.TaskFilter;
+import com.leclercb.taskunifier.gui.components.tasksearchertree.nodes.SearcherNode.BadgeCount;
+import com.leclercb.taskunifier.gui.main.Main;
+import com.leclercb.taskunifier.gui.settings.SettingKeys;
+import com.leclercb.taskunifier.gui.utils.TaskUtils;
+
+/**
+ * Counts the tasks of the badge of a searcher node. The tasks are all
+ * evaluated the first time, then only the changed tasks are evaluated again
+ * and the counts are adjusted.
+ * 
+ * All the tasks are evaluated again if the filter has changed or if the last
+ * complete count is more than a minute old (the overdue tasks depend on the
+ * current time).
+ */
+public class TaskBadgeCounter {
+	
+	private static final long MAX_COUNT_AGE = 60000;
+	
+	private TaskFilter filter;
+	private long filterModificationCount;
+	private long countTime;
+	
+	private Set<Task> badgedTasks;
+	private Set<Task> overdueTasks;
+	
+	public TaskBadgeCounter() {
+		this.reset();
+	}
+	
+	public void reset() {
+		this.filter = null;
+		this.badgedTasks = null;
+		this.overdueTasks = null;
+	}
+	
+	public BadgeCount count(TaskFilter filter) {
+		CheckUtils.isNotNull(filter);
+		
+		this.filter = filter;
+		this.filterModificationCount = filter.getModificationCount();
+		this.countTime = System.currentTimeMillis();
+		
+		this.badgedTasks = newTaskSet();
+		this.overdueTasks = newTaskSet();
+		
+		this.evaluate(TaskFactory.getInstance().getList());
+		
+		return this.getBadgeCount();
+	}
+	
+	/**
+	 * Adjusts the counts after the given tasks have changed. The tasks must
+	 * have been returned by {@link #getAffectedTasks(Collection)}.
+	 */
+	public BadgeCount update(TaskFilter filter, List<Task> tasks) {
+		CheckUtils.isNotNull(filter);
+		
+		if (this.badgedTasks == null
+				|| this.filter != filter
+				|| this.filterModificationCount != filter.getModificationCount()
+				|| System.currentTimeMillis() - this.countTime > MAX_COUNT_AGE)
+			return this.count(filter);
+		
+		if (!tasks.isEmpty())
+			this.evaluate(tasks);
+		
+		return this.getBadgeCount();
+	}
+	
+	public BadgeCount getBadgeCount() {
+		if (this.badgedTasks == null)
+			return null;
+		
+		return new BadgeCount(this.badgedTasks.size(), this.overdueTasks.size());
+	}
+	
+	private void evaluate(List<Task> tasks) {
+		boolean useDueTime = Main.getSettings().getValue(
+				SettingKeys.DATE_USE_DUE_TIME);
+		
+		BitSet badged = TaskUtils.badgeTasks(tasks, this.filter);
+		
+		for (int i = 0; i < tasks.size(); i++) {
+			Task task = tasks.get(i);
+			
+			// Tasks removed from the factory are not counted anymore
+			if (badged.get(i)
+					&& TaskFactory.getInstance().get(task.getModelId()) == task) {
+				this.badgedTasks.add(task);
+				
+				if (!task.isCompleted() && task.isOverDue(!useDueTime))
+					this.overdueTasks.add(task);
+				else
+					this.overdueTasks.remove(task);
+			} else {
+				this.badgedTasks.remove(task);
+				this.overdueTasks.remove(task);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the tasks whose badge state may depend on the given changed
+	 * tasks: the changed tasks and all the tasks of their hierarchies (a task
+	 * is counted if one of its parents or children is counted).
+	 */
+	public static List<Task> getAffectedTasks(Collection<Task> changedTasks) {
+		Set<Task> roots = newTaskSet();
+		Set<Task> tasks = newTaskSet();
+		List<Task> affectedTasks = new ArrayList<Task>();
+		
+		for (Task task : changedTasks) {
+			Task root = task;
+			while (root.getParent() != null)
+				root = root.getParent();
+			
+			if (roots.add(root)) {
+				if (tasks.add(root))
+					affectedTasks.add(root);
+				
+				for (Task child : root.getAllChildren())
+					if (tasks.add(child))
+						affectedTasks.add(child);
+			}
+			
+			// The task may have been detached from its hierarchy
+			if (tasks.add(task))
+				affectedTasks.add(task);
+		}
+		
+		return affectedTasks;
+	}
+	
+	private static Set<Task> newTaskSet() {
+		return Collections.newSetFromMap(new IdentityHashMap<Task, Boolean>());
+	}
+	
+}
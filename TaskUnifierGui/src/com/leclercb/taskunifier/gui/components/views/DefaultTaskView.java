@@ -170,6 +170,7 @@ public class DefaultTaskView extends JPanel implements TaskView, SavePropertiesL
 		this.searchField = new JXSearchField(
 				Translations.getString("general.search"));
 		this.searchField.setColumns(15);
+		this.searchField.setInstantSearchDelay(250);
 		
 		this.searchField.addActionListener(new ActionListener() {
 			
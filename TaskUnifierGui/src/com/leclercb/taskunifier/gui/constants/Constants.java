@@ -35,13 +35,14 @@ package com.leclercb.taskunifier.gui.constants;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.InputStream;
+import java.util.concurrent.Executor;
 import java.util.logging.Level;
 
 import javax.swing.SortOrder;
 
 import org.apache.commons.io.IOUtils;
 
-import com.leclercb.commons.api.progress.ProgressMonitor;
+import com.leclercb.commons.api.progress.BufferedProgressMonitor;
 import com.leclercb.commons.gui.logger.GuiLogger;
 import com.leclercb.commons.gui.swing.undo.TransferActionListener;
 import com.leclercb.taskunifier.gui.api.searchers.NoteSearcher;
@@ -59,6 +60,7 @@ import com.leclercb.taskunifier.gui.api.searchers.sorters.TaskSorterElement;
 import com.leclercb.taskunifier.gui.components.notes.NoteColumn;
 import com.leclercb.taskunifier.gui.components.tasks.TaskColumn;
 import com.leclercb.taskunifier.gui.main.Main;
+import com.leclercb.taskunifier.gui.swing.TUSwingUtilities;
 import com.leclercb.taskunifier.gui.translations.Translations;
 import com.leclercb.taskunifier.gui.utils.ImageUtils;
 import com.leclercb.taskunifier.gui.utils.UndoSupport;
@@ -91,7 +93,18 @@ public final class Constants {
 	private static TaskSorter DEFAULT_TASK_SORTER;
 	private static TaskSearcher DEFAULT_TASK_SEARCHER;
 	
-	public static final ProgressMonitor PROGRESS_MONITOR = new ProgressMonitor();
+	// The listeners (status bar, notifications) are notified on the EDT
+	public static final BufferedProgressMonitor PROGRESS_MONITOR = new BufferedProgressMonitor(
+			1000,
+			250,
+			new Executor() {
+				
+				@Override
+				public void execute(Runnable command) {
+					TUSwingUtilities.invokeLater(command);
+				}
+				
+			});
 	
 	public static final TransferActionListener TRANSFER_ACTION_LISTENER = new TransferActionListener();
 	
@@ -34,12 +34,14 @@ package com.leclercb.taskunifier.gui.main;
 
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
 import java.util.TimeZone;
 import java.util.logging.FileHandler;
@@ -120,12 +122,26 @@ import com.leclercb.taskunifier.gui.threads.Threads;
 import com.leclercb.taskunifier.gui.translations.Translations;
 import com.leclercb.taskunifier.gui.utils.BackupUtils;
 import com.leclercb.taskunifier.gui.utils.CommunicatorUtils;
+import com.leclercb.taskunifier.gui.utils.JournalUtils;
 import com.leclercb.taskunifier.gui.utils.ProtocolUtils;
+import com.leclercb.taskunifier.gui.utils.SaveUtils;
+import com.leclercb.taskunifier.gui.utils.SaveUtils.SaveBatch;
+import com.leclercb.taskunifier.gui.utils.SaveUtils.SaveContent;
 import com.leclercb.taskunifier.gui.utils.SynchronizerUtils;
 import com.leclercb.taskunifier.gui.utils.UserUtils;
 
 public class Main {
 	
+	// Tasks must be loaded last: they reference the other models
+	private static final String[] MODEL_FILE_NAMES = new String[] {
+			"contacts.xml",
+			"contexts.xml",
+			"folders.xml",
+			"goals.xml",
+			"locations.xml",
+			"notes.xml",
+			"tasks.xml" };
+	
 	private static boolean QUITTING;
 	
 	private static boolean DEVELOPER_MODE;
@@ -216,6 +232,10 @@ public class Main {
 		return PLUGINS_FOLDER;
 	}
 	
+	public static String getPluginsIndexFile() {
+		return DATA_FOLDER + File.separator + "plugins_index.properties";
+	}
+	
 	public static PropertyMap getInitSettings() {
 		return INIT_SETTINGS;
 	}
@@ -524,12 +544,16 @@ public class Main {
 		if (loadFolder(DATA_FOLDER))
 			setFirstExecution(true);
 		
+		SaveUtils.recoverFiles(DATA_FOLDER);
+		
 		loadFolder(DATA_FOLDER + File.separator + "users");
 	}
 	
 	private static void loadUserFolder() throws Exception {
 		USER_FOLDER = getUserFolder(USER_ID);
 		loadFolder(USER_FOLDER);
+		
+		SaveUtils.recoverFiles(USER_FOLDER);
 	}
 	
 	private static void loadBackupFolder() throws Exception {
@@ -766,10 +790,34 @@ public class Main {
 		NoteFactory.initializeWithClass(GuiNote.class, GuiNoteBean.class);
 		TaskFactory.initializeWithClass(GuiTask.class, GuiTaskBean.class);
 		
+		JournalUtils.getInstance().register(
+				"contacts.xml",
+				ContactFactory.getInstance());
+		JournalUtils.getInstance().register(
+				"contexts.xml",
+				ContextFactory.getInstance());
+		JournalUtils.getInstance().register(
+				"folders.xml",
+				FolderFactory.getInstance());
+		JournalUtils.getInstance().register(
+				"goals.xml",
+				GoalFactory.getInstance());
+		JournalUtils.getInstance().register(
+				"locations.xml",
+				LocationFactory.getInstance());
+		JournalUtils.getInstance().register(
+				"notes.xml",
+				NoteFactory.getInstance());
+		JournalUtils.getInstance().register(
+				"tasks.xml",
+				TaskFactory.getInstance());
+		
 		loadAllData(getUserFolder());
 	}
 	
 	public static void loadAllData(String folder) {
+		SaveUtils.getInstance().waitForSaves();
+		
 		loadModels(folder);
 		loadTaskTemplates(folder);
 		loadTaskSearchers(folder);
@@ -777,148 +825,19 @@ public class Main {
 	}
 	
 	public static void loadModels(String folder) {
-		try {
-			ContactFactory.getInstance().deleteAll();
-			
-			ContactFactory.getInstance().decodeFromXML(
-					new FileInputStream(folder
-							+ File.separator
-							+ "contacts.xml"));
-		} catch (FileNotFoundException e) {
-			
-		} catch (Exception e) {
-			GuiLogger.getLogger().log(
-					Level.SEVERE,
-					"Error while loading contacts",
-					e);
-			
-			JOptionPane.showMessageDialog(
-					null,
-					e.getMessage(),
-					Translations.getString("general.error"),
-					JOptionPane.ERROR_MESSAGE);
-		}
-		
-		try {
-			ContextFactory.getInstance().deleteAll();
-			
-			ContextFactory.getInstance().decodeFromXML(
-					new FileInputStream(folder
-							+ File.separator
-							+ "contexts.xml"));
-		} catch (FileNotFoundException e) {
-			
-		} catch (Exception e) {
-			GuiLogger.getLogger().log(
-					Level.SEVERE,
-					"Error while loading contexts",
-					e);
-			
-			JOptionPane.showMessageDialog(
-					null,
-					e.getMessage(),
-					Translations.getString("general.error"),
-					JOptionPane.ERROR_MESSAGE);
-		}
-		
-		try {
-			FolderFactory.getInstance().deleteAll();
-			
-			FolderFactory.getInstance().decodeFromXML(
-					new FileInputStream(folder + File.separator + "folders.xml"));
-		} catch (FileNotFoundException e) {
-			
-		} catch (Exception e) {
-			GuiLogger.getLogger().log(
-					Level.SEVERE,
-					"Error while loading folders",
-					e);
-			
-			JOptionPane.showMessageDialog(
-					null,
-					e.getMessage(),
-					Translations.getString("general.error"),
-					JOptionPane.ERROR_MESSAGE);
-		}
-		
-		try {
-			GoalFactory.getInstance().deleteAll();
-			
-			GoalFactory.getInstance().decodeFromXML(
-					new FileInputStream(folder + File.separator + "goals.xml"));
-		} catch (FileNotFoundException e) {
-			
-		} catch (Exception e) {
-			GuiLogger.getLogger().log(
-					Level.SEVERE,
-					"Error while loading goals",
-					e);
-			
-			JOptionPane.showMessageDialog(
-					null,
-					e.getMessage(),
-					Translations.getString("general.error"),
-					JOptionPane.ERROR_MESSAGE);
-		}
-		
-		try {
-			LocationFactory.getInstance().deleteAll();
-			
-			LocationFactory.getInstance().decodeFromXML(
-					new FileInputStream(folder
-							+ File.separator
-							+ "locations.xml"));
-		} catch (FileNotFoundException e) {
-			
-		} catch (Exception e) {
-			GuiLogger.getLogger().log(
-					Level.SEVERE,
-					"Error while loading locations",
-					e);
-			
-			JOptionPane.showMessageDialog(
-					null,
-					e.getMessage(),
-					Translations.getString("general.error"),
-					JOptionPane.ERROR_MESSAGE);
-		}
-		
-		try {
-			NoteFactory.getInstance().deleteAll();
-			
-			NoteFactory.getInstance().decodeFromXML(
-					new FileInputStream(folder + File.separator + "notes.xml"));
-		} catch (FileNotFoundException e) {
-			
-		} catch (Exception e) {
-			GuiLogger.getLogger().log(
-					Level.SEVERE,
-					"Error while loading notes",
-					e);
-			
-			JOptionPane.showMessageDialog(
-					null,
-					e.getMessage(),
-					Translations.getString("general.error"),
-					JOptionPane.ERROR_MESSAGE);
-		}
+		Map<String, Throwable> errors = JournalUtils.getInstance().load(
+				folder,
+				MODEL_FILE_NAMES);
 		
-		try {
-			TaskFactory.getInstance().deleteAll();
-			
-			TaskFactory.getInstance().decodeFromXML(
-					new FileInputStream(folder + File.separator + "tasks.xml"));
-		} catch (FileNotFoundException e) {
-			
-		} catch (Exception e) {
+		for (Map.Entry<String, Throwable> error : errors.entrySet()) {
 			GuiLogger.getLogger().log(
 					Level.SEVERE,
-					"Error while loading tasks",
-					e);
+					"Error while loading " + error.getKey(),
+					error.getValue());
 			
 			JOptionPane.showMessageDialog(
 					null,
-					e.getMessage(),
+					error.getValue().getMessage(),
 					Translations.getString("general.error"),
 					JOptionPane.ERROR_MESSAGE);
 		}
@@ -1020,6 +939,8 @@ public class Main {
 		API_PLUGINS = new PluginLoader<SynchronizerGuiPlugin>(
 				SynchronizerGuiPlugin.class);
 		
+		API_PLUGINS.setIndexFile(new File(getPluginsIndexFile()));
+		
 		API_PLUGINS.addPlugin(null, DummyGuiPlugin.getInstance());
 		
 		File pluginsFolder = new File(getPluginsFolder());
@@ -1027,6 +948,15 @@ public class Main {
 		boolean outdatedPlugins = false;
 		File[] pluginFiles = pluginsFolder.listFiles();
 		
+		try {
+			API_PLUGINS.indexJars(pluginFiles);
+		} catch (Throwable t) {
+			GuiLogger.getLogger().log(
+					Level.WARNING,
+					"Cannot index plugins",
+					t);
+		}
+		
 		for (File file : pluginFiles) {
 			try {
 				PluginsUtils.loadPlugin(file);
@@ -1116,36 +1046,94 @@ public class Main {
 		
 		saveAllData();
 		
+		SaveUtils.getInstance().waitForSaves();
+		
 		GuiLogger.getLogger().info("Exiting " + Constants.TITLE);
 		
 		System.exit(0);
 	}
 	
 	public static void copyAllData(String folder) {
-		saveModels(folder);
-		saveTaskTemplates(folder);
-		saveTaskSearchers(folder);
-		saveNoteSearchers(folder);
+		SaveBatch batch = new SaveBatch();
+		
+		for (Map.Entry<String, SaveContent> entry : copyAllData().entrySet())
+			batch.write(new File(folder, entry.getKey()), entry.getValue());
+		
+		SaveUtils.getInstance().save(batch);
+	}
+	
+	/**
+	 * Returns the full content of the data files by file name. The content is
+	 * captured on the calling thread and can be written later on another
+	 * thread.
+	 */
+	public static Map<String, SaveContent> copyAllData() {
+		Map<String, SaveContent> contents = new LinkedHashMap<String, SaveContent>();
+		
+		cleanFactories();
+		
+		for (String fileName : MODEL_FILE_NAMES) {
+			try {
+				contents.put(
+						fileName,
+						JournalUtils.getInstance().snapshot(fileName));
+			} catch (Exception e) {
+				GuiLogger.getLogger().log(
+						Level.SEVERE,
+						"Error while copying " + fileName,
+						e);
+				
+				JOptionPane.showMessageDialog(
+						null,
+						e.getMessage(),
+						Translations.getString("general.error"),
+						JOptionPane.ERROR_MESSAGE);
+			}
+		}
+		
+		saveTaskTemplates(contents);
+		saveTaskSearchers(contents);
+		saveNoteSearchers(contents);
+		
+		return contents;
 	}
 	
 	public static void saveAllData() {
-		saveModels(getUserFolder());
-		saveTaskTemplates(getUserFolder());
-		saveTaskSearchers(getUserFolder());
-		saveNoteSearchers(getUserFolder());
-		saveInitSettings();
-		saveSettings();
-		saveUserSettings();
+		SaveBatch batch = new SaveBatch();
+		
+		saveModels(getUserFolder(), batch);
+		
+		Map<String, SaveContent> contents = new LinkedHashMap<String, SaveContent>();
+		saveTaskTemplates(contents);
+		saveTaskSearchers(contents);
+		saveNoteSearchers(contents);
+		
+		for (Map.Entry<String, SaveContent> entry : contents.entrySet())
+			batch.write(
+					new File(getUserFolder(), entry.getKey()),
+					entry.getValue());
+		
+		saveInitSettings(batch);
+		saveSettings(batch);
+		saveUserSettings(batch);
+		
+		SaveUtils.getInstance().save(batch);
 	}
 	
 	public static void saveInitSettings() {
+		SaveBatch batch = new SaveBatch();
+		saveInitSettings(batch);
+		SaveUtils.getInstance().save(batch);
+	}
+	
+	private static void saveInitSettings(SaveBatch batch) {
 		try {
 			File f = new File(getInitSettingsFile());
 			
 			if (!isDeveloperMode() && f.exists() && f.canWrite()) {
-				INIT_SETTINGS.store(
-						new FileOutputStream(getInitSettingsFile()),
-						Constants.TITLE + " Init Settings");
+				ByteArrayOutputStream output = new ByteArrayOutputStream();
+				INIT_SETTINGS.store(output, Constants.TITLE + " Init Settings");
+				batch.write(f, output.toByteArray());
 				
 				GuiLogger.getLogger().log(Level.INFO, "Saving init settings");
 			}
@@ -1158,10 +1146,16 @@ public class Main {
 	}
 	
 	public static void saveSettings() {
+		SaveBatch batch = new SaveBatch();
+		saveSettings(batch);
+		SaveUtils.getInstance().save(batch);
+	}
+	
+	private static void saveSettings(SaveBatch batch) {
 		try {
-			SETTINGS.store(
-					new FileOutputStream(getSettingsFile()),
-					Constants.TITLE + " Settings");
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			SETTINGS.store(output, Constants.TITLE + " Settings");
+			batch.write(new File(getSettingsFile()), output.toByteArray());
 			
 			GuiLogger.getLogger().log(Level.INFO, "Saving settings");
 		} catch (Exception e) {
@@ -1179,10 +1173,16 @@ public class Main {
 	}
 	
 	public static void saveUserSettings() {
+		SaveBatch batch = new SaveBatch();
+		saveUserSettings(batch);
+		SaveUtils.getInstance().save(batch);
+	}
+	
+	private static void saveUserSettings(SaveBatch batch) {
 		try {
-			USER_SETTINGS.store(
-					new FileOutputStream(getUserSettingsFile()),
-					Constants.TITLE + " User Settings");
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			USER_SETTINGS.store(output, Constants.TITLE + " User Settings");
+			batch.write(new File(getUserSettingsFile()), output.toByteArray());
 			
 			GuiLogger.getLogger().log(Level.INFO, "Saving user settings");
 		} catch (Exception e) {
@@ -1199,7 +1199,7 @@ public class Main {
 		}
 	}
 	
-	public static void saveModels(String folder) {
+	private static void cleanFactories() {
 		try {
 			ContactFactory.getInstance().cleanFactory();
 			ContextFactory.getInstance().cleanFactory();
@@ -1214,12 +1214,13 @@ public class Main {
 					"Error while cleaning factories",
 					e);
 		}
+	}
+	
+	private static void saveModels(String folder, SaveBatch batch) {
+		cleanFactories();
 		
 		try {
-			ContactFactory.getInstance().encodeToXML(
-					new FileOutputStream(folder
-							+ File.separator
-							+ "contacts.xml"));
+			JournalUtils.getInstance().save(folder, "contacts.xml", batch);
 			
 			GuiLogger.getLogger().log(
 					Level.INFO,
@@ -1238,10 +1239,7 @@ public class Main {
 		}
 		
 		try {
-			ContextFactory.getInstance().encodeToXML(
-					new FileOutputStream(folder
-							+ File.separator
-							+ "contexts.xml"));
+			JournalUtils.getInstance().save(folder, "contexts.xml", batch);
 			
 			GuiLogger.getLogger().log(
 					Level.INFO,
@@ -1260,10 +1258,7 @@ public class Main {
 		}
 		
 		try {
-			FolderFactory.getInstance().encodeToXML(
-					new FileOutputStream(folder
-							+ File.separator
-							+ "folders.xml"));
+			JournalUtils.getInstance().save(folder, "folders.xml", batch);
 			
 			GuiLogger.getLogger().log(
 					Level.INFO,
@@ -1282,8 +1277,7 @@ public class Main {
 		}
 		
 		try {
-			GoalFactory.getInstance().encodeToXML(
-					new FileOutputStream(folder + File.separator + "goals.xml"));
+			JournalUtils.getInstance().save(folder, "goals.xml", batch);
 			
 			GuiLogger.getLogger().log(
 					Level.INFO,
@@ -1302,10 +1296,7 @@ public class Main {
 		}
 		
 		try {
-			LocationFactory.getInstance().encodeToXML(
-					new FileOutputStream(folder
-							+ File.separator
-							+ "locations.xml"));
+			JournalUtils.getInstance().save(folder, "locations.xml", batch);
 			
 			GuiLogger.getLogger().log(
 					Level.INFO,
@@ -1324,8 +1315,7 @@ public class Main {
 		}
 		
 		try {
-			NoteFactory.getInstance().encodeToXML(
-					new FileOutputStream(folder + File.separator + "notes.xml"));
+			JournalUtils.getInstance().save(folder, "notes.xml", batch);
 			
 			GuiLogger.getLogger().log(
 					Level.INFO,
@@ -1344,8 +1334,7 @@ public class Main {
 		}
 		
 		try {
-			TaskFactory.getInstance().encodeToXML(
-					new FileOutputStream(folder + File.separator + "tasks.xml"));
+			JournalUtils.getInstance().save(folder, "tasks.xml", batch);
 			
 			GuiLogger.getLogger().log(
 					Level.INFO,
@@ -1364,16 +1353,13 @@ public class Main {
 		}
 	}
 	
-	public static void saveTaskTemplates(String folder) {
+	private static void saveTaskTemplates(Map<String, SaveContent> contents) {
 		try {
-			TaskTemplateFactory.getInstance().encodeToXML(
-					new FileOutputStream(folder
-							+ File.separator
-							+ "task_templates.xml"));
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			TaskTemplateFactory.getInstance().encodeToXML(output);
+			contents.put("task_templates.xml", SaveUtils.getContent(output.toByteArray()));
 			
-			GuiLogger.getLogger().log(
-					Level.INFO,
-					"Saving task templates (" + folder + ")");
+			GuiLogger.getLogger().log(Level.INFO, "Saving task templates");
 		} catch (Exception e) {
 			GuiLogger.getLogger().log(
 					Level.SEVERE,
@@ -1388,14 +1374,13 @@ public class Main {
 		}
 	}
 	
-	public static void saveTaskSearchers(String folder) {
+	private static void saveTaskSearchers(Map<String, SaveContent> contents) {
 		try {
-			new TaskSearcherFactoryXMLCoder().encode(new FileOutputStream(
-					folder + File.separator + "task_searchers.xml"));
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			new TaskSearcherFactoryXMLCoder().encode(output);
+			contents.put("task_searchers.xml", SaveUtils.getContent(output.toByteArray()));
 			
-			GuiLogger.getLogger().log(
-					Level.INFO,
-					"Saving task searchers (" + folder + ")");
+			GuiLogger.getLogger().log(Level.INFO, "Saving task searchers");
 		} catch (Exception e) {
 			GuiLogger.getLogger().log(
 					Level.SEVERE,
@@ -1410,14 +1395,13 @@ public class Main {
 		}
 	}
 	
-	public static void saveNoteSearchers(String folder) {
+	private static void saveNoteSearchers(Map<String, SaveContent> contents) {
 		try {
-			new NoteSearcherFactoryXMLCoder().encode(new FileOutputStream(
-					folder + File.separator + "note_searchers.xml"));
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			new NoteSearcherFactoryXMLCoder().encode(output);
+			contents.put("note_searchers.xml", SaveUtils.getContent(output.toByteArray()));
 			
-			GuiLogger.getLogger().log(
-					Level.INFO,
-					"Saving note searchers (" + folder + ")");
+			GuiLogger.getLogger().log(Level.INFO, "Saving note searchers");
 		} catch (Exception e) {
 			GuiLogger.getLogger().log(
 					Level.SEVERE,
@@ -1438,6 +1422,8 @@ public class Main {
 		
 		saveAllData();
 		
+		SaveUtils.getInstance().waitForSaves();
+		
 		Synchronizing.setSynchronizing(true);
 		
 		boolean result = false;
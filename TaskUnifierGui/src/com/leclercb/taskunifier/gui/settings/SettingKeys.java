@@ -0,0 +1,87 @@
+/*
+ * TaskUnifier
+ * Copyright (c) 2011, Benjamin Leclerc
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ *   - Neither the name of TaskUnifier or the names of its
+ *     contributors may be used to endorse or promote products derived
+ *     from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.leclercb.taskunifier.gui.settings;
+
+import com.leclercb.commons.api.properties.SettingKey;
+
+/**
+ * Typed keys of the settings read for each task, row or highlight. Their
+ * values are parsed once by the settings and kept until they change.
+ */
+public final class SettingKeys {
+	
+	private SettingKeys() {
+		
+	}
+	
+	public static final SettingKey<Boolean> DATE_USE_DUE_TIME = new SettingKey<Boolean>(
+			"date.use_due_time",
+			Boolean.class,
+			false);
+	
+	public static final SettingKey<Boolean> DATE_USE_START_TIME = new SettingKey<Boolean>(
+			"date.use_start_time",
+			Boolean.class,
+			false);
+	
+	public static final SettingKey<Integer> DATE_DAY_START_HOUR = new SettingKey<Integer>(
+			"date.day_start_hour",
+			Integer.class,
+			8);
+	
+	public static final SettingKey<Integer> DATE_DAY_END_HOUR = new SettingKey<Integer>(
+			"date.day_end_hour",
+			Integer.class,
+			18);
+	
+	public static final SettingKey<Boolean> TASK_INDENT_SUBTASKS = new SettingKey<Boolean>(
+			"task.indent_subtasks",
+			Boolean.class,
+			false);
+	
+	public static final SettingKey<Boolean> TASKSEARCHER_SHOW_COMPLETED_TASKS = new SettingKey<Boolean>(
+			"tasksearcher.show_completed_tasks",
+			Boolean.class,
+			false);
+	
+	public static final SettingKey<Boolean> TASKSEARCHER_SHOW_BADGES = new SettingKey<Boolean>(
+			"tasksearcher.show_badges",
+			Boolean.class,
+			false);
+	
+	public static final SettingKey<Boolean> NOTESEARCHER_SHOW_BADGES = new SettingKey<Boolean>(
+			"notesearcher.show_badges",
+			Boolean.class,
+			false);
+	
+}
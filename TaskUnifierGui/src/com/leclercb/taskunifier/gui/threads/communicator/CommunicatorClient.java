@@ -32,88 +32,181 @@
  */
 package com.leclercb.taskunifier.gui.threads.communicator;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import org.apache.commons.io.IOUtils;
-
-import com.leclercb.commons.gui.logger.GuiLogger;
-import com.leclercb.taskunifier.gui.actions.ActionImportComFile;
-import com.leclercb.taskunifier.gui.api.models.beans.ComBean;
-import com.leclercb.taskunifier.gui.constants.Constants;
-import com.leclercb.taskunifier.gui.swing.TUSwingUtilities;
-import com.leclercb.taskunifier.gui.threads.communicator.progress.CommunicatorDefaultProgressMessage;
-import com.leclercb.taskunifier.gui.translations.Translations;
-
-public class CommunicatorClient extends Thread {
+/**
+ * State of a connection accepted by the {@link CommunicatorThread}. The bytes
+ * read from the channel are accumulated until a complete message (ending with
+ * <code>&lt;/com&gt;</code>) is available.
+ */
+public class CommunicatorClient {
 	
-	private Socket socket;
-	private BufferedReader reader;
+	private static final byte[] MESSAGE_END;
 	
-	public CommunicatorClient(ThreadGroup group, Socket socket) {
-		super(group, "CommunicatorClient");
-		
+	static {
 		try {
-			this.socket = socket;
-			this.reader = new BufferedReader(new InputStreamReader(
-					socket.getInputStream(),
-					"UTF-8"));
+			MESSAGE_END = "</com>".getBytes("UTF-8");
 		} catch (Exception e) {
-			this.socket = null;
-			this.reader = null;
+			throw new RuntimeException(e);
 		}
 	}
 	
-	@Override
-	public void run() {
-		if (this.socket == null)
-			return;
+	private SocketChannel channel;
+	private int maxMessageSize;
+	
+	private byte[] data;
+	private int length;
+	private int scanned;
+	
+	private AtomicInteger pendingMessages;
+	
+	private LinkedList<byte[]> undecodedMessages;
+	private boolean decoding;
+	
+	public CommunicatorClient(SocketChannel channel, int maxMessageSize) {
+		this.channel = channel;
+		this.maxMessageSize = maxMessageSize;
 		
-		try {
-			String data = null;
-			StringBuffer buffer = new StringBuffer();
-			while ((data = this.reader.readLine()) != null) {
-				buffer.append(data.trim() + "\n");
-				
-				if (data.trim().endsWith("</com>")) {
-					this.handleMessage(buffer.toString());
-					buffer = new StringBuffer();
-				}
-			}
-		} catch (IOException e) {
-			
-		} finally {
-			this.socket = null;
-			this.reader = null;
+		this.data = new byte[1024];
+		this.length = 0;
+		this.scanned = 0;
+		
+		this.pendingMessages = new AtomicInteger();
+		
+		this.undecodedMessages = new LinkedList<byte[]>();
+		this.decoding = false;
+	}
+	
+	public SocketChannel getChannel() {
+		return this.channel;
+	}
+	
+	/**
+	 * Returns the number of messages of this client which have been framed but
+	 * not yet imported.
+	 */
+	public int getPendingMessages() {
+		return this.pendingMessages.get();
+	}
+	
+	void messageQueued() {
+		this.pendingMessages.incrementAndGet();
+	}
+	
+	void messageHandled() {
+		this.pendingMessages.decrementAndGet();
+	}
+	
+	/**
+	 * Queues a message to decode. The messages of a client are decoded one
+	 * after another so that they are imported in the order they were sent.
+	 * 
+	 * @return true if no message of this client is being decoded: the caller
+	 *         must then start decoding the messages
+	 */
+	synchronized boolean queueUndecodedMessage(byte[] message) {
+		this.undecodedMessages.add(message);
+		
+		if (this.decoding)
+			return false;
+		
+		this.decoding = true;
+		return true;
+	}
+	
+	/**
+	 * Returns the next message to decode, or null if there is none left. In
+	 * that case the client is no longer considered as being decoded.
+	 */
+	synchronized byte[] nextUndecodedMessage() {
+		if (this.undecodedMessages.isEmpty()) {
+			this.decoding = false;
+			return null;
 		}
+		
+		return this.undecodedMessages.removeFirst();
 	}
 	
-	private void handleMessage(final String message) {
-		TUSwingUtilities.invokeLater(new Runnable() {
+	/**
+	 * Appends the remaining bytes of the buffer and returns the messages which
+	 * have been completed.
+	 * 
+	 * @throws IOException
+	 *             if a message exceeds the maximum message size
+	 */
+	public List<byte[]> append(ByteBuffer buffer) throws IOException {
+		int count = buffer.remaining();
+		
+		if (this.length + count > this.data.length) {
+			byte[] newData = new byte[Math.max(
+					this.data.length * 2,
+					this.length + count)];
+			System.arraycopy(this.data, 0, newData, 0, this.length);
+			this.data = newData;
+		}
+		
+		buffer.get(this.data, this.length, count);
+		this.length += count;
+		
+		List<byte[]> messages = new ArrayList<byte[]>();
+		
+		int start = 0;
+		int i = Math.max(this.scanned - MESSAGE_END.length + 1, 0);
+		
+		for (; i <= this.length - MESSAGE_END.length; i++) {
+			if (!this.matchesMessageEnd(i))
+				continue;
+			
+			int end = i + MESSAGE_END.length;
+			
+			// Skip the line breaks separating two messages
+			while (start < i && (this.data[start] & 0xFF) <= ' ')
+				start++;
 			
-			@Override
-			public void run() {
-				try {
-					ComBean bean = ComBean.decodeFromXML(IOUtils.toInputStream(
-							message,
-							"UTF-8"));
-					
-					ActionImportComFile.importComBean(bean);
-					
-					return;
-				} catch (Exception e) {
-					
-				}
-				
-				Constants.PROGRESS_MONITOR.addMessage(new CommunicatorDefaultProgressMessage(
-						Translations.getString("error.unknown_message_format")));
-				
-				GuiLogger.getLogger().warning("Unknown message format");
-			}
+			byte[] message = new byte[end - start];
+			System.arraycopy(this.data, start, message, 0, message.length);
+			messages.add(message);
 			
-		});
+			start = end;
+			i = end - 1;
+		}
+		
+		if (start > 0) {
+			System.arraycopy(this.data, start, this.data, 0, this.length
+					- start);
+			this.length -= start;
+		}
+		
+		this.scanned = this.length;
+		
+		if (this.length > this.maxMessageSize)
+			throw new IOException("Message exceeds the maximum size of "
+					+ this.maxMessageSize
+					+ " bytes");
+		
+		return messages;
+	}
+	
+	private boolean matchesMessageEnd(int index) {
+		for (int j = 0; j < MESSAGE_END.length; j++)
+			if (this.data[index + j] != MESSAGE_END[j])
+				return false;
+		
+		return true;
+	}
+	
+	public void close() {
+		try {
+			this.channel.close();
+		} catch (IOException e) {
+			
+		}
 	}
 	
 }
@@ -32,68 +32,354 @@
  */
 package com.leclercb.taskunifier.gui.threads.communicator;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.net.ServerSocket;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
 
 import com.leclercb.commons.gui.logger.GuiLogger;
+import com.leclercb.taskunifier.gui.actions.ActionImportComFile;
+import com.leclercb.taskunifier.gui.api.models.beans.ComBean;
+import com.leclercb.taskunifier.gui.constants.Constants;
 import com.leclercb.taskunifier.gui.main.Main;
+import com.leclercb.taskunifier.gui.swing.TUSwingUtilities;
+import com.leclercb.taskunifier.gui.threads.communicator.progress.CommunicatorDefaultProgressMessage;
+import com.leclercb.taskunifier.gui.translations.Translations;
 
+/**
+ * Accepts the connections of the communicator and reads their messages on a
+ * single thread. The messages are decoded on a small pool of threads and
+ * imported in batches on the event dispatch thread. The messages of a
+ * connection are decoded one after another so that they are imported in the
+ * order they were sent.
+ */
 public class CommunicatorThread extends Thread {
 	
+	private static final int MAX_CONNECTIONS = 16;
+	private static final int MAX_MESSAGE_SIZE = 4 * 1024 * 1024;
+	
+	private static final int MAX_PENDING_MESSAGES = 64;
+	private static final int MAX_PENDING_MESSAGES_PER_CLIENT = 8;
+	
+	private static final int DECODER_THREADS = 2;
+	private static final int IMPORT_BATCH_SIZE = 50;
+	
+	private static final long SELECT_TIMEOUT = 1000;
+	
 	private int port;
-	private ThreadGroup group;
+	
+	private volatile Selector selector;
+	private ThreadPoolExecutor decoder;
+	
+	private AtomicInteger pendingMessages;
+	private ConcurrentLinkedQueue<DecodedMessage> decodedMessages;
+	private AtomicBoolean importScheduled;
 	
 	public CommunicatorThread() {
 		super("CommunicatorThread");
 		
 		this.port = Main.getSettings().getIntegerProperty(
 				"general.communicator.port");
-		this.group = new ThreadGroup("CommunicatorGroup");
+		
+		this.pendingMessages = new AtomicInteger();
+		this.decodedMessages = new ConcurrentLinkedQueue<DecodedMessage>();
+		this.importScheduled = new AtomicBoolean();
 	}
 	
 	@Override
 	public void interrupt() {
-		try {
-			this.group.interrupt();
-		} catch (Throwable t) {
-			
-		}
-		
 		if (this.isAlive())
 			GuiLogger.getLogger().info(
 					"Communicator closed on port " + this.port);
 		
 		super.interrupt();
+		
+		Selector selector = this.selector;
+		if (selector != null)
+			selector.wakeup();
 	}
 	
 	@Override
 	public void run() {
-		ServerSocket serverSocket = null;
+		ServerSocketChannel serverChannel = null;
 		
 		try {
-			serverSocket = new ServerSocket(this.port);
+			this.selector = Selector.open();
 			
-			GuiLogger.getLogger().info(
-					"Communicator initialized on port " + this.port);
+			serverChannel = ServerSocketChannel.open();
+			serverChannel.configureBlocking(false);
+			serverChannel.socket().bind(new InetSocketAddress(this.port));
+			serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+		} catch (Exception e) {
+			GuiLogger.getLogger().warning(
+					"Cannot initialize communicator on port " + this.port);
 			
+			this.close(serverChannel);
+			return;
+		}
+		
+		GuiLogger.getLogger().info(
+				"Communicator initialized on port " + this.port);
+		
+		this.decoder = new ThreadPoolExecutor(
+				DECODER_THREADS,
+				DECODER_THREADS,
+				30,
+				TimeUnit.SECONDS,
+				new ArrayBlockingQueue<Runnable>(MAX_PENDING_MESSAGES),
+				new DecoderThreadFactory(),
+				new ThreadPoolExecutor.CallerRunsPolicy());
+		this.decoder.allowCoreThreadTimeOut(true);
+		
+		ByteBuffer buffer = ByteBuffer.allocate(8192);
+		
+		try {
 			while (!this.isInterrupted()) {
-				CommunicatorClient client = new CommunicatorClient(
-						this.group,
-						serverSocket.accept());
+				this.updateInterestOps();
+				
+				this.selector.select(SELECT_TIMEOUT);
 				
-				client.start();
+				Iterator<SelectionKey> it = this.selector.selectedKeys().iterator();
+				while (it.hasNext()) {
+					SelectionKey key = it.next();
+					it.remove();
+					
+					if (!key.isValid())
+						continue;
+					
+					if (key.isAcceptable())
+						this.accept(serverChannel);
+					else if (key.isReadable())
+						this.read(key, buffer);
+				}
 			}
 		} catch (Exception e) {
 			GuiLogger.getLogger().warning(
-					"Cannot initialize communicator on port " + this.port);
+					"Communicator error on port " + this.port);
 		} finally {
+			for (SelectionKey key : this.selector.keys())
+				if (key.attachment() instanceof CommunicatorClient)
+					((CommunicatorClient) key.attachment()).close();
+			
+			this.close(serverChannel);
+			
 			try {
-				serverSocket.close();
+				this.selector.close();
 			} catch (IOException e) {
-				GuiLogger.getLogger().warning(
-						"Cannot close communicator on port " + this.port);
+				
+			}
+			
+			this.decoder.shutdownNow();
+		}
+	}
+	
+	private void close(ServerSocketChannel serverChannel) {
+		if (serverChannel == null)
+			return;
+		
+		try {
+			serverChannel.close();
+		} catch (IOException e) {
+			GuiLogger.getLogger().warning(
+					"Cannot close communicator on port " + this.port);
+		}
+	}
+	
+	private void accept(ServerSocketChannel serverChannel) throws IOException {
+		SocketChannel channel = serverChannel.accept();
+		
+		if (channel == null)
+			return;
+		
+		if (this.selector.keys().size() > MAX_CONNECTIONS) {
+			GuiLogger.getLogger().warning(
+					"Communicator connection refused: too many connections");
+			channel.close();
+			return;
+		}
+		
+		channel.configureBlocking(false);
+		channel.register(
+				this.selector,
+				SelectionKey.OP_READ,
+				new CommunicatorClient(channel, MAX_MESSAGE_SIZE));
+	}
+	
+	private void read(SelectionKey key, ByteBuffer buffer) {
+		CommunicatorClient client = (CommunicatorClient) key.attachment();
+		
+		try {
+			buffer.clear();
+			int count = client.getChannel().read(buffer);
+			
+			if (count < 0) {
+				key.cancel();
+				client.close();
+				return;
 			}
+			
+			buffer.flip();
+			
+			for (byte[] message : client.append(buffer))
+				this.decode(client, message);
+		} catch (IOException e) {
+			GuiLogger.getLogger().warning(
+					"Communicator connection closed: " + e.getMessage());
+			
+			key.cancel();
+			client.close();
 		}
 	}
 	
+	/**
+	 * Stops reading from the connections while too many messages are waiting
+	 * to be decoded or imported. The messages already framed are never
+	 * dropped: the remote applications are slowed down by TCP flow control.
+	 */
+	private void updateInterestOps() {
+		boolean full = this.pendingMessages.get() >= MAX_PENDING_MESSAGES;
+		
+		for (SelectionKey key : this.selector.keys()) {
+			if (!key.isValid()
+					|| !(key.attachment() instanceof CommunicatorClient))
+				continue;
+			
+			CommunicatorClient client = (CommunicatorClient) key.attachment();
+			
+			boolean read = !full
+					&& client.getPendingMessages() < MAX_PENDING_MESSAGES_PER_CLIENT;
+			
+			int ops = (read ? SelectionKey.OP_READ : 0);
+			if (key.interestOps() != ops)
+				key.interestOps(ops);
+		}
+	}
+	
+	private void decode(final CommunicatorClient client, byte[] message) {
+		client.messageQueued();
+		this.pendingMessages.incrementAndGet();
+		
+		if (!client.queueUndecodedMessage(message))
+			return;
+		
+		this.decoder.execute(new Runnable() {
+			
+			@Override
+			public void run() {
+				byte[] message = null;
+				while ((message = client.nextUndecodedMessage()) != null) {
+					ComBean bean = null;
+					
+					try {
+						bean = ComBean.decodeFromXML(new ByteArrayInputStream(
+								message));
+					} catch (Throwable t) {
+						GuiLogger.getLogger().log(
+								Level.WARNING,
+								"Unknown message format",
+								t);
+					}
+					
+					CommunicatorThread.this.decodedMessages.add(new DecodedMessage(
+							client,
+							bean));
+					CommunicatorThread.this.scheduleImport();
+				}
+			}
+			
+		});
+	}
+	
+	private void scheduleImport() {
+		if (!this.importScheduled.compareAndSet(false, true))
+			return;
+		
+		TUSwingUtilities.invokeLater(new Runnable() {
+			
+			@Override
+			public void run() {
+				CommunicatorThread.this.importDecodedMessages();
+			}
+			
+		});
+	}
+	
+	private void importDecodedMessages() {
+		this.importScheduled.set(false);
+		
+		List<DecodedMessage> messages = new ArrayList<DecodedMessage>();
+		
+		DecodedMessage message = null;
+		while (messages.size() < IMPORT_BATCH_SIZE
+				&& (message = this.decodedMessages.poll()) != null)
+			messages.add(message);
+		
+		List<ComBean> beans = new ArrayList<ComBean>();
+		
+		for (DecodedMessage m : messages) {
+			m.client.messageHandled();
+			this.pendingMessages.decrementAndGet();
+			
+			if (m.bean != null) {
+				beans.add(m.bean);
+				continue;
+			}
+			
+			// The decoding error has been logged by the decoder thread
+			Constants.PROGRESS_MONITOR.addMessage(new CommunicatorDefaultProgressMessage(
+					Translations.getString("error.unknown_message_format")));
+		}
+		
+		ActionImportComFile.importComBeans(beans);
+		
+		if (!this.decodedMessages.isEmpty())
+			this.scheduleImport();
+		
+		// Resume reading if the backpressure limits were reached
+		Selector selector = this.selector;
+		if (selector != null)
+			selector.wakeup();
+	}
+	
+	private static class DecodedMessage {
+		
+		private CommunicatorClient client;
+		private ComBean bean;
+		
+		public DecodedMessage(CommunicatorClient client, ComBean bean) {
+			this.client = client;
+			this.bean = bean;
+		}
+		
+	}
+	
+	private static class DecoderThreadFactory implements ThreadFactory {
+		
+		private AtomicInteger count = new AtomicInteger();
+		
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "CommunicatorDecoder-"
+					+ this.count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+		
+	}
+	
 }
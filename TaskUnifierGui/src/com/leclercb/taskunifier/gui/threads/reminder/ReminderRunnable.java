@@ -35,44 +35,79 @@ package com.leclercb.taskunifier.gui.threads.reminder;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
 
 import javax.swing.SwingUtilities;
 
 import com.leclercb.commons.api.event.listchange.ListChangeEvent;
 import com.leclercb.commons.api.event.listchange.ListChangeListener;
+import com.leclercb.taskunifier.api.models.Model;
 import com.leclercb.taskunifier.api.models.Task;
 import com.leclercb.taskunifier.api.models.TaskFactory;
 import com.leclercb.taskunifier.gui.actions.ActionTaskReminders;
 import com.leclercb.taskunifier.gui.components.reminder.ReminderDialog;
 import com.leclercb.taskunifier.gui.components.synchronize.Synchronizing;
 import com.leclercb.taskunifier.gui.constants.Constants;
+import com.leclercb.taskunifier.gui.main.Main;
 import com.leclercb.taskunifier.gui.threads.reminder.progress.ReminderDefaultProgressMessage;
 import com.leclercb.taskunifier.gui.utils.TaskUtils;
 
+/**
+ * Notifies the reminders of the tasks. The next reminder time of each task is
+ * kept in a priority queue which is updated when a task changes. The thread
+ * sleeps until the first reminder of the queue.
+ */
 class ReminderRunnable implements Runnable, PropertyChangeListener, ListChangeListener {
 	
 	private static final long SLEEP_TIME = 10000;
 	
-	private List<Task> notifiedTasks;
+	private static final long MAX_SLEEP_TIME = 60000;
+	
+	private Set<Task> notifiedTasks;
+	
+	private PriorityQueue<Reminder> reminders;
+	private Map<Task, Long> reminderVersions;
+	private long nextReminderVersion;
 	
 	public ReminderRunnable() {
-		this.notifiedTasks = new ArrayList<Task>();
+		this.notifiedTasks = Collections.newSetFromMap(new IdentityHashMap<Task, Boolean>());
+		
+		this.reminders = new PriorityQueue<Reminder>();
+		this.reminderVersions = new IdentityHashMap<Task, Long>();
+		this.nextReminderVersion = 0;
+		
+		this.scheduleAll();
+		
 		TaskFactory.getInstance().addListChangeListener(this);
 		TaskFactory.getInstance().addPropertyChangeListener(this);
+		
+		Main.getSettings().addPropertyChangeListener(
+				new PropertyChangeListener() {
+					
+					@Override
+					public void propertyChange(PropertyChangeEvent evt) {
+						if (evt.getPropertyName().equals("date.use_start_time")
+								|| evt.getPropertyName().equals(
+										"date.use_due_time"))
+							ReminderRunnable.this.scheduleAll();
+					}
+					
+				});
 	}
 	
 	@Override
 	public void run() {
 		while (!Thread.currentThread().isInterrupted()) {
 			try {
-				Thread.sleep(SLEEP_TIME);
-				
-				if (Synchronizing.isSynchronizing())
-					continue;
+				List<Task> tasks = this.waitForReminders();
 				
 				boolean reminders = false;
-				List<Task> tasks = TaskFactory.getInstance().getList();
 				
 				synchronized (this) {
 					for (final Task task : tasks) {
@@ -84,7 +119,6 @@ class ReminderRunnable implements Runnable, PropertyChangeListener, ListChangeLi
 						
 						if (TaskUtils.isInStartDateReminderZone(task)
 								|| TaskUtils.isInDueDateReminderZone(task)) {
-							this.notifiedTasks.remove(task);
 							this.notifiedTasks.add(task);
 							
 							ReminderDialog.getInstance().getReminderPanel().getReminderList().addTask(
@@ -114,12 +148,157 @@ class ReminderRunnable implements Runnable, PropertyChangeListener, ListChangeLi
 		}
 	}
 	
+	/**
+	 * Waits until the time of the first reminder of the queue and returns the
+	 * tasks whose reminder time is reached. The reminders are delayed while
+	 * synchronizing.
+	 */
+	private synchronized List<Task> waitForReminders()
+			throws InterruptedException {
+		while (true) {
+			Reminder reminder = this.reminders.peek();
+			long now = System.currentTimeMillis();
+			
+			if (reminder == null) {
+				this.wait(MAX_SLEEP_TIME);
+				continue;
+			}
+			
+			if (reminder.time > now) {
+				this.wait(Math.min(reminder.time - now, MAX_SLEEP_TIME));
+				continue;
+			}
+			
+			if (Synchronizing.isSynchronizing()) {
+				this.wait(SLEEP_TIME);
+				continue;
+			}
+			
+			List<Task> tasks = new ArrayList<Task>();
+			
+			while (!this.reminders.isEmpty()
+					&& this.reminders.peek().time <= now) {
+				reminder = this.reminders.poll();
+				
+				if (this.isObsolete(reminder))
+					continue;
+				
+				tasks.add(reminder.task);
+			}
+			
+			return tasks;
+		}
+	}
+	
+	private synchronized void scheduleAll() {
+		this.reminders.clear();
+		this.reminderVersions.clear();
+		
+		for (Task task : TaskFactory.getInstance().getList())
+			this.schedule(task);
+	}
+	
+	/**
+	 * Replaces the reminders of the task in the queue. The task will be checked
+	 * with {@link TaskUtils#isInStartDateReminderZone(Task)} and
+	 * {@link TaskUtils#isInDueDateReminderZone(Task)} at the reminder times.
+	 */
+	private synchronized void schedule(Task task) {
+		long version = this.nextReminderVersion++;
+		this.reminderVersions.put(task, version);
+		
+		this.purge();
+		
+		if (!task.getModelStatus().isEndUserStatus() || task.isCompleted())
+			return;
+		
+		this.schedule(
+				task,
+				version,
+				task.getStartDate(),
+				task.getStartDateReminder(),
+				Main.getSettings().getBooleanProperty("date.use_start_time"));
+		
+		this.schedule(
+				task,
+				version,
+				task.getDueDate(),
+				task.getDueDateReminder(),
+				Main.getSettings().getBooleanProperty("date.use_due_time"));
+	}
+	
+	private void schedule(
+			Task task,
+			long version,
+			Calendar date,
+			int reminder,
+			boolean useTime) {
+		if (date == null || reminder == 0)
+			return;
+		
+		if (!useTime) {
+			date.set(
+					date.get(Calendar.YEAR),
+					date.get(Calendar.MONTH),
+					date.get(Calendar.DAY_OF_MONTH),
+					0,
+					0,
+					0);
+		}
+		
+		date.add(Calendar.MINUTE, -reminder);
+		
+		Reminder first = this.reminders.peek();
+		
+		this.reminders.add(new Reminder(task, version, date.getTimeInMillis()));
+		
+		// Wake up the thread if this reminder is the first one
+		if (first == null || this.reminders.peek() != first)
+			this.notifyAll();
+	}
+	
+	private synchronized void unschedule(Task task) {
+		this.reminderVersions.remove(task);
+	}
+	
+	/**
+	 * Returns true if the task of the reminder has been scheduled again or
+	 * removed since the reminder was added.
+	 */
+	private boolean isObsolete(Reminder reminder) {
+		Long version = this.reminderVersions.get(reminder.task);
+		return version == null || version != reminder.version;
+	}
+	
+	/**
+	 * Removes the obsolete reminders when they are the majority of the queue
+	 * (they are otherwise removed when their time is reached).
+	 */
+	private void purge() {
+		if (this.reminders.size() <= 2 * this.reminderVersions.size() + 64)
+			return;
+		
+		PriorityQueue<Reminder> reminders = new PriorityQueue<Reminder>(
+				2 * this.reminderVersions.size() + 1);
+		
+		for (Reminder reminder : this.reminders)
+			if (!this.isObsolete(reminder))
+				reminders.add(reminder);
+		
+		this.reminders = reminders;
+	}
+	
 	@Override
-	public void listChange(ListChangeEvent evt) {
+	public synchronized void listChange(ListChangeEvent evt) {
+		if (evt.getChangeType() == ListChangeEvent.VALUE_ADDED) {
+			this.schedule((Task) evt.getValue());
+		}
+		
 		if (evt.getChangeType() == ListChangeEvent.VALUE_REMOVED) {
 			ReminderDialog.getInstance().getReminderPanel().getReminderList().removeTask(
 					(Task) evt.getValue());
 			this.notifiedTasks.remove(evt.getValue());
+			this.unschedule((Task) evt.getValue());
 		}
 	}
 	
@@ -134,7 +313,37 @@ class ReminderRunnable implements Runnable, PropertyChangeListener, ListChangeLi
 			ReminderDialog.getInstance().getReminderPanel().getReminderList().removeTask(
 					(Task) evt.getSource());
 			this.notifiedTasks.remove(evt.getSource());
+			this.schedule((Task) evt.getSource());
+			return;
+		}
+		
+		if (evt.getPropertyName().equals(Model.PROP_MODEL_STATUS))
+			this.schedule((Task) evt.getSource());
+	}
+	
+	private static class Reminder implements Comparable<Reminder> {
+		
+		private Task task;
+		private long version;
+		private long time;
+		
+		public Reminder(Task task, long version, long time) {
+			this.task = task;
+			this.version = version;
+			this.time = time;
+		}
+		
+		@Override
+		public int compareTo(Reminder reminder) {
+			if (this.time < reminder.time)
+				return -1;
+			
+			if (this.time > reminder.time)
+				return 1;
+			
+			return 0;
 		}
+		
 	}
 	
 }
@@ -46,6 +46,7 @@ import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.Condition;
 import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.DaysCondition;
 import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.EnumCondition;
 import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.ModelCondition;
+import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.ModelSetCondition;
 import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.NumberCondition;
 import com.leclercb.taskunifier.gui.api.searchers.filters.conditions.StringCondition;
 import com.leclercb.taskunifier.gui.utils.SynchronizerUtils;
@@ -279,6 +280,15 @@ public final class TranslationsUtils {
 			}
 		}
 		
+		if (condition instanceof ModelSetCondition) {
+			switch ((ModelSetCondition) condition) {
+				case IN:
+					return Translations.getString("filter_condition.in");
+				case NOT_IN:
+					return Translations.getString("filter_condition.not_in");
+			}
+		}
+		
 		if (condition instanceof NumberCondition) {
 			switch ((NumberCondition) condition) {
 				case EQUALS:
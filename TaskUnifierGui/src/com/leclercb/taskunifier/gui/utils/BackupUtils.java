@@ -34,13 +34,29 @@ package com.leclercb.taskunifier.gui.utils;
 
 import java.io.File;
 import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.jdesktop.swingx.JXErrorPane;
 import org.jdesktop.swingx.error.ErrorInfo;
 
@@ -52,12 +68,30 @@ import com.leclercb.taskunifier.gui.components.synchronize.Synchronizing;
 import com.leclercb.taskunifier.gui.main.Main;
 import com.leclercb.taskunifier.gui.main.MainFrame;
 import com.leclercb.taskunifier.gui.translations.Translations;
+import com.leclercb.taskunifier.gui.utils.SaveUtils.SaveBatch;
+import com.leclercb.taskunifier.gui.utils.SaveUtils.SaveContent;
 
+/**
+ * Creates and restores the backups of the user data.
+ * 
+ * Each backup folder contains an index file which maps the name of every
+ * backed up file to the SHA-1 of its content. The contents are stored
+ * compressed in the shared "objects" folder and named after their SHA-1, so a
+ * file which did not change between two backups is only stored once. The
+ * backups are written on the save thread (see {@link SaveUtils}). Backups
+ * created before this format contain the plain files and can still be
+ * restored.
+ */
 public final class BackupUtils {
 	
 	private static final SimpleDateFormat FORMAT = new SimpleDateFormat(
 			"yyyyMMdd_HHmmss");
 	
+	private static final String INDEX_FILE = "backup.index";
+	private static final String OBJECTS_FOLDER = "objects";
+	private static final String OBJECT_EXTENSION = ".gz";
+	private static final String TMP_EXTENSION = ".tmp";
+	
 	private static BackupUtils INSTANCE;
 	
 	public static BackupUtils getInstance() {
@@ -160,7 +194,28 @@ public final class BackupUtils {
 		
 		String folder = Main.getBackupFolder() + File.separator + backupName;
 		
-		Main.copyAllData(folder);
+		final Map<String, SaveContent> contents = Main.copyAllData();
+		
+		SaveBatch batch = new SaveBatch();
+		batch.write(new File(folder, INDEX_FILE), new SaveContent() {
+			
+			@Override
+			public void write(OutputStream output) throws Exception {
+				BackupUtils.this.deleteUnusedObjects();
+				
+				Properties index = new Properties();
+				
+				for (Map.Entry<String, SaveContent> entry : contents.entrySet())
+					index.setProperty(
+							entry.getKey(),
+							BackupUtils.this.writeObject(entry.getValue()));
+				
+				index.store(output, "Backup index");
+			}
+			
+		});
+		
+		SaveUtils.getInstance().save(batch);
 		
 		this.listChangeSupport.fireListChange(
 				ListChangeEvent.VALUE_ADDED,
@@ -176,24 +231,202 @@ public final class BackupUtils {
 		if (!this.checkBackupName(backupName, false))
 			return false;
 		
+		// The backup may still be written by the save thread
+		SaveUtils.getInstance().waitForSaves();
+		
+		String folder = Main.getBackupFolder() + File.separator + backupName;
+		File extractFolder = null;
+		
+		if (new File(folder, INDEX_FILE).exists()) {
+			try {
+				extractFolder = this.extractBackup(new File(folder));
+				folder = extractFolder.getAbsolutePath();
+			} catch (Exception e) {
+				GuiLogger.getLogger().log(
+						Level.SEVERE,
+						"Cannot extract backup: " + backupName,
+						e);
+				
+				ErrorInfo info = new ErrorInfo(
+						Translations.getString("general.error"),
+						e.getMessage(),
+						null,
+						null,
+						e,
+						null,
+						null);
+				
+				JXErrorPane.showDialog(MainFrame.getInstance().getFrame(), info);
+				
+				return false;
+			}
+		}
+		
 		SynchronizerUtils.resetAllSynchronizersAndDeleteModels();
 		
 		Synchronizing.setSynchronizing(true);
 		
 		try {
-			String folder = Main.getBackupFolder()
-					+ File.separator
-					+ backupName;
 			SynchronizerUtils.setTaskRepeatEnabled(false);
 			Main.loadAllData(folder);
 			SynchronizerUtils.setTaskRepeatEnabled(true);
 		} finally {
 			Synchronizing.setSynchronizing(false);
+			
+			if (extractFolder != null)
+				FileUtils.deleteQuietly(extractFolder);
 		}
 		
 		return true;
 	}
 	
+	/**
+	 * Decompresses the files of the given backup in a temporary folder.
+	 */
+	private File extractBackup(File backupFolder) throws Exception {
+		Properties index = this.readIndex(backupFolder);
+		
+		File extractFolder = File.createTempFile("taskunifier_backup_", "");
+		extractFolder.delete();
+		
+		if (!extractFolder.mkdir())
+			throw new IOException("Cannot create folder " + extractFolder);
+		
+		try {
+			for (String fileName : index.stringPropertyNames()) {
+				File object = this.getObjectFile(index.getProperty(fileName));
+				
+				InputStream input = null;
+				OutputStream output = null;
+				
+				try {
+					input = new GZIPInputStream(new FileInputStream(object));
+					output = new FileOutputStream(new File(
+							extractFolder,
+							fileName));
+					
+					IOUtils.copy(input, output);
+				} finally {
+					IOUtils.closeQuietly(input);
+					IOUtils.closeQuietly(output);
+				}
+			}
+		} catch (Exception e) {
+			FileUtils.deleteQuietly(extractFolder);
+			throw e;
+		}
+		
+		return extractFolder;
+	}
+	
+	private Properties readIndex(File backupFolder) throws Exception {
+		Properties index = new Properties();
+		InputStream input = new FileInputStream(new File(
+				backupFolder,
+				INDEX_FILE));
+		
+		try {
+			index.load(input);
+		} finally {
+			input.close();
+		}
+		
+		return index;
+	}
+	
+	private File getObjectsFolder() {
+		return new File(Main.getBackupFolder(), OBJECTS_FOLDER);
+	}
+	
+	private File getObjectFile(String hash) {
+		return new File(this.getObjectsFolder(), hash + OBJECT_EXTENSION);
+	}
+	
+	/**
+	 * Deletes the objects which are not referenced by any backup. Must be
+	 * called on the save thread so that no backup is being written.
+	 */
+	private void deleteUnusedObjects() {
+		File[] objects = this.getObjectsFolder().listFiles();
+		
+		if (objects == null)
+			return;
+		
+		Set<String> usedObjects = new HashSet<String>();
+		
+		for (String backupName : this.getBackupList()) {
+			File backupFolder = new File(Main.getBackupFolder(), backupName);
+			
+			if (!new File(backupFolder, INDEX_FILE).exists())
+				continue;
+			
+			try {
+				Properties index = this.readIndex(backupFolder);
+				
+				for (String fileName : index.stringPropertyNames())
+					usedObjects.add(index.getProperty(fileName)
+							+ OBJECT_EXTENSION);
+			} catch (Exception e) {
+				// Keep all the objects if an index cannot be read
+				return;
+			}
+		}
+		
+		for (File object : objects) {
+			if (!usedObjects.contains(object.getName()))
+				object.delete();
+		}
+	}
+	
+	/**
+	 * Compresses the given content into the objects folder and returns its
+	 * SHA-1. The object is not written again if it already exists.
+	 */
+	private String writeObject(SaveContent content) throws Exception {
+		File objectsFolder = this.getObjectsFolder();
+		
+		if (!objectsFolder.exists() && !objectsFolder.mkdirs())
+			throw new IOException("Cannot create folder " + objectsFolder);
+		
+		File tmpFile = File.createTempFile(
+				"object_",
+				TMP_EXTENSION,
+				objectsFolder);
+		
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			FileOutputStream output = new FileOutputStream(tmpFile);
+			
+			try {
+				GZIPOutputStream gzip = new GZIPOutputStream(output);
+				DigestOutputStream digestOutput = new DigestOutputStream(
+						gzip,
+						digest);
+				
+				content.write(digestOutput);
+				
+				digestOutput.flush();
+				gzip.finish();
+				output.getFD().sync();
+			} finally {
+				output.close();
+			}
+			
+			String hash = Hex.encodeHexString(digest.digest());
+			File object = this.getObjectFile(hash);
+			
+			if (!object.exists() && !tmpFile.renameTo(object))
+				throw new IOException("Cannot rename "
+						+ tmpFile
+						+ " to "
+						+ object);
+			
+			return hash;
+		} finally {
+			tmpFile.delete();
+		}
+	}
+	
 	public void removeBackup(String backupName) {
 		if (!this.checkBackupName(backupName, false))
 			return;
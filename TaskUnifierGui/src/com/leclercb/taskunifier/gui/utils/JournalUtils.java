@@ -0,0 +1,482 @@
+/*
+ * TaskUnifier
+ * Copyright (c) 2011, Benjamin Leclerc
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ *   - Neither the name of TaskUnifier or the names of its
+ *     contributors may be used to endorse or promote products derived
+ *     from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.leclercb.taskunifier.gui.utils;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+
+import com.leclercb.commons.api.utils.CheckUtils;
+import com.leclercb.commons.api.utils.EqualsUtils;
+import com.leclercb.commons.gui.logger.GuiLogger;
+import com.leclercb.taskunifier.api.models.AbstractModelFactory;
+import com.leclercb.taskunifier.api.models.Model;
+import com.leclercb.taskunifier.api.models.ModelFactoryJournal;
+import com.leclercb.taskunifier.api.models.beans.ModelBean;
+import com.leclercb.taskunifier.gui.main.Main;
+import com.leclercb.taskunifier.gui.utils.SaveUtils.SaveBatch;
+import com.leclercb.taskunifier.gui.utils.SaveUtils.SaveContent;
+
+/**
+ * Saves the model factories incrementally. Each save appends the models
+ * changed since the previous save to a journal next to the factory XML file.
+ * When the journal grows too large compared to the XML file, the XML file is
+ * rewritten and the journal is discarded.
+ */
+public final class JournalUtils {
+	
+	private static final String JOURNAL_EXTENSION = ".journal";
+	
+	private static JournalUtils INSTANCE;
+	
+	public static JournalUtils getInstance() {
+		if (INSTANCE == null)
+			INSTANCE = new JournalUtils();
+		
+		return INSTANCE;
+	}
+	
+	private Map<String, FactoryJournal<?, ?>> journals;
+	
+	private JournalUtils() {
+		this.journals = new HashMap<String, FactoryJournal<?, ?>>();
+	}
+	
+	/**
+	 * Starts recording the changes of the given factory. The factory is saved
+	 * to the given file name in the user folder.
+	 */
+	public synchronized <M extends Model, MB extends ModelBean> void register(
+			String fileName,
+			AbstractModelFactory<?, ?, M, MB> factory) {
+		CheckUtils.isNotNull(fileName);
+		CheckUtils.isNotNull(factory);
+		
+		this.journals.put(fileName, new FactoryJournal<M, MB>(
+				fileName,
+				new ModelFactoryJournal<M, MB>(factory)));
+		
+		// The models referring to a model are not journaled when its id is
+		// replaced (by a synchronizer for example): the files of all the
+		// factories must be fully written by the next save
+		factory.addPropertyChangeListener(
+				Model.PROP_MODEL_ID,
+				new PropertyChangeListener() {
+					
+					@Override
+					public void propertyChange(PropertyChangeEvent evt) {
+						if (evt.getOldValue() != null)
+							JournalUtils.this.invalidateAll();
+					}
+					
+				});
+	}
+	
+	/**
+	 * Loads the factories of the given files from the given folder in two
+	 * phases. The XML files and their journals are first parsed to beans in
+	 * parallel (one thread per file), then the models are created on the
+	 * calling thread in the given order, so the models referenced by a file
+	 * must be listed before it. The factory of a file which cannot be parsed is
+	 * left unchanged.
+	 * 
+	 * @return the errors by file name
+	 */
+	public Map<String, Throwable> load(String folder, String... fileNames) {
+		Map<String, Throwable> errors = new LinkedHashMap<String, Throwable>();
+		List<ParseThread> threads = new ArrayList<ParseThread>();
+		
+		long start = System.currentTimeMillis();
+		
+		for (String fileName : fileNames) {
+			FactoryJournal<?, ?> journal = this.getJournal(fileName);
+			
+			if (journal == null)
+				throw new IllegalArgumentException("Unknown file name: "
+						+ fileName);
+			
+			ParseThread thread = new ParseThread(journal, folder);
+			thread.start();
+			threads.add(thread);
+		}
+		
+		StringBuffer parseTimes = new StringBuffer();
+		boolean interrupted = false;
+		
+		for (ParseThread thread : threads) {
+			// The parsed beans cannot be used before the thread is finished
+			while (thread.isAlive()) {
+				try {
+					thread.join();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			
+			parseTimes.append(", " + thread.journal.fileName + ": "
+					+ thread.duration + " ms");
+		}
+		
+		if (interrupted)
+			Thread.currentThread().interrupt();
+		
+		long parsed = System.currentTimeMillis();
+		
+		for (ParseThread thread : threads) {
+			if (thread.exception != null) {
+				errors.put(thread.journal.fileName, thread.exception);
+				thread.journal.parseFailed(folder);
+				continue;
+			}
+			
+			try {
+				thread.materialize();
+			} catch (Exception e) {
+				errors.put(thread.journal.fileName, e);
+			}
+		}
+		
+		long end = System.currentTimeMillis();
+		
+		GuiLogger.getLogger().info(
+				"Models loaded ("
+						+ folder
+						+ "): parsed in "
+						+ (parsed - start)
+						+ " ms ("
+						+ parseTimes.substring(2)
+						+ "), created in "
+						+ (end - parsed)
+						+ " ms");
+		
+		return errors;
+	}
+	
+	/**
+	 * Adds the files to write to save the factory to the given batch. Only the
+	 * changes are written if the folder is the user folder and the journal is
+	 * valid. The beans are created on the calling thread.
+	 */
+	public void save(String folder, String fileName, SaveBatch batch)
+			throws Exception {
+		FactoryJournal<?, ?> journal = this.getJournal(fileName);
+		
+		if (journal == null)
+			throw new IllegalArgumentException("Unknown file name: "
+					+ fileName);
+		
+		journal.save(folder, batch);
+	}
+	
+	/**
+	 * Returns the full content of the XML file of the factory. The beans are
+	 * created on the calling thread.
+	 */
+	public SaveContent snapshot(String fileName) {
+		FactoryJournal<?, ?> journal = this.getJournal(fileName);
+		
+		if (journal == null)
+			throw new IllegalArgumentException("Unknown file name: "
+					+ fileName);
+		
+		return journal.snapshot();
+	}
+	
+	private synchronized FactoryJournal<?, ?> getJournal(String fileName) {
+		return this.journals.get(fileName);
+	}
+	
+	private synchronized void invalidateAll() {
+		for (FactoryJournal<?, ?> journal : this.journals.values())
+			journal.journal.invalidate();
+	}
+	
+	private static boolean isUserFolder(String folder) {
+		return EqualsUtils.equals(
+				new File(folder).getAbsoluteFile(),
+				new File(Main.getUserFolder()).getAbsoluteFile());
+	}
+	
+	private static class FactoryJournal<M extends Model, MB extends ModelBean> {
+		
+		private String fileName;
+		private ModelFactoryJournal<M, MB> journal;
+		private boolean parseFailed;
+		
+		public FactoryJournal(String fileName, ModelFactoryJournal<M, MB> journal) {
+			this.fileName = fileName;
+			this.journal = journal;
+			this.parseFailed = false;
+		}
+		
+		/**
+		 * Reads the XML file and its journal. Does not modify the factory and
+		 * can be called on any thread.
+		 */
+		public ParsedFactory<MB> parse(String folder) throws Exception {
+			AbstractModelFactory<?, ?, M, MB> factory = this.journal.getFactory();
+			
+			ParsedFactory<MB> parsed = new ParsedFactory<MB>(folder);
+			
+			File file = new File(folder, this.fileName);
+			
+			if (file.exists()) {
+				InputStream input = new FileInputStream(file);
+				
+				try {
+					parsed.beans.addAll(Arrays.asList(factory.decodeBeansFromXML(input)));
+				} finally {
+					input.close();
+				}
+			}
+			
+			File journalFile = new File(folder, this.fileName
+					+ JOURNAL_EXTENSION);
+			
+			if (journalFile.exists()) {
+				InputStream input = new FileInputStream(journalFile);
+				
+				try {
+					List<MB> beans = this.journal.decodeChangeBeansFromXML(input);
+					parsed.beans.addAll(beans);
+					parsed.journal = true;
+					
+					GuiLogger.getLogger().info(
+							"Journal replayed: "
+									+ journalFile
+									+ " ("
+									+ beans.size()
+									+ " models)");
+				} finally {
+					input.close();
+				}
+			}
+			
+			return parsed;
+		}
+		
+		/**
+		 * Replaces the models of the factory by the parsed ones.
+		 */
+		public void materialize(ParsedFactory<MB> parsed) {
+			AbstractModelFactory<?, ?, M, MB> factory = this.journal.getFactory();
+			
+			this.journal.invalidate();
+			
+			factory.deleteAll();
+			factory.decodeBeans(parsed.beans);
+			
+			// Removes the models deleted by the journal
+			if (parsed.journal)
+				factory.cleanFactory();
+			
+			// A replayed journal is left invalid so that the next save writes
+			// the full XML file and deletes the journal: nothing is appended
+			// after a truncated entry
+			if (isUserFolder(parsed.folder) && !parsed.journal)
+				this.journal.reset();
+			
+			this.parseFailed = false;
+		}
+		
+		/**
+		 * Keeps the XML file of the user folder from being overwritten until
+		 * it has been loaded.
+		 */
+		public void parseFailed(String folder) {
+			if (isUserFolder(folder))
+				this.parseFailed = true;
+		}
+		
+		public void save(String folder, SaveBatch batch) throws Exception {
+			AbstractModelFactory<?, ?, M, MB> factory = this.journal.getFactory();
+			
+			File file = new File(folder, this.fileName);
+			File journalFile = new File(folder, this.fileName
+					+ JOURNAL_EXTENSION);
+			
+			if (!isUserFolder(folder)) {
+				batch.write(file, this.snapshot(factory));
+				return;
+			}
+			
+			// The changes added to the batch are removed from the journal: if
+			// the batch fails, the next save must write the full XML file
+			batch.addFailureHandler(new Runnable() {
+				
+				@Override
+				public void run() {
+					FactoryJournal.this.journal.invalidate();
+				}
+				
+			});
+			
+			if (this.parseFailed) {
+				// The factory does not contain the models of the XML file: the
+				// changes are only appended to the journal
+				if (this.journal.getChangeCount() != 0)
+					batch.append(journalFile, this.encode(
+							factory,
+							this.journal.snapshotChanges()));
+				
+				return;
+			}
+			
+			if (this.journal.isInvalid()) {
+				// The journal does not match the XML file anymore
+				this.journal.reset();
+				
+				// The journal is deleted once the XML file contains its changes
+				batch.write(file, this.snapshot(factory));
+				batch.delete(journalFile);
+				
+				return;
+			}
+			
+			int changeCount = this.journal.getChangeCount();
+			
+			if (changeCount != 0)
+				batch.append(journalFile, this.encode(
+						factory,
+						this.journal.snapshotChanges()));
+			
+			// The file sizes are the ones of the previous save
+			if (!file.exists()
+					|| changeCount > factory.size() / 2
+					|| journalFile.length() > file.length() / 2) {
+				// The journal is deleted once the XML file contains its changes
+				batch.write(file, this.snapshot(factory));
+				batch.delete(journalFile);
+			}
+		}
+		
+		public SaveContent snapshot() {
+			return this.snapshot(this.journal.getFactory());
+		}
+		
+		@SuppressWarnings("unchecked")
+		private SaveContent snapshot(AbstractModelFactory<?, ?, M, MB> factory) {
+			List<MB> beans = new ArrayList<MB>();
+			for (M model : factory.getList()) {
+				try {
+					beans.add((MB) model.toBean());
+				} catch (Exception e) {
+					GuiLogger.getLogger().log(
+							Level.SEVERE,
+							"Cannot encode model",
+							e);
+				}
+			}
+			
+			return this.encode(factory, beans);
+		}
+		
+		@SuppressWarnings("unchecked")
+		private SaveContent encode(
+				final AbstractModelFactory<?, ?, M, MB> factory,
+				List<MB> beans) {
+			final MB[] array = beans.toArray((MB[]) new ModelBean[beans.size()]);
+			
+			return new SaveContent() {
+				
+				@Override
+				public void write(OutputStream output) throws Exception {
+					factory.encodeBeansToXML(output, array);
+				}
+				
+			};
+		}
+		
+	}
+	
+	private static class ParsedFactory<MB extends ModelBean> {
+		
+		private String folder;
+		private List<MB> beans;
+		private boolean journal;
+		
+		public ParsedFactory(String folder) {
+			this.folder = folder;
+			this.beans = new ArrayList<MB>();
+			this.journal = false;
+		}
+		
+	}
+	
+	private static class ParseThread extends Thread {
+		
+		private FactoryJournal<?, ?> journal;
+		private String folder;
+		
+		private ParsedFactory<?> parsed;
+		private Throwable exception;
+		private long duration;
+		
+		public ParseThread(FactoryJournal<?, ?> journal, String folder) {
+			super("Load " + journal.fileName);
+			
+			this.journal = journal;
+			this.folder = folder;
+		}
+		
+		@Override
+		public void run() {
+			long start = System.currentTimeMillis();
+			
+			try {
+				this.parsed = this.journal.parse(this.folder);
+			} catch (Throwable t) {
+				this.exception = t;
+			}
+			
+			this.duration = System.currentTimeMillis() - start;
+		}
+		
+		@SuppressWarnings({ "rawtypes", "unchecked" })
+		public void materialize() {
+			((FactoryJournal) this.journal).materialize(this.parsed);
+		}
+		
+	}
+	
+}
@@ -0,0 +1,446 @@
+/*
+ * TaskUnifier
+ * Copyright (c) 2011, Benjamin Leclerc
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *
+ *   - Neither the name of TaskUnifier or the names of its
+ *     contributors may be used to endorse or promote products derived
+ *     from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.leclercb.taskunifier.gui.utils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.logging.Level;
+
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+
+import org.apache.commons.io.output.CountingOutputStream;
+
+import com.leclercb.commons.api.utils.CheckUtils;
+import com.leclercb.commons.gui.logger.GuiLogger;
+import com.leclercb.taskunifier.gui.translations.Translations;
+
+/**
+ * Writes the data files on a background thread. The content of the files is
+ * captured by the caller (usually on the event dispatch thread) in a
+ * {@link SaveBatch} and the batches are written in order by a single worker.
+ * Each file is written to a temporary file, synced to the disk and renamed,
+ * so an interrupted save never leaves a half-written file behind. On the
+ * platforms which cannot rename over an existing file, the previous file is
+ * kept under another name until the new one is in place and
+ * {@link #recoverFiles(String)} restores the files of an interrupted save. A
+ * batch is
+ * stopped at its first failure: the following files are neither written nor
+ * deleted and the failure handlers of the batch are called.
+ */
+public final class SaveUtils {
+	
+	private static final String TMP_EXTENSION = ".tmp";
+	private static final String OLD_EXTENSION = ".old";
+	
+	private static SaveUtils INSTANCE;
+	
+	public static synchronized SaveUtils getInstance() {
+		if (INSTANCE == null)
+			INSTANCE = new SaveUtils();
+		
+		return INSTANCE;
+	}
+	
+	private LinkedList<SaveBatch> batches;
+	private SaveBatch currentBatch;
+	private Thread thread;
+	
+	private long lastSnapshotDuration;
+	private long lastWriteDuration;
+	private long lastByteCount;
+	private long totalByteCount;
+	private int saveCount;
+	
+	private SaveUtils() {
+		this.batches = new LinkedList<SaveBatch>();
+		this.currentBatch = null;
+		this.thread = null;
+	}
+	
+	/**
+	 * Queues the given batch. The batch must not be modified afterwards.
+	 */
+	public synchronized void save(SaveBatch batch) {
+		CheckUtils.isNotNull(batch);
+		
+		batch.snapshotDuration = System.currentTimeMillis()
+				- batch.creationTime;
+		
+		this.batches.add(batch);
+		this.notifyAll();
+		
+		if (this.thread == null) {
+			this.thread = new SaveThread();
+			this.thread.start();
+		}
+	}
+	
+	/**
+	 * Waits until all the queued batches have been written.
+	 */
+	public synchronized void waitForSaves() {
+		while (!this.batches.isEmpty() || this.currentBatch != null) {
+			try {
+				this.wait();
+			} catch (InterruptedException e) {
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Returns the time spent capturing the content of the last written batch,
+	 * in milliseconds.
+	 */
+	public synchronized long getLastSnapshotDuration() {
+		return this.lastSnapshotDuration;
+	}
+	
+	/**
+	 * Returns the time spent writing the last written batch, in milliseconds.
+	 */
+	public synchronized long getLastWriteDuration() {
+		return this.lastWriteDuration;
+	}
+	
+	/**
+	 * Returns the number of bytes written by the last written batch.
+	 */
+	public synchronized long getLastByteCount() {
+		return this.lastByteCount;
+	}
+	
+	/**
+	 * Returns the number of bytes written since the application started.
+	 */
+	public synchronized long getTotalByteCount() {
+		return this.totalByteCount;
+	}
+	
+	/**
+	 * Returns the number of batches written since the application started.
+	 */
+	public synchronized int getSaveCount() {
+		return this.saveCount;
+	}
+	
+	private synchronized SaveBatch nextBatch() throws InterruptedException {
+		while (this.batches.isEmpty())
+			this.wait();
+		
+		this.currentBatch = this.batches.removeFirst();
+		return this.currentBatch;
+	}
+	
+	private synchronized void batchWritten(
+			SaveBatch batch,
+			long writeDuration,
+			long byteCount) {
+		this.lastSnapshotDuration = batch.snapshotDuration;
+		this.lastWriteDuration = writeDuration;
+		this.lastByteCount = byteCount;
+		this.totalByteCount += byteCount;
+		this.saveCount++;
+		
+		this.currentBatch = null;
+		this.notifyAll();
+	}
+	
+	private void write(SaveBatch batch) {
+		long start = System.currentTimeMillis();
+		long byteCount = 0;
+		
+		for (SaveFile file : batch.files) {
+			try {
+				if (file.content == null)
+					file.file.delete();
+				else if (file.append)
+					byteCount += this.append(file.file, file.content);
+				else
+					byteCount += this.write(file.file, file.content);
+			} catch (final Throwable t) {
+				GuiLogger.getLogger().log(
+						Level.SEVERE,
+						"Error while saving " + file.file,
+						t);
+				
+				for (Runnable handler : batch.failureHandlers) {
+					try {
+						handler.run();
+					} catch (Throwable t2) {
+						GuiLogger.getLogger().log(
+								Level.SEVERE,
+								"Error while handling save failure",
+								t2);
+					}
+				}
+				
+				SwingUtilities.invokeLater(new Runnable() {
+					
+					@Override
+					public void run() {
+						JOptionPane.showMessageDialog(
+								null,
+								t.getMessage(),
+								Translations.getString("general.error"),
+								JOptionPane.ERROR_MESSAGE);
+					}
+					
+				});
+				
+				// The next files may depend on this one (a journal must not be
+				// deleted if its XML file has not been written)
+				break;
+			}
+		}
+		
+		long writeDuration = System.currentTimeMillis() - start;
+		
+		GuiLogger.getLogger().info(
+				"Saved "
+						+ batch.files.size()
+						+ " files ("
+						+ byteCount
+						+ " bytes) in "
+						+ writeDuration
+						+ " ms (snapshot: "
+						+ batch.snapshotDuration
+						+ " ms)");
+		
+		this.batchWritten(batch, writeDuration, byteCount);
+	}
+	
+	private long write(File file, SaveContent content) throws Exception {
+		File tmpFile = new File(file.getAbsolutePath() + TMP_EXTENSION);
+		
+		long byteCount = this.write(tmpFile, false, content);
+		
+		if (tmpFile.renameTo(file))
+			return byteCount;
+		
+		// Some platforms cannot rename over an existing file: the previous file
+		// is only deleted once the new one is in place
+		File oldFile = new File(file.getAbsolutePath() + OLD_EXTENSION);
+		oldFile.delete();
+		
+		if (file.exists() && !file.renameTo(oldFile))
+			throw new IOException("Cannot rename " + file + " to " + oldFile);
+		
+		if (!tmpFile.renameTo(file)) {
+			oldFile.renameTo(file);
+			
+			throw new IOException("Cannot rename " + tmpFile + " to " + file);
+		}
+		
+		oldFile.delete();
+		
+		return byteCount;
+	}
+	
+	private long append(File file, SaveContent content) throws Exception {
+		return this.write(file, true, content);
+	}
+	
+	private long write(File file, boolean append, SaveContent content)
+			throws Exception {
+		FileOutputStream output = new FileOutputStream(file, append);
+		
+		try {
+			CountingOutputStream counter = new CountingOutputStream(output);
+			content.write(counter);
+			counter.flush();
+			output.getFD().sync();
+			
+			return counter.getByteCount();
+		} finally {
+			output.close();
+		}
+	}
+	
+	private class SaveThread extends Thread {
+		
+		public SaveThread() {
+			super("Save");
+			this.setDaemon(true);
+		}
+		
+		@Override
+		public void run() {
+			while (true) {
+				try {
+					SaveUtils.this.write(SaveUtils.this.nextBatch());
+				} catch (InterruptedException e) {
+					return;
+				}
+			}
+		}
+		
+	}
+	
+	/**
+	 * Restores the files of the given folder left behind by an interrupted
+	 * save. Must be called before the files of the folder are read.
+	 */
+	public static void recoverFiles(String folder) {
+		File[] files = new File(folder).listFiles();
+		
+		if (files == null)
+			return;
+		
+		for (File oldFile : files) {
+			String path = oldFile.getAbsolutePath();
+			
+			if (!path.endsWith(OLD_EXTENSION))
+				continue;
+			
+			path = path.substring(0, path.length() - OLD_EXTENSION.length());
+			
+			File file = new File(path);
+			File tmpFile = new File(path + TMP_EXTENSION);
+			
+			if (!file.exists()) {
+				// The save was interrupted between the two renames: the
+				// temporary file has been fully written
+				if (!tmpFile.exists() || !tmpFile.renameTo(file))
+					oldFile.renameTo(file);
+				
+				GuiLogger.getLogger().warning("File recovered: " + file);
+			}
+			
+			if (file.exists())
+				oldFile.delete();
+		}
+	}
+	
+	/**
+	 * Returns a content which writes the given bytes.
+	 */
+	public static SaveContent getContent(final byte[] bytes) {
+		CheckUtils.isNotNull(bytes);
+		
+		return new SaveContent() {
+			
+			@Override
+			public void write(OutputStream output) throws Exception {
+				output.write(bytes);
+			}
+			
+		};
+	}
+	
+	/**
+	 * Content of a file, written on the save thread.
+	 */
+	public static interface SaveContent {
+		
+		public abstract void write(OutputStream output) throws Exception;
+		
+	}
+	
+	/**
+	 * Ordered list of files to write, append to or delete.
+	 */
+	public static class SaveBatch {
+		
+		private long creationTime;
+		private long snapshotDuration;
+		private List<SaveFile> files;
+		private List<Runnable> failureHandlers;
+		
+		public SaveBatch() {
+			this.creationTime = System.currentTimeMillis();
+			this.files = new ArrayList<SaveFile>();
+			this.failureHandlers = new ArrayList<Runnable>();
+		}
+		
+		public void write(File file, SaveContent content) {
+			CheckUtils.isNotNull(file);
+			CheckUtils.isNotNull(content);
+			
+			this.files.add(new SaveFile(file, false, content));
+		}
+		
+		public void write(File file, byte[] bytes) {
+			this.write(file, getContent(bytes));
+		}
+		
+		public void append(File file, SaveContent content) {
+			CheckUtils.isNotNull(file);
+			CheckUtils.isNotNull(content);
+			
+			this.files.add(new SaveFile(file, true, content));
+		}
+		
+		public void delete(File file) {
+			CheckUtils.isNotNull(file);
+			
+			this.files.add(new SaveFile(file, false, null));
+		}
+		
+		/**
+		 * Adds a handler called on the save thread if a file of the batch
+		 * cannot be written.
+		 */
+		public void addFailureHandler(Runnable handler) {
+			CheckUtils.isNotNull(handler);
+			
+			this.failureHandlers.add(handler);
+		}
+		
+		public boolean isEmpty() {
+			return this.files.isEmpty();
+		}
+		
+	}
+	
+	private static class SaveFile {
+		
+		private File file;
+		private boolean append;
+		private SaveContent content;
+		
+		public SaveFile(File file, boolean append, SaveContent content) {
+			this.file = file;
+			this.append = append;
+			this.content = content;
+		}
+		
+	}
+	
+}
@@ -33,8 +33,11 @@
 package com.leclercb.taskunifier.gui.utils;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Calendar;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.swing.SortOrder;
 
@@ -63,7 +66,6 @@ import com.leclercb.taskunifier.gui.commons.values.StringValueTaskRepeatFrom;
 import com.leclercb.taskunifier.gui.commons.values.StringValueTaskStatus;
 import com.leclercb.taskunifier.gui.commons.values.StringValueTimer;
 import com.leclercb.taskunifier.gui.components.modelnote.converters.Text2HTML;
-import com.leclercb.taskunifier.gui.components.synchronize.Synchronizing;
 import com.leclercb.taskunifier.gui.components.tasks.TaskColumn;
 import com.leclercb.taskunifier.gui.main.Main;
 
@@ -86,7 +88,7 @@ public final class TaskUtils {
 			int index,
 			Task[] tasksToOrder,
 			Task[] displayedTasks) {
-		Synchronizing.setSynchronizing(true);
+		TaskFactory.getInstance().beginBatch();
 		
 		try {
 			int newOrder = 0;
@@ -130,7 +132,7 @@ public final class TaskUtils {
 				task.setOrder(newOrder + i);
 			}
 		} finally {
-			Synchronizing.setSynchronizing(false);
+			TaskFactory.getInstance().endBatch();
 		}
 	}
 	
@@ -639,6 +641,182 @@ public final class TaskUtils {
 		return filter.include(task);
 	}
 	
+	/**
+	 * Returns the result of {@link #showTask(Task, TaskFilter)} (or of
+	 * {@link #showUnindentTask(Task, TaskFilter)} if the subtasks are not
+	 * indented) for all the given tasks. The bit at index i is set if the task
+	 * at index i must be shown. The parents of the tasks must be in the list.
+	 * 
+	 * Each task is visited a constant number of times: the ancestor dependent
+	 * values are computed from the parent (pre-order) and the "has a visible
+	 * descendant" flags are propagated to the ancestors (post-order).
+	 */
+	public static BitSet showTasks(
+			List<Task> tasks,
+			TaskFilter filter,
+			boolean indentSubtasks) {
+		return new TaskVisibility(tasks, filter).showTasks(indentSubtasks);
+	}
+	
+	/**
+	 * Returns the result of {@link #badgeTask(Task, TaskFilter)} for all the
+	 * given tasks. The bit at index i is set if the task at index i must be
+	 * counted in the badge. The parents and the children of the tasks must be
+	 * in the list.
+	 */
+	public static BitSet badgeTasks(List<Task> tasks, TaskFilter filter) {
+		return new TaskVisibility(tasks, filter).badgeTasks();
+	}
+	
+	private static class TaskVisibility {
+		
+		private List<Task> tasks;
+		private TaskFilter filter;
+		
+		private int[] parents;
+		private boolean[] candidates;
+		private byte[] included;
+		
+		private boolean[] computed;
+		private boolean[] collapsed;
+		private boolean[] shown;
+		private boolean[] badged;
+		private boolean[] visibleChildren;
+		
+		public TaskVisibility(List<Task> tasks, TaskFilter filter) {
+			this.tasks = tasks;
+			this.filter = filter;
+			
+			int size = tasks.size();
+			
+			boolean containsCompleted = containsCompleted(filter);
+			boolean showCompleted = Main.getSettings().getBooleanProperty(
+					"tasksearcher.show_completed_tasks");
+			
+			Map<Task, Integer> indexes = new IdentityHashMap<Task, Integer>(
+					size);
+			
+			for (int i = 0; i < size; i++)
+				indexes.put(tasks.get(i), i);
+			
+			this.parents = new int[size];
+			this.candidates = new boolean[size];
+			this.included = new byte[size];
+			
+			for (int i = 0; i < size; i++) {
+				Task task = tasks.get(i);
+				Integer parent = (task.getParent() == null ? null : indexes.get(task.getParent()));
+				
+				this.parents[i] = (parent == null ? -1 : parent);
+				this.candidates[i] = task.getModelStatus().isEndUserStatus()
+						&& (showCompleted || !task.isCompleted() || containsCompleted);
+			}
+		}
+		
+		public BitSet showTasks(boolean indentSubtasks) {
+			int size = this.tasks.size();
+			BitSet visible = new BitSet(size);
+			
+			if (!indentSubtasks) {
+				for (int i = 0; i < size; i++)
+					if (this.candidates[i] && this.isIncluded(i))
+						visible.set(i);
+				
+				return visible;
+			}
+			
+			this.computeAll();
+			
+			for (int i = 0; i < size; i++) {
+				if (!this.tasks.get(i).getModelStatus().isEndUserStatus())
+					continue;
+				
+				if (this.shown[i]
+						|| (this.visibleChildren[i] && !this.collapsed[i]))
+					visible.set(i);
+			}
+			
+			return visible;
+		}
+		
+		public BitSet badgeTasks() {
+			int size = this.tasks.size();
+			BitSet badged = new BitSet(size);
+			
+			this.computeAll();
+			
+			for (int i = 0; i < size; i++) {
+				if (!this.tasks.get(i).getModelStatus().isEndUserStatus())
+					continue;
+				
+				if (this.badged[i] || this.visibleChildren[i])
+					badged.set(i);
+			}
+			
+			return badged;
+		}
+		
+		private void computeAll() {
+			int size = this.tasks.size();
+			
+			this.computed = new boolean[size];
+			this.collapsed = new boolean[size];
+			this.shown = new boolean[size];
+			this.badged = new boolean[size];
+			this.visibleChildren = new boolean[size];
+			
+			for (int i = 0; i < size; i++)
+				this.compute(i);
+			
+			// A task with a visible descendant is shown
+			for (int i = 0; i < size; i++) {
+				if (!this.badged[i])
+					continue;
+				
+				int parent = this.parents[i];
+				while (parent != -1 && !this.visibleChildren[parent]) {
+					this.visibleChildren[parent] = true;
+					parent = this.parents[parent];
+				}
+			}
+		}
+		
+		private void compute(int i) {
+			if (this.computed[i])
+				return;
+			
+			int parent = this.parents[i];
+			
+			if (parent != -1)
+				this.compute(parent);
+			
+			// One of the parents does not show its children
+			this.collapsed[i] = parent != -1
+					&& (this.collapsed[parent] || !((GuiTask) this.tasks.get(parent)).isShowChildren());
+			
+			// Shown by the filter or because its parent is shown
+			this.shown[i] = this.candidates[i]
+					&& !this.collapsed[i]
+					&& ((parent != -1 && this.shown[parent]) || this.isIncluded(i));
+			
+			// Same as shown, ignoring the collapsed parents
+			this.badged[i] = this.candidates[i]
+					&& ((parent != -1 && this.badged[parent]) || this.isIncluded(i));
+			
+			this.computed[i] = true;
+		}
+		
+		private boolean isIncluded(int i) {
+			if (this.included[i] == 0) {
+				boolean included = (this.filter == null || this.filter.include(this.tasks.get(i)));
+				this.included[i] = (byte) (included ? 1 : 2);
+			}
+			
+			return this.included[i] == 1;
+		}
+		
+	}
+	
 	private static boolean containsCompleted(TaskFilter filter) {
 		if (filter == null)
 			return false;
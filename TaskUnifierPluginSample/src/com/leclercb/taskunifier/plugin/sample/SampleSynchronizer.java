@@ -4,14 +4,16 @@ import java.util.Properties;
 
 import com.leclercb.commons.api.progress.ProgressMonitor;
 import com.leclercb.taskunifier.api.models.ModelType;
-import com.leclercb.taskunifier.api.synchronizer.Synchronizer;
+import com.leclercb.taskunifier.api.synchronizer.DetachedSynchronizer;
+import com.leclercb.taskunifier.api.synchronizer.SynchronizerChangeSet;
 import com.leclercb.taskunifier.api.synchronizer.SynchronizerChoice;
+import com.leclercb.taskunifier.api.synchronizer.SynchronizerSnapshot;
 import com.leclercb.taskunifier.api.synchronizer.exc.SynchronizerException;
 import com.leclercb.taskunifier.api.synchronizer.progress.messages.SynchronizerMainProgressMessage.ProgressMessageType;
 import com.leclercb.taskunifier.api.synchronizer.progress.messages.SynchronizerUpdatedModelsProgressMessage;
 import com.leclercb.taskunifier.gui.plugins.PluginApi;
 
-public class SampleSynchronizer implements Synchronizer {
+public class SampleSynchronizer implements DetachedSynchronizer {
 	
 	@Override
 	public void publish() throws SynchronizerException {
@@ -23,6 +25,13 @@ public class SampleSynchronizer implements Synchronizer {
 		
 	}
 	
+	@Override
+	public SynchronizerChangeSet publish(
+			SynchronizerSnapshot snapshot,
+			ProgressMonitor monitor) throws SynchronizerException {
+		return new SynchronizerChangeSet();
+	}
+	
 	@Override
 	public void synchronize() throws SynchronizerException {
 		this.synchronize(SynchronizerChoice.KEEP_LAST_UPDATED, null);
@@ -67,6 +76,18 @@ public class SampleSynchronizer implements Synchronizer {
 					1));
 	}
 	
+	@Override
+	public SynchronizerChangeSet synchronize(
+			SynchronizerSnapshot snapshot,
+			SynchronizerChoice choice,
+			ProgressMonitor monitor) throws SynchronizerException {
+		// Synchronize the snapshot without accessing the factories...
+		this.synchronize(choice, monitor);
+		
+		// ...and return the local changes
+		return new SynchronizerChangeSet();
+	}
+	
 	@Override
 	public void loadParameters(Properties properties) {
 		